@@ -0,0 +1,48 @@
+#!/usr/bin/env bash
+# Time-to-first-request benchmark: default launch vs. the fast-startup build (AOT + AppCDS + lazy beans).
+#
+#   ./gradlew bootJar && ./gradlew -PfastStartup cdsArchive
+#   scripts/startup-benchmark.sh [runs]
+#
+# Each run starts a fresh JVM and polls a DB-backed endpoint until it answers 200,
+# so the measured time includes the first Hikari connection and Hibernate query.
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-9090}
+URL="http://localhost:${PORT}/api/auth/users/0/exists"
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+BOOT_JAR=$(ls "$ROOT"/build/libs/*-SNAPSHOT.jar | grep -v plain | head -n 1)
+FAST_DIR="$ROOT/build/fast-startup"
+
+measure() {
+  local label=$1 dir=$2; shift 2
+  local results=()
+  for ((i = 1; i <= RUNS; i++)); do
+    local start pid code elapsed
+    start=$(date +%s%N)
+    (cd "$dir" && exec "$@" --server.port="$PORT" >/dev/null 2>&1) &
+    pid=$!
+    code=000
+    until [[ "$code" == "200" ]]; do
+      if ! kill -0 "$pid" 2>/dev/null; then
+        echo "$label: application exited before serving a request" >&2
+        exit 1
+      fi
+      sleep 0.02
+      code=$(curl -s -o /dev/null -w '%{http_code}' "$URL" || true)
+    done
+    elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    results+=("$elapsed")
+    echo "$label run $i: ${elapsed} ms"
+  done
+  local median
+  median=$(printf '%s\n' "${results[@]}" | sort -n | awk '{a[NR]=$1} END {print a[int((NR + 1) / 2)]}')
+  echo "$label median time-to-first-request: ${median} ms"
+}
+
+measure "default" "$ROOT" java -jar "$BOOT_JAR"
+measure "fast-startup" "$FAST_DIR" java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true \
+  -Dspring.profiles.active=fast-startup -jar app.jar
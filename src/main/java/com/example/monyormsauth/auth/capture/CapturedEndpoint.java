@@ -0,0 +1,105 @@
+package com.example.monyormsauth.auth.capture;
+
+/**
+ * The AuthController endpoints recorded by {@link TrafficCaptureFilter}. The code is what goes into
+ * the trace file, so existing codes must never change.
+ */
+public enum CapturedEndpoint {
+
+    REGISTER(1, "POST", "/api/auth/register"),
+    LOGIN(2, "POST", "/api/auth/login"),
+    REFRESH_TOKEN(3, "POST", "/api/auth/refresh-token"),
+    LOGOUT(4, "POST", "/api/auth/logout"),
+    FORGOT_PASSWORD(5, "POST", "/api/auth/forgot-password"),
+    RESET_PASSWORD(6, "POST", "/api/auth/reset-password"),
+    DELETE_USER(7, "DELETE", "/api/auth/users/{id}"),
+    UPDATE_ROLE(8, "PUT", "/api/auth/users/{id}/role"),
+    AVAILABILITY(9, "GET", "/api/auth/availability"),
+    USER_EXISTS(10, "GET", "/api/auth/users/{id}/exists"),
+    USER_ROLE(11, "GET", "/api/auth/users/{id}/role");
+
+    private static final CapturedEndpoint[] BY_CODE = new CapturedEndpoint[16];
+
+    static {
+        for (CapturedEndpoint endpoint : values()) {
+            BY_CODE[endpoint.code] = endpoint;
+        }
+    }
+
+    private final int code;
+    private final String method;
+    private final String template;
+    // Parts of the template around {id}; suffix is null for templates without an id
+    private final String prefix;
+    private final String suffix;
+
+    CapturedEndpoint(int code, String method, String template) {
+        this.code = code;
+        this.method = method;
+        this.template = template;
+        int id = template.indexOf("{id}");
+        this.prefix = id < 0 ? template : template.substring(0, id);
+        this.suffix = id < 0 ? null : template.substring(id + "{id}".length());
+    }
+
+    public int code() {
+        return code;
+    }
+
+    public String method() {
+        return method;
+    }
+
+    public String template() {
+        return template;
+    }
+
+    public boolean hasId() {
+        return suffix != null;
+    }
+
+    /** Path with {@code {id}} filled in. */
+    public String path(long id) {
+        return hasId() ? prefix + id + suffix : template;
+    }
+
+    /** The numeric {@code {id}} of a path this endpoint matched, or null. */
+    public String idOf(String path) {
+        return hasId() ? path.substring(prefix.length(), path.length() - suffix.length()) : null;
+    }
+
+    public static CapturedEndpoint ofCode(int code) {
+        CapturedEndpoint endpoint = code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        if (endpoint == null) {
+            throw new IllegalArgumentException("Unknown endpoint code " + code);
+        }
+        return endpoint;
+    }
+
+    /** The endpoint serving {@code method} and {@code path}, or null for anything else. */
+    public static CapturedEndpoint match(String method, String path) {
+        for (CapturedEndpoint endpoint : values()) {
+            if (endpoint.method.equals(method) && endpoint.matches(path)) {
+                return endpoint;
+            }
+        }
+        return null;
+    }
+
+    private boolean matches(String path) {
+        if (suffix == null) {
+            return path.equals(template);
+        }
+        int idEnd = path.length() - suffix.length();
+        if (idEnd <= prefix.length() || !path.startsWith(prefix) || !path.endsWith(suffix)) {
+            return false;
+        }
+        for (int i = prefix.length(); i < idEnd; i++) {
+            char c = path.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
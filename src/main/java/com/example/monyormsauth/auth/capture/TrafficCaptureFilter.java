@@ -0,0 +1,223 @@
+package com.example.monyormsauth.auth.capture;
+
+import com.example.monyormsauth.auth.model.enumerator.ERole;
+import com.example.monyormsauth.auth.service.AccessToken;
+import com.example.monyormsauth.auth.service.JwtService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Records the shape and timing of AuthController calls into an append-only capture file
+ * (see {@link TrafficTraceFile}) for replay with {@code TrafficReplay} (tools source set). Sits in the security chain
+ * right before {@code JwtAuthFilter}, so the recorded duration covers token parsing as well.
+ *
+ * <p>No credential, token or identifier is written. Each becomes a keyed hash under a random key that
+ * lives only in this process, which is enough for the replay to tell accounts apart and nothing more.
+ */
+@Component
+@ConditionalOnProperty(name = "trafficCapture.enabled", havingValue = "true")
+@Slf4j
+public class TrafficCaptureFilter extends OncePerRequestFilter {
+
+    // Enough for every AuthController request body
+    private static final int BODY_LIMIT = 4096;
+
+    private final JwtService jwtService;
+    private final ObjectMapper objectMapper;
+    private final TrafficCaptureWriter writer;
+    private final double sampleRate;
+    private final long segmentStartNanos = System.nanoTime();
+    private final ThreadLocal<Mac> anonymizer;
+
+    public TrafficCaptureFilter(JwtService jwtService,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${trafficCapture.file:traffic.mrtc}") String file,
+                                @Value("${trafficCapture.maxBytes:1073741824}") long maxBytes,
+                                @Value("${trafficCapture.sampleRate:1.0}") double sampleRate,
+                                @Value("${trafficCapture.queueCapacity:65536}") int queueCapacity) throws IOException {
+        this.jwtService = jwtService;
+        this.objectMapper = objectMapper;
+        this.sampleRate = sampleRate;
+        this.writer = new TrafficCaptureWriter(Path.of(file), System.currentTimeMillis(), maxBytes, queueCapacity);
+
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        SecretKeySpec keySpec = new SecretKeySpec(key, "HmacSHA256");
+        this.anonymizer = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(keySpec);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 is not available", e);
+            }
+        });
+
+        Gauge.builder("auth.capture.dropped", writer, TrafficCaptureWriter::dropped)
+                .description("Captured requests dropped because the writer queue was full or the file reached maxBytes")
+                .register(meterRegistry);
+        log.info("Capturing AuthController traffic to {} (sample rate {})", file, sampleRate);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        CapturedEndpoint endpoint = CapturedEndpoint.match(request.getMethod(), request.getServletPath());
+        if (endpoint == null || (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ContentCachingRequestWrapper cachingRequest = new ContentCachingRequestWrapper(request, BODY_LIMIT);
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(cachingRequest, response);
+            failed = false;
+        } finally {
+            long duration = System.nanoTime() - start;
+            int status = failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus();
+            try {
+                writer.offer(toRecord(endpoint, cachingRequest, start, duration, status));
+            } catch (RuntimeException e) {
+                // Capturing must never fail the request it describes
+                log.debug("Could not capture {} {}: {}", request.getMethod(), request.getServletPath(), e.toString());
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return true;
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        writer.close();
+        log.info("Traffic capture closed: {} bytes written, {} requests dropped", writer.written(), writer.dropped());
+    }
+
+    private TrafficRecord toRecord(CapturedEndpoint endpoint, ContentCachingRequestWrapper request,
+                                   long start, long duration, int status) {
+        JsonNode body = body(request);
+        String subject;
+        int flags = 0;
+        int detail = 0;
+        switch (endpoint) {
+            case REGISTER -> subject = text(body, "username");
+            case LOGIN -> {
+                subject = text(body, "identifier");
+                if (subject != null && subject.indexOf('@') >= 0) {
+                    flags |= TrafficRecord.SUBJECT_EMAIL;
+                }
+            }
+            case REFRESH_TOKEN -> subject = text(body, "refreshToken");
+            case LOGOUT -> subject = request.getParameter("username");
+            case FORGOT_PASSWORD -> {
+                subject = text(body, "email");
+                flags |= TrafficRecord.SUBJECT_EMAIL;
+            }
+            case RESET_PASSWORD -> subject = text(body, "token");
+            case AVAILABILITY -> {
+                subject = request.getParameter("username");
+                if (subject == null) {
+                    subject = request.getParameter("email");
+                    flags |= TrafficRecord.SUBJECT_EMAIL;
+                }
+            }
+            default -> {
+                subject = endpoint.idOf(request.getServletPath());
+                if (endpoint == CapturedEndpoint.UPDATE_ROLE) {
+                    detail = roleDetail(text(body, "role"));
+                }
+            }
+        }
+
+        int subjectHash = 0;
+        if (subject != null && !subject.isEmpty()) {
+            flags |= TrafficRecord.HAS_SUBJECT;
+            subjectHash = anonymize(subject);
+        }
+
+        int caller = 0;
+        int tokenAge = 0;
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            flags |= TrafficRecord.BEARER;
+            try {
+                AccessToken token = jwtService.parseAccessToken(authHeader.substring(7));
+                flags |= TrafficRecord.BEARER_VALID;
+                caller = anonymize(token.subject());
+                tokenAge = (int) Math.max(0, (System.currentTimeMillis() - token.issuedAtEpochMilli()) / 1000);
+                if (token.authorities().stream().anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()))) {
+                    flags |= TrafficRecord.CALLER_ADMIN;
+                }
+            } catch (RuntimeException e) {
+                // Expired, tampered or malformed: replayed as an invalid token
+            }
+        }
+
+        int requestBytes = (int) Math.max(request.getContentLengthLong(), request.getContentAsByteArray().length);
+        return new TrafficRecord(endpoint, (start - segmentStartNanos) / 1000, (int) (duration / 1000), status,
+                flags, subjectHash, caller, tokenAge, requestBytes, detail);
+    }
+
+    private JsonNode body(ContentCachingRequestWrapper request) {
+        byte[] content = request.getContentAsByteArray();
+        if (content.length == 0) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(content);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static String text(JsonNode body, String field) {
+        JsonNode value = body == null ? null : body.get(field);
+        return value == null || !value.isTextual() ? null : value.asText();
+    }
+
+    private static int roleDetail(String role) {
+        if (role == null) {
+            return 0;
+        }
+        try {
+            return ERole.valueOf(role).ordinal() + 1;
+        } catch (IllegalArgumentException e) {
+            return 0;
+        }
+    }
+
+    private int anonymize(String value) {
+        byte[] digest = anonymizer.get().doFinal(value.getBytes(StandardCharsets.UTF_8));
+        return ByteBuffer.wrap(digest).getInt();
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.monyormsauth.auth.capture;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Appends {@link TrafficRecord}s to a capture file from a single background thread. Request threads
+ * only enqueue; when the queue is full or the file has reached {@code maxBytes}, records are dropped
+ * and counted instead of slowing requests down.
+ */
+@Slf4j
+public class TrafficCaptureWriter implements Closeable {
+
+    private final BlockingQueue<TrafficRecord> queue;
+    private final OutputStream file;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+    private final DataOutputStream encoder = new DataOutputStream(buffer);
+    private final long maxBytes;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean full;
+    private volatile boolean closed;
+
+    public TrafficCaptureWriter(Path path, long startEpochMillis, long maxBytes, int queueCapacity) throws IOException {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBytes = maxBytes;
+
+        long existing = Files.exists(path) ? Files.size(path) : 0;
+        if (existing > 0) {
+            try (InputStream in = Files.newInputStream(path)) {
+                TrafficTraceFile.verifyHeader(in);
+            }
+        }
+        this.file = new BufferedOutputStream(
+                Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND), 1 << 16);
+        if (existing == 0) {
+            TrafficTraceFile.writeHeader(encoder);
+        }
+        TrafficTraceFile.writeSegmentStart(encoder, startEpochMillis);
+        this.written.set(existing + buffer.size());
+        flushBuffer();
+        file.flush();
+
+        this.thread = new Thread(this::run, "traffic-capture-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /** Queues a record; returns false if it was dropped. */
+    public boolean offer(TrafficRecord record) {
+        if (closed || full || !queue.offer(record)) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+
+    public long written() {
+        return written.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        file.close();
+    }
+
+    private void run() {
+        try {
+            long lastFlush = System.nanoTime();
+            while (!closed || !queue.isEmpty()) {
+                TrafficRecord record = queue.poll(1, TimeUnit.SECONDS);
+                if (record != null) {
+                    append(record);
+                }
+                // At most a second of records sits in the buffer, busy or idle
+                if (record == null || System.nanoTime() - lastFlush > TimeUnit.SECONDS.toNanos(1)) {
+                    file.flush();
+                    lastFlush = System.nanoTime();
+                }
+            }
+            file.flush();
+        } catch (IOException e) {
+            full = true;
+            log.error("Traffic capture stopped, cannot write the capture file: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void append(TrafficRecord record) throws IOException {
+        TrafficTraceFile.writeRecord(encoder, record);
+        if (written.get() + buffer.size() > maxBytes) {
+            buffer.reset();
+            dropped.incrementAndGet();
+            if (!full) {
+                full = true;
+                log.warn("Traffic capture file reached {} bytes, further requests are not recorded", maxBytes);
+            }
+            return;
+        }
+        written.addAndGet(buffer.size());
+        flushBuffer();
+    }
+
+    private void flushBuffer() throws IOException {
+        encoder.flush();
+        buffer.writeTo(file);
+        buffer.reset();
+    }
+}
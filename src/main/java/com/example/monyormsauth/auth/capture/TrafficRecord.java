@@ -0,0 +1,33 @@
+package com.example.monyormsauth.auth.capture;
+
+/**
+ * One captured AuthController call. Nothing in it can be turned back into a credential: identifiers,
+ * tokens and ids are reduced to {@code subject} / {@code caller}, keyed hashes whose key is never written.
+ * Equal values within a capture segment mean the same account, token or caller.
+ *
+ * @param startMicros     request start, relative to the segment start
+ * @param durationMicros  time spent in the filter chain
+ * @param subject         the identifier, token or id the request is about; valid with {@link #HAS_SUBJECT}
+ * @param caller          subject of the bearer token; valid with {@link #BEARER_VALID}
+ * @param tokenAgeSeconds age of the bearer token; valid with {@link #BEARER_VALID}
+ * @param requestBytes    request body length
+ * @param detail          endpoint specific: the requested role ordinal + 1 for {@link CapturedEndpoint#UPDATE_ROLE}
+ */
+public record TrafficRecord(CapturedEndpoint endpoint, long startMicros, int durationMicros, int status, int flags,
+                            int subject, int caller, int tokenAgeSeconds, int requestBytes, int detail) {
+
+    public static final int HAS_SUBJECT = 1;
+    /** The subject is an email rather than a username (login, forgot-password, availability). */
+    public static final int SUBJECT_EMAIL = 1 << 1;
+    public static final int BEARER = 1 << 2;
+    public static final int BEARER_VALID = 1 << 3;
+    public static final int CALLER_ADMIN = 1 << 4;
+
+    public boolean has(int flag) {
+        return (flags & flag) != 0;
+    }
+
+    public boolean succeeded() {
+        return status >= 200 && status < 400;
+    }
+}
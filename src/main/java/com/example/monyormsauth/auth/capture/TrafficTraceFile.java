@@ -0,0 +1,141 @@
+package com.example.monyormsauth.auth.capture;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binary layout of a traffic capture. The file is append-only: a header, then one segment per
+ * capturing process, each a start marker followed by records.
+ *
+ * <pre>
+ * file     = "MRTC" u8:version segment*
+ * segment  = 0xFF i64:startEpochMillis record*
+ * record   = u8:endpointCode varlong:startMicros varint:durationMicros varint:status u8:flags
+ *            [i32:subject]                        if HAS_SUBJECT
+ *            [i32:caller varint:tokenAgeSeconds]  if BEARER_VALID
+ *            varint:requestBytes u8:detail
+ * </pre>
+ *
+ * A record cut short by a crash ends the file; everything before it is still readable.
+ */
+public final class TrafficTraceFile {
+
+    static final byte[] MAGIC = {'M', 'R', 'T', 'C'};
+    static final int VERSION = 1;
+    static final int SEGMENT_START = 0xFF;
+
+    public record Segment(long startEpochMillis, List<TrafficRecord> records) {
+    }
+
+    private TrafficTraceFile() {
+    }
+
+    static void writeHeader(DataOutput out) throws IOException {
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+    }
+
+    static void writeSegmentStart(DataOutput out, long startEpochMillis) throws IOException {
+        out.writeByte(SEGMENT_START);
+        out.writeLong(startEpochMillis);
+    }
+
+    static void writeRecord(DataOutput out, TrafficRecord record) throws IOException {
+        out.writeByte(record.endpoint().code());
+        writeVarLong(out, record.startMicros());
+        writeVarLong(out, record.durationMicros());
+        writeVarLong(out, record.status());
+        out.writeByte(record.flags());
+        if (record.has(TrafficRecord.HAS_SUBJECT)) {
+            out.writeInt(record.subject());
+        }
+        if (record.has(TrafficRecord.BEARER_VALID)) {
+            out.writeInt(record.caller());
+            writeVarLong(out, Math.max(0, record.tokenAgeSeconds()));
+        }
+        writeVarLong(out, Math.max(0, record.requestBytes()));
+        out.writeByte(record.detail());
+    }
+
+    /** Checks the header of an existing, non-empty capture file. */
+    static void verifyHeader(InputStream in) throws IOException {
+        byte[] magic = in.readNBytes(MAGIC.length);
+        int version = in.read();
+        if (!Arrays.equals(magic, MAGIC) || version != VERSION) {
+            throw new IOException("Not a version " + VERSION + " traffic capture file");
+        }
+    }
+
+    public static List<Segment> read(Path file) throws IOException {
+        List<Segment> segments = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            verifyHeader(in);
+            List<TrafficRecord> records = null;
+            int code;
+            while ((code = in.read()) >= 0) {
+                try {
+                    if (code == SEGMENT_START) {
+                        records = new ArrayList<>();
+                        segments.add(new Segment(in.readLong(), records));
+                    } else if (records == null) {
+                        throw new IOException("Record before the first segment in " + file);
+                    } else {
+                        records.add(readRecord(in, code));
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+            }
+        }
+        return segments;
+    }
+
+    private static TrafficRecord readRecord(DataInputStream in, int code) throws IOException {
+        CapturedEndpoint endpoint = CapturedEndpoint.ofCode(code);
+        long startMicros = readVarLong(in);
+        int durationMicros = (int) readVarLong(in);
+        int status = (int) readVarLong(in);
+        int flags = in.readUnsignedByte();
+        int subject = (flags & TrafficRecord.HAS_SUBJECT) != 0 ? in.readInt() : 0;
+        int caller = 0;
+        int tokenAge = 0;
+        if ((flags & TrafficRecord.BEARER_VALID) != 0) {
+            caller = in.readInt();
+            tokenAge = (int) readVarLong(in);
+        }
+        int requestBytes = (int) readVarLong(in);
+        int detail = in.readUnsignedByte();
+        return new TrafficRecord(endpoint, startMicros, durationMicros, status, flags,
+                subject, caller, tokenAge, requestBytes, detail);
+    }
+
+    // Unsigned LEB128, 7 bits per byte
+    private static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
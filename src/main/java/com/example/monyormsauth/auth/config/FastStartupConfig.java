@@ -0,0 +1,60 @@
+package com.example.monyormsauth.auth.config;
+
+import com.example.monyormsauth.auth.service.EmailService;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.type.MethodMetadata;
+
+import java.util.List;
+
+/**
+ * "fast-startup" profile: beans that the login path does not need (Swagger/springdoc, mail)
+ * are created on first use instead of during startup. The profile is also the one the AOT
+ * processing runs with, see the fastStartup block in build.gradle.
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("fast-startup")
+public class FastStartupConfig {
+
+    private static final List<String> LAZY_TYPE_PREFIXES = List.of(
+            "org.springdoc.",
+            "io.swagger.",
+            "org.springframework.boot.autoconfigure.mail.",
+            "org.springframework.mail.",
+            SwaggerConfig.class.getName(),
+            EmailService.class.getName()
+    );
+
+    @Bean
+    static BeanFactoryPostProcessor lazyNonCriticalBeans() {
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                if (isNonCritical(definition)) {
+                    definition.setLazyInit(true);
+                }
+            }
+        };
+    }
+
+    private static boolean isNonCritical(BeanDefinition definition) {
+        if (matches(definition.getBeanClassName())) {
+            return true;
+        }
+        // @Bean methods: check both the return type and the declaring configuration class
+        if (definition instanceof AnnotatedBeanDefinition annotated) {
+            MethodMetadata factoryMethod = annotated.getFactoryMethodMetadata();
+            return factoryMethod != null
+                    && (matches(factoryMethod.getReturnTypeName()) || matches(factoryMethod.getDeclaringClassName()));
+        }
+        return false;
+    }
+
+    private static boolean matches(String typeName) {
+        return typeName != null && LAZY_TYPE_PREFIXES.stream().anyMatch(typeName::startsWith);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.monyormsauth.auth.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// @Scheduled jobs (e.g. TokenPartitionMaintenance) decide for themselves whether they are active
+@Configuration(proxyBeanMethods = false)
+@EnableScheduling
+public class SchedulingConfig {
+}
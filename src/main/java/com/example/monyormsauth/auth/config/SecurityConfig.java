@@ -1,18 +1,24 @@
 package com.example.monyormsauth.auth.config;
 
+import com.example.monyormsauth.auth.capture.TrafficCaptureFilter;
+import com.example.monyormsauth.auth.exception.StacklessBadCredentialsException;
 import com.example.monyormsauth.auth.filter.JwtAuthFilter;
+import com.example.monyormsauth.auth.jfr.JfrPasswordEncoder;
 import com.example.monyormsauth.auth.repository.UserRepository;
 import com.example.monyormsauth.auth.service.UserDetailsServiceImpl;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -24,7 +30,10 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @EnableMethodSecurity(prePostEnabled = true)
 public class SecurityConfig {
 
+    private static final int BCRYPT_STRENGTH = 10;
+
     private final JwtAuthFilter jwtAuthFilter;
+    private final ObjectProvider<TrafficCaptureFilter> trafficCaptureFilter;
     private final UserRepository userRepository;
 
     @Bean
@@ -34,29 +43,44 @@ public class SecurityConfig {
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
-        return http
+        http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(
 
                                 "/api/auth/**",          // login, register, etc.
                                 "/swagger-ui/**",        // Swagger UI
-                                "/v3/api-docs/**"        // Swagger JSON docs
+                                "/v3/api-docs/**",       // Swagger JSON docs
+                                "/actuator/health/**"    // liveness / readiness probes
                         ).permitAll()
                         .requestMatchers("/api/auth/users/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authenticationProvider(authenticationProvider())
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
-                .build();
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+        // Opt-in (trafficCapture.enabled); times everything from token parsing onwards
+        trafficCaptureFilter.ifAvailable(filter -> http.addFilterBefore(filter, JwtAuthFilter.class));
+        return http.build();
     }
 
     @Bean
     public AuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider() {
+            // A wrong password is an expected outcome, so no stack trace is captured
+            @Override
+            protected void additionalAuthenticationChecks(UserDetails userDetails,
+                                                          UsernamePasswordAuthenticationToken authentication) {
+                Object credentials = authentication.getCredentials();
+                if (credentials == null || !getPasswordEncoder().matches(credentials.toString(), userDetails.getPassword())) {
+                    throw new StacklessBadCredentialsException("Bad credentials");
+                }
+            }
+        };
         provider.setUserDetailsService(userDetailsService());
         provider.setPasswordEncoder(passwordEncoder());
+        // Let the stackless not-found exception through; AuthService maps it to the same 401
+        provider.setHideUserNotFoundExceptions(false);
         return provider;
     }
 
@@ -67,6 +91,6 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new JfrPasswordEncoder(new BCryptPasswordEncoder(BCRYPT_STRENGTH), BCRYPT_STRENGTH);
     }
 }
@@ -0,0 +1,22 @@
+package com.example.monyormsauth.auth.controller;
+
+import com.example.monyormsauth.auth.dto.AbuseReport;
+import com.example.monyormsauth.auth.service.AbuseMonitor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/auth/abuse")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AbuseController {
+
+    private final AbuseMonitor abuseMonitor;
+
+    @GetMapping
+    public ResponseEntity<AbuseReport> report(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(abuseMonitor.report(Math.max(1, Math.min(limit, 200))));
+    }
+}
@@ -6,24 +6,30 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
+import java.util.Optional;
+
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
 public class AuthController {
 
     private final AuthService authService;
+    private final UserETagSupport userETagSupport;
     @PostMapping("/register")
     public ResponseEntity<AuthResponse> register(@Valid @RequestBody RegisterRequest request) {
         AuthResponse response = authService.register(request);
         return ResponseEntity.ok(response);
     }
 
+    // Behind a trusted proxy getRemoteAddr() is already the client from X-Forwarded-For (server.forward-headers-strategy)
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
-        AuthResponse response = authService.login(request);
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        AuthResponse response = authService.login(request, httpRequest.getRemoteAddr());
         return ResponseEntity.ok(response);
     }
 
@@ -70,15 +76,20 @@ public class AuthController {
         authService.updateUserRole(id, request.getRole());
         return ResponseEntity.ok("User role updated successfully.");
     }
+    @GetMapping("/availability")
+    public ResponseEntity<AvailabilityResponse> checkAvailability(@RequestParam(required = false) String username,
+                                                                  @RequestParam(required = false) String email) {
+        return ResponseEntity.ok(authService.checkAvailability(username, email));
+    }
+
     @GetMapping("/users/{id}/exists")
-    public ResponseEntity<Boolean> doesUserExist(@PathVariable Long id) {
-        boolean exists = authService.doesUserExist(id);
-        return ResponseEntity.ok(exists);
+    public ResponseEntity<Boolean> doesUserExist(@PathVariable Long id, WebRequest webRequest) {
+        // Ids are never reused, so "absent" is as cacheable as any version
+        return userETagSupport.respond(id, webRequest, "absent", Optional::isPresent);
     }
 
     @GetMapping("/users/{id}/role")
-    public ResponseEntity<String> getUserRole(@PathVariable Long id) {
-        String role = authService.getUserRole(id);
-        return ResponseEntity.ok(role);
+    public ResponseEntity<String> getUserRole(@PathVariable Long id, WebRequest webRequest) {
+        return userETagSupport.respond(id, webRequest, null, version -> authService.getUserRole(id));
     }
 }
@@ -0,0 +1,49 @@
+package com.example.monyormsauth.auth.controller;
+
+import com.example.monyormsauth.auth.dto.*;
+import com.example.monyormsauth.auth.service.UserAdminService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/auth/users")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class UserAdminController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final UserAdminService userAdminService;
+
+    // ?role=USER&usernamePrefix=ka&createdFrom=2024-01-01T00:00:00Z&after=<nextCursor>&limit=50
+    @GetMapping
+    public ResponseEntity<UserPage> listUsers(UserFilter filter,
+                                              @RequestParam(required = false) Long after,
+                                              @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(userAdminService.listUsers(filter, after, limit));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(UserFilter filter) {
+        StreamingResponseBody body = out -> userAdminService.exportUsers(filter, out);
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header("Content-Disposition", "attachment; filename=\"users.ndjson\"")
+                .body(body);
+    }
+
+    @PostMapping("/bulk/role")
+    public ResponseEntity<BulkResult> assignRole(@Valid @RequestBody BulkRoleRequest request) {
+        return ResponseEntity.ok(userAdminService.assignRole(request));
+    }
+
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<BulkResult> deleteUsers(@Valid @RequestBody BulkDeleteRequest request) {
+        return ResponseEntity.ok(userAdminService.deleteUsers(request));
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.monyormsauth.auth.controller;
+
+import com.example.monyormsauth.auth.service.AuthService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Conditional GET support for user read endpoints. The strong ETag is derived from the user's
+ * {@code version} column alone, so a matching {@code If-None-Match} is answered with 304 after a
+ * single primary-key lookup and the body is never built.
+ *
+ * <p>The version is read before the body. If the user changes in between, the client caches a body
+ * newer than its tag, and the next conditional request simply gets a fresh 200.
+ *
+ * <p>By default responses are {@code no-cache}: every use is revalidated, so a role change is seen on
+ * the next request. A positive {@code users.cache.maxAgeSeconds} lets clients reuse a stale role for
+ * that long instead. Either way the response is {@code private}.
+ */
+@Component
+public class UserETagSupport {
+
+    private final AuthService authService;
+    private final CacheControl cacheControl;
+
+    public UserETagSupport(AuthService authService,
+                           @Value("${users.cache.maxAgeSeconds:0}") long maxAgeSeconds) {
+        this.authService = authService;
+        this.cacheControl = (maxAgeSeconds > 0
+                ? CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds))
+                : CacheControl.noCache()).cachePrivate();
+    }
+
+    /**
+     * @param missingTag when non-null, users that don't exist get this tag (id included) and the body
+     *                   is still built; when null the body function is expected to throw for them
+     * @param body       receives the version the response is tagged with (empty if the user doesn't exist)
+     */
+    public <T> ResponseEntity<T> respond(Long userId, WebRequest request, String missingTag, Function<Optional<Long>, T> body) {
+        Optional<Long> version = authService.getUserVersion(userId);
+        if (version.isEmpty() && missingTag == null) {
+            return ResponseEntity.ok().cacheControl(cacheControl).body(body.apply(version));
+        }
+        String etag = version
+                .map(v -> "\"u" + userId + "-v" + v + "\"")
+                .orElseGet(() -> "\"u" + userId + "-" + missingTag + "\"");
+
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(body.apply(version));
+    }
+}
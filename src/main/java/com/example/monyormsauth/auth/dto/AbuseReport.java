@@ -0,0 +1,22 @@
+package com.example.monyormsauth.auth.dto;
+
+import com.example.monyormsauth.auth.util.HeavyHitterTracker.HeavyHitter;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Counts are count-min estimates over the sliding window: they can be slightly high, never low
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AbuseReport {
+    private long windowSeconds;
+    private boolean blockingEnabled;
+    private List<HeavyHitter> loginFailuresByIdentifier;
+    private List<HeavyHitter> loginFailuresByIp;
+    private List<HeavyHitter> forgotPasswordByEmail;
+}
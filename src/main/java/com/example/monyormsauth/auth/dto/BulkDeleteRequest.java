@@ -0,0 +1,33 @@
+package com.example.monyormsauth.auth.dto;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+// Either ids or a filter selects the users; an empty filter is rejected so nobody deletes everyone by accident
+@Data
+public class BulkDeleteRequest {
+
+    @Size(max = 10000, message = "At most 10000 ids per request")
+    private List<Long> ids;
+
+    private UserFilter filter;
+
+    @AssertTrue(message = "Either ids or a non-empty filter is required")
+    public boolean isTargeted() {
+        return targets(ids, filter);
+    }
+
+    static boolean targets(List<Long> ids, UserFilter filter) {
+        if (ids != null && !ids.isEmpty()) {
+            return filter == null;
+        }
+        return filter != null && (filter.getRole() != null
+                || filter.getUsernamePrefix() != null && !filter.getUsernamePrefix().isEmpty()
+                || filter.getEmailPrefix() != null && !filter.getEmailPrefix().isEmpty()
+                || filter.getCreatedFrom() != null
+                || filter.getCreatedTo() != null);
+    }
+}
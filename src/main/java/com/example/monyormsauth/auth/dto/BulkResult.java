@@ -0,0 +1,15 @@
+package com.example.monyormsauth.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkResult {
+    private int affectedUsers;
+    private int chunks;
+}
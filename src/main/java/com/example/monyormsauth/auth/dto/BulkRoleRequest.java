@@ -0,0 +1,27 @@
+package com.example.monyormsauth.auth.dto;
+
+import com.example.monyormsauth.auth.model.enumerator.ERole;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+// Either ids or a filter selects the users; the role replaces their current roles
+@Data
+public class BulkRoleRequest {
+
+    @Size(max = 10000, message = "At most 10000 ids per request")
+    private List<Long> ids;
+
+    private UserFilter filter;
+
+    @NotNull(message = "Role cannot be null")
+    private ERole role;
+
+    @AssertTrue(message = "Either ids or a non-empty filter is required")
+    public boolean isTargeted() {
+        return BulkDeleteRequest.targets(ids, filter);
+    }
+}
@@ -1,7 +1,7 @@
 package com.example.monyormsauth.auth.dto;
 
+import com.example.monyormsauth.auth.validation.PasswordPolicy;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
 
@@ -11,10 +11,9 @@ public class LoginRequest {
     @NotBlank(message = "Username or email cannot be blank")
     private String identifier;
 
+    // Login only caps the length, at the hard maximum rather than passwordPolicy.maxLength so passwords set
+    // under a larger configured maximum still work; the composition rules apply to new passwords
     @NotBlank(message = "Password cannot be blank")
-    @Pattern(
-            regexp = "^(?=.*[a-z])(?=.*[A-Z])(?=.*\\d)(?=.*[!@#$%^&*()_+])[A-Za-z\\d!@#$%^&*()_+]{8,}$",
-            message = "Password must be at least 8 characters long and contain an uppercase letter, a lowercase letter, a digit, and a special character (!@#$%^&*()_+)."
-    )
+    @Size(max = PasswordPolicy.MAX_LENGTH, message = "Password is too long")
     private String password;
 }
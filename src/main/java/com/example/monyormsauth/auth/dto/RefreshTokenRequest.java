@@ -1,8 +1,11 @@
 package com.example.monyormsauth.auth.dto;
 
+import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
 
 @Data
 public class RefreshTokenRequest {
+
+    @NotBlank(message = "Refresh token cannot be blank")
     private String refreshToken;
-}
\ No newline at end of file
+}
@@ -1,9 +1,14 @@
 package com.example.monyormsauth.auth.dto;
 
+import com.example.monyormsauth.auth.validation.PasswordPolicy;
+import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
 
 @Data
 public class ResetPasswordRequest {
     private String token;
+
+    @NotBlank(message = "Password cannot be blank")
+    @PasswordPolicy
     private String newPassword;
 }
@@ -0,0 +1,25 @@
+package com.example.monyormsauth.auth.dto;
+
+import com.example.monyormsauth.auth.model.enumerator.ERole;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.Instant;
+
+/** Admin user search criteria; every field is optional and they are AND-ed. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserFilter {
+    private ERole role;
+    private String usernamePrefix;
+    private String emailPrefix;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant createdFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant createdTo;
+}
@@ -0,0 +1,18 @@
+package com.example.monyormsauth.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPage {
+    private List<UserSummary> items;
+    // Pass as ?after= to get the next page; null on the last page
+    private Long nextCursor;
+}
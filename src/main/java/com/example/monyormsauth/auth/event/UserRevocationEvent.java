@@ -0,0 +1,19 @@
+package com.example.monyormsauth.auth.event;
+
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Published when users' existing access tokens must stop being accepted (role change or deletion).
+ * Carries usernames as well because legacy (v1) tokens only contain the username.
+ */
+public record UserRevocationEvent(Collection<Long> userIds,
+                                  Collection<String> usernames,
+                                  Reason reason,
+                                  Instant revokedAt) {
+
+    public enum Reason {
+        ROLE_CHANGED,
+        DELETED
+    }
+}
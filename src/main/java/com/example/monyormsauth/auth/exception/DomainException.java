@@ -0,0 +1,38 @@
+package com.example.monyormsauth.auth.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Base class for expected, client-caused failures (bad credentials, unknown user, duplicates).
+ * They are control flow rather than bugs, so no stack trace is captured, and the error body is
+ * rendered once per instance. Throwing one of the preallocated constants therefore costs nothing.
+ */
+public abstract class DomainException extends RuntimeException {
+
+    private final HttpStatus status;
+    private final String code;
+    private volatile byte[] body;
+
+    protected DomainException(HttpStatus status, String code, String message) {
+        super(message, null, false, false);
+        this.status = status;
+        this.code = code;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public byte[] getBody() {
+        byte[] rendered = body;
+        if (rendered == null) {
+            rendered = ProblemBody.render(status, code, getMessage());
+            body = rendered;
+        }
+        return rendered;
+    }
+}
@@ -1,7 +1,13 @@
 package com.example.monyormsauth.auth.exception;
 
-public class DuplicateException extends RuntimeException {
+import org.springframework.http.HttpStatus;
+
+public class DuplicateException extends DomainException {
+
+    public static final DuplicateException USERNAME_TAKEN = new DuplicateException("Username already exists");
+    public static final DuplicateException EMAIL_TAKEN = new DuplicateException("Email already exists");
+
     public DuplicateException(String message) {
-        super(message);
+        super(HttpStatus.CONFLICT, "DUPLICATE_RESOURCE", message);
     }
 }
@@ -4,93 +4,103 @@ package com.example.monyormsauth.auth.exception;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+// Bütün xətalar eyni problem-detail formasında qayıdır (bax ProblemBody)
 @ControllerAdvice
 public class GlobalExceptionHandler {
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    private static final byte[] INTERNAL_ERROR_BODY =
+            ProblemBody.render(HttpStatus.INTERNAL_SERVER_ERROR, "INTERNAL_ERROR", "Server error baş verdi.");
+
+    private static final byte[] CONCURRENT_UPDATE_BODY =
+            ProblemBody.render(HttpStatus.CONFLICT, "CONCURRENT_UPDATE", "The resource was changed concurrently, retry the request");
+
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<?> handleAllExceptions(Exception ex) {
-        logger.error("Unhandled exception: ", ex); // LOG düşür
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body("Server error baş verdi.");
+    public ResponseEntity<byte[]> handleAllExceptions(Exception ex) {
+        logger.error("Unhandled exception: ", ex); // LOG düşür, yalnız gözlənilməz xətalar üçün
+        return problem(HttpStatus.INTERNAL_SERVER_ERROR, INTERNAL_ERROR_BODY);
     }
 
     @ExceptionHandler(UserNotFoundException.class)
-    public ResponseEntity<?> handleUserNotFoundException(UserNotFoundException ex) {
-        Map<String, Object> errorDetails = new HashMap<>();
-        errorDetails.put("timestamp", LocalDateTime.now());
-        errorDetails.put("message", ex.getMessage());
-        errorDetails.put("status", HttpStatus.NOT_FOUND.value());
-
-        return new ResponseEntity<>(errorDetails, HttpStatus.NOT_FOUND);
+    public ResponseEntity<byte[]> handleUserNotFoundException(UserNotFoundException ex) {
+        return problem(ex);
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<?> handleValidationExceptions(MethodArgumentNotValidException ex) {
+    public ResponseEntity<byte[]> handleValidationExceptions(MethodArgumentNotValidException ex) {
         Map<String, String> errors = ex.getBindingResult()
                 .getFieldErrors()
                 .stream()
-                .collect(Collectors.toMap(FieldError::getField, FieldError::getDefaultMessage));
+                .collect(Collectors.toMap(FieldError::getField, FieldError::getDefaultMessage, (first, second) -> first));
 
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("status", HttpStatus.BAD_REQUEST.value());
-        body.put("errors", errors);
-
-        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+        return validationProblem(errors);
     }
+
     @ExceptionHandler(InvalidCredentialsException.class)
-    public ResponseEntity<Map<String, String>> handleInvalidCredentials(InvalidCredentialsException ex) {
-        Map<String, String> error = new HashMap<>();
-        error.put("code", "INVALID_CREDENTIALS");
-        error.put("message", ex.getMessage());
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+    public ResponseEntity<byte[]> handleInvalidCredentials(InvalidCredentialsException ex) {
+        return problem(ex);
     }
 
     // 2. JPA / Service səviyyəsində ConstraintViolationException (məsələn @Size, @Email və s.)
     @ExceptionHandler(ConstraintViolationException.class)
-    public ResponseEntity<?> handleConstraintViolationException(ConstraintViolationException ex) {
+    public ResponseEntity<byte[]> handleConstraintViolationException(ConstraintViolationException ex) {
         Map<String, String> errors = ex.getConstraintViolations()
                 .stream()
                 .collect(Collectors.toMap(
                         v -> v.getPropertyPath().toString(),
-                        v -> v.getMessage()
+                        v -> v.getMessage(),
+                        (first, second) -> first
                 ));
 
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("status", HttpStatus.BAD_REQUEST.value());
-        body.put("errors", errors);
-
-        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+        return validationProblem(errors);
     }
+
     @ExceptionHandler(DuplicateException.class)
-    public ResponseEntity<?> handleDuplicateException(DuplicateException ex) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("status", HttpStatus.CONFLICT.value()); // 409 conflict
-        body.put("error", "Duplicate resource");
-        body.put("message", ex.getMessage());
-
-        return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+    public ResponseEntity<byte[]> handleDuplicateException(DuplicateException ex) {
+        return problem(ex); // 409 conflict
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<byte[]> handleTooManyRequests(TooManyRequestsException ex) {
+        return problem(ex); // 429, blok pəncərə sürüşdükcə özü açılır
+    }
+
+    // @Version: başqa sorğu (məs. bulk rol dəyişikliyi) eyni istifadəçini eyni anda dəyişib; 500 yox, 409
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<byte[]> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        logger.info("Concurrent update rejected: {}", ex.getMessage());
+        return problem(HttpStatus.CONFLICT, CONCURRENT_UPDATE_BODY);
     }
 
     @ExceptionHandler(BadCredentialsException.class)
-    public ResponseEntity<Map<String, String>> handleBadCredentials(BadCredentialsException ex) {
-        Map<String, String> error = new HashMap<>();
-        error.put("error", "Username or password is incorrect");
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+    public ResponseEntity<byte[]> handleBadCredentials(BadCredentialsException ex) {
+        return problem(InvalidCredentialsException.BAD_CREDENTIALS);
+    }
+
+    private static ResponseEntity<byte[]> problem(DomainException ex) {
+        return problem(ex.getStatus(), ex.getBody());
+    }
+
+    private static ResponseEntity<byte[]> problem(HttpStatus status, byte[] body) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(body);
+    }
+
+    private static ResponseEntity<byte[]> validationProblem(Map<String, String> errors) {
+        return problem(HttpStatus.BAD_REQUEST,
+                ProblemBody.render(HttpStatus.BAD_REQUEST, "VALIDATION_FAILED", "Request validation failed", errors));
     }
 }
@@ -1,7 +1,13 @@
 package com.example.monyormsauth.auth.exception;
 
-public class InvalidCredentialsException extends RuntimeException {
+import org.springframework.http.HttpStatus;
+
+public class InvalidCredentialsException extends DomainException {
+
+  public static final InvalidCredentialsException BAD_CREDENTIALS =
+          new InvalidCredentialsException("Username or password is incorrect");
+
   public InvalidCredentialsException(String message) {
-    super(message);
+    super(HttpStatus.UNAUTHORIZED, "INVALID_CREDENTIALS", message);
   }
 }
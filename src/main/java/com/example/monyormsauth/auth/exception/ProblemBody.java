@@ -0,0 +1,66 @@
+package com.example.monyormsauth.auth.exception;
+
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Fixed problem-detail (RFC 7807) shape used for every error response:
+ * {@code {"type":"about:blank","title":...,"status":...,"code":...,"detail":...}}, plus an
+ * {@code "errors"} object of field to message for validation failures.
+ */
+public final class ProblemBody {
+
+    private ProblemBody() {
+    }
+
+    public static byte[] render(HttpStatus status, String code, String detail) {
+        return open(status, code, detail).append('}').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static byte[] render(HttpStatus status, String code, String detail, Map<String, String> errors) {
+        StringBuilder json = open(status, code, detail).append(",\"errors\":{");
+        boolean first = true;
+        for (Map.Entry<String, String> error : errors.entrySet()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            appendString(json, error.getKey());
+            json.append(':');
+            appendString(json, error.getValue());
+        }
+        return json.append("}}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static StringBuilder open(HttpStatus status, String code, String detail) {
+        StringBuilder json = new StringBuilder(128)
+                .append("{\"type\":\"about:blank\",\"title\":");
+        appendString(json, status.getReasonPhrase());
+        json.append(",\"status\":").append(status.value()).append(",\"code\":");
+        appendString(json, code);
+        json.append(",\"detail\":");
+        appendString(json, detail);
+        return json;
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+}
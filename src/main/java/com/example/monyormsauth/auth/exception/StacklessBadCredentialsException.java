@@ -0,0 +1,18 @@
+package com.example.monyormsauth.auth.exception;
+
+import org.springframework.security.authentication.BadCredentialsException;
+
+/**
+ * Wrong-password failure raised by our authentication provider without capturing a stack trace.
+ */
+public class StacklessBadCredentialsException extends BadCredentialsException {
+
+    public StacklessBadCredentialsException(String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
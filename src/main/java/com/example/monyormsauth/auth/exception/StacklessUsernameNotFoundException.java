@@ -0,0 +1,18 @@
+package com.example.monyormsauth.auth.exception;
+
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+/**
+ * Unknown-user failure raised by {@code UserDetailsServiceImpl} without capturing a stack trace.
+ */
+public class StacklessUsernameNotFoundException extends UsernameNotFoundException {
+
+    public StacklessUsernameNotFoundException(String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
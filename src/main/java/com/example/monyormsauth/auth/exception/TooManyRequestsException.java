@@ -0,0 +1,15 @@
+package com.example.monyormsauth.auth.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class TooManyRequestsException extends DomainException {
+
+    public static final TooManyRequestsException LOGIN_BLOCKED =
+            new TooManyRequestsException("Too many failed login attempts, try again later");
+    public static final TooManyRequestsException FORGOT_PASSWORD_BLOCKED =
+            new TooManyRequestsException("Too many password reset requests, try again later");
+
+    public TooManyRequestsException(String message) {
+        super(HttpStatus.TOO_MANY_REQUESTS, "TOO_MANY_REQUESTS", message);
+    }
+}
@@ -1,7 +1,12 @@
 package com.example.monyormsauth.auth.exception;
 
-public class UserNotFoundException extends RuntimeException {
+import org.springframework.http.HttpStatus;
+
+public class UserNotFoundException extends DomainException {
+
+    public static final UserNotFoundException USER_NOT_FOUND = new UserNotFoundException("User not found");
+
     public UserNotFoundException(String message) {
-        super(message);
+        super(HttpStatus.NOT_FOUND, "USER_NOT_FOUND", message);
     }
 }
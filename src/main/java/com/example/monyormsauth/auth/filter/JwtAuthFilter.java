@@ -1,6 +1,9 @@
 package com.example.monyormsauth.auth.filter;
 
+import com.example.monyormsauth.auth.jfr.AuthFilterEvent;
+import com.example.monyormsauth.auth.service.AccessToken;
 import com.example.monyormsauth.auth.service.JwtService;
+import com.example.monyormsauth.auth.service.TokenRevocationRegistry;
 import com.example.monyormsauth.auth.service.UserDetailsServiceImpl;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -9,7 +12,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -18,7 +20,6 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
@@ -26,34 +27,46 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsServiceImpl userDetailsService;
+    private final TokenRevocationRegistry revocationRegistry;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
 
-        String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String username = null;
+        AuthFilterEvent event = new AuthFilterEvent();
+        event.begin();
+        String outcome = "ok";
+        try {
+            String authHeader = request.getHeader("Authorization");
 
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
-            username = jwtService.extractUsername(token);
-        }
-
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            List<String> roles = jwtService.extractRoles(token);
-            List<GrantedAuthority> authorities = roles.stream()
-                    .map(SimpleGrantedAuthority::new)
-                    .collect(Collectors.toList());
+            if (authHeader != null && authHeader.startsWith("Bearer ")
+                    && SecurityContextHolder.getContext().getAuthentication() == null) {
+                // Signature and expiry are checked by the parser; authorities come precomputed per role mask
+                AccessToken accessToken = jwtService.parseAccessToken(authHeader.substring(7));
 
-            UserDetails userDetails = new org.springframework.security.core.userdetails.User(username, "", authorities);
+                // Tokens issued before a role change or deletion stay unauthenticated
+                if (!revocationRegistry.isRevoked(accessToken)) {
+                    List<GrantedAuthority> authorities = accessToken.authorities();
 
-            if (jwtService.validateToken(token, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, authorities);
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+                    UserDetails userDetails = new org.springframework.security.core.userdetails.User(accessToken.subject(), "", authorities);
+                    UsernamePasswordAuthenticationToken authToken =
+                            new UsernamePasswordAuthenticationToken(userDetails, null, authorities);
+                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Expired or malformed tokens are the slow and failing paths worth seeing in JFR
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.path = request.getServletPath();
+                event.authenticated = SecurityContextHolder.getContext().getAuthentication() != null;
+                event.outcome = outcome;
+                event.commit();
             }
         }
 
@@ -66,6 +79,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         String path = request.getServletPath();
 
         return path.startsWith("/api/auth/register") ||
+                path.startsWith("/api/auth/availability") ||
                 path.startsWith("/api/auth/login") ||
                 path.startsWith("/api/auth/forgot-password") ||
                 (path.startsWith("/api/auth/reset-password") && request.getMethod().equals("POST"));
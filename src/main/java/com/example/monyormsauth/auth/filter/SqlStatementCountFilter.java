@@ -0,0 +1,82 @@
+package com.example.monyormsauth.auth.filter;
+
+import com.example.monyormsauth.auth.sql.StatementCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts the SQL statements each request runs (see {@link StatementCounter}). The count goes into the
+ * {@code X-SQL-Statement-Count} response header when {@code sqlStatements.header} is on (dev and test profiles only)
+ * and into the {@code auth.sql.statements} distribution per endpoint when {@code sqlStatements.metrics} is on.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class SqlStatementCountFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-SQL-Statement-Count";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean header;
+    private final boolean metrics;
+
+    public SqlStatementCountFilter(MeterRegistry meterRegistry,
+                                   @Value("${sqlStatements.header:false}") boolean header,
+                                   @Value("${sqlStatements.metrics:true}") boolean metrics) {
+        this.meterRegistry = meterRegistry;
+        this.header = header;
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        StatementCounter.start();
+        HttpServletResponse target = response;
+        if (header) {
+            // Headers must be in place before the body commits the response
+            target = new OnCommittedResponseWrapper(response) {
+                @Override
+                protected void onResponseCommitted() {
+                    response.setHeader(HEADER, Integer.toString(StatementCounter.current()));
+                }
+            };
+        }
+        try {
+            filterChain.doFilter(request, target);
+            if (header && !response.isCommitted()) {
+                response.setHeader(HEADER, Integer.toString(StatementCounter.current()));
+            }
+        } finally {
+            int count = StatementCounter.stop();
+            if (metrics) {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                DistributionSummary.builder("auth.sql.statements")
+                        .description("SQL statements executed per request")
+                        .tag("method", request.getMethod())
+                        .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+                        .register(meterRegistry)
+                        .record(count);
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !header && !metrics;
+    }
+}
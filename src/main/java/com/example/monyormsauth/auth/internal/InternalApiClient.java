@@ -0,0 +1,229 @@
+package com.example.monyormsauth.auth.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.monyormsauth.auth.internal.InternalApiProtocol.*;
+
+/**
+ * Client for {@link InternalApiServer} over one persistent connection. Calls are non-blocking and
+ * pipelined: each request is written immediately and its future completes when the response with
+ * the same request id arrives. Thread-safe.
+ */
+public class InternalApiClient implements Closeable {
+
+    public record TokenInfo(String subject, List<String> roles, long expiresAtEpochSecond) {
+    }
+
+    /**
+     * One sub-result of a {@link Batch}: {@code value} is a {@code Boolean} for exists, a {@code String}
+     * for role, a {@link TokenInfo} for verify, or {@code null} when {@code status} is not {@link InternalApiProtocol#OK}.
+     */
+    public record Result(byte status, Object value) {
+    }
+
+    @FunctionalInterface
+    private interface Decoder {
+        Object decode(byte status, DataInputStream in) throws IOException;
+    }
+
+    private final Socket socket;
+    private final DataOutputStream out;
+    private final DataInputStream in;
+    private final AtomicInteger requestIds = new AtomicInteger();
+    private final Map<Integer, Pending> pending = new ConcurrentHashMap<>();
+    private final Thread reader;
+
+    public InternalApiClient(String host, int port) throws IOException {
+        this.socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 16 * 1024));
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 16 * 1024));
+        this.reader = new Thread(this::readLoop, "internal-api-client");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    public CompletableFuture<Boolean> userExists(long userId) {
+        return send(USER_EXISTS, body -> body.writeLong(userId), InternalApiClient::decodeExists);
+    }
+
+    public CompletableFuture<Optional<String>> userRole(long userId) {
+        return send(USER_ROLE, body -> body.writeLong(userId), (status, in) -> Optional.ofNullable((String) decodeRole(status, in)));
+    }
+
+    /** Completes with empty when the token is expired, malformed or has a bad signature. */
+    public CompletableFuture<Optional<TokenInfo>> verifyToken(String token) {
+        return send(VERIFY_TOKEN, body -> writeString(body, token), (status, in) -> Optional.ofNullable((TokenInfo) decodeToken(status, in)));
+    }
+
+    public Batch batch() {
+        return new Batch();
+    }
+
+    /** Several lookups in one frame; results come back in the order they were added. */
+    public final class Batch {
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private final DataOutputStream body = new DataOutputStream(buffer);
+        private final List<Decoder> decoders = new ArrayList<>();
+
+        private Batch() {
+        }
+
+        public Batch userExists(long userId) {
+            return add(USER_EXISTS, InternalApiClient::decodeExists, () -> body.writeLong(userId));
+        }
+
+        public Batch userRole(long userId) {
+            return add(USER_ROLE, InternalApiClient::decodeRole, () -> body.writeLong(userId));
+        }
+
+        public Batch verifyToken(String token) {
+            return add(VERIFY_TOKEN, InternalApiClient::decodeToken, () -> writeString(body, token));
+        }
+
+        public CompletableFuture<List<Result>> send() {
+            if (decoders.size() > MAX_BATCH_SIZE) {
+                throw new IllegalStateException("Batch exceeds " + MAX_BATCH_SIZE + " requests");
+            }
+            List<Decoder> ops = List.copyOf(decoders);
+            return InternalApiClient.this.send(BATCH, frame -> {
+                frame.writeShort(ops.size());
+                buffer.writeTo(frame);
+            }, (status, in) -> {
+                if (status != OK) {
+                    throw new IOException("Batch rejected with status " + status);
+                }
+                int count = in.readUnsignedShort();
+                List<Result> results = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    byte itemStatus = in.readByte();
+                    results.add(new Result(itemStatus, ops.get(i).decode(itemStatus, in)));
+                }
+                return results;
+            });
+        }
+
+        private Batch add(byte op, Decoder decoder, BodyWriter payload) {
+            try {
+                body.writeByte(op);
+                payload.write();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            decoders.add(decoder);
+            return this;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> send(byte op, FrameWriter payload, Decoder decoder) {
+        int requestId = requestIds.incrementAndGet();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        pending.put(requestId, new Pending((CompletableFuture<Object>) future, decoder));
+        try {
+            ByteArrayOutputStream frame = new ByteArrayOutputStream(64);
+            DataOutputStream body = new DataOutputStream(frame);
+            body.writeByte(op);
+            body.writeInt(requestId);
+            payload.write(body);
+            synchronized (out) {
+                out.writeInt(frame.size());
+                frame.writeTo(out);
+                out.flush();
+            }
+        } catch (IOException e) {
+            pending.remove(requestId);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private void readLoop() {
+        try {
+            while (true) {
+                readFrameLength(in);
+                int requestId = in.readInt();
+                byte status = in.readByte();
+                Pending request = pending.remove(requestId);
+                if (request == null) {
+                    throw new IOException("Response for unknown request id " + requestId);
+                }
+                if (status == ERROR) {
+                    request.future.completeExceptionally(new IllegalStateException("Internal API request " + requestId + " failed on the server"));
+                    continue;
+                }
+                // Bare status, no payload follows
+                if (status == BAD_REQUEST) {
+                    request.future.completeExceptionally(new IllegalArgumentException("Internal API request " + requestId + " was rejected as malformed"));
+                    continue;
+                }
+                try {
+                    request.future.complete(request.decoder.decode(status, in));
+                } catch (IOException e) {
+                    request.future.completeExceptionally(e);
+                    throw e;
+                }
+            }
+        } catch (IOException e) {
+            pending.values().forEach(p -> p.future.completeExceptionally(e));
+            pending.clear();
+        }
+    }
+
+    private static Object decodeExists(byte status, DataInputStream in) throws IOException {
+        if (status != OK) {
+            throw new IOException("Unexpected status " + status);
+        }
+        return in.readBoolean();
+    }
+
+    private static Object decodeRole(byte status, DataInputStream in) throws IOException {
+        return status == OK ? readString(in) : null;
+    }
+
+    private static Object decodeToken(byte status, DataInputStream in) throws IOException {
+        if (status != OK) {
+            return null;
+        }
+        String subject = readString(in);
+        int roleCount = in.readUnsignedByte();
+        List<String> roles = new ArrayList<>(roleCount);
+        for (int i = 0; i < roleCount; i++) {
+            roles.add(readString(in));
+        }
+        return new TokenInfo(subject, roles, in.readLong());
+    }
+
+    private record Pending(CompletableFuture<Object> future, Decoder decoder) {
+    }
+
+    @FunctionalInterface
+    private interface FrameWriter {
+        void write(DataOutputStream body) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface BodyWriter {
+        void write() throws IOException;
+    }
+}
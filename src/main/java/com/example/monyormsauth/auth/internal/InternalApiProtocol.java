@@ -0,0 +1,70 @@
+package com.example.monyormsauth.auth.internal;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Wire format of the internal binary API. Every message is a length-prefixed frame:
+ *
+ * <pre>
+ * request  = int length, byte op, int requestId, payload
+ * response = int length, int requestId, byte status, payload
+ *
+ * USER_EXISTS   payload: long userId       -> OK boolean
+ * USER_ROLE     payload: long userId       -> OK string | NOT_FOUND
+ * VERIFY_TOKEN  payload: string token      -> OK string subject, byte n, n * string role, long expiresAt | INVALID
+ * BATCH         payload: short n, n * (byte op, payload) -> OK short n, n * (byte status, payload)
+ * </pre>
+ *
+ * A malformed request (unknown op, payload shorter than the op needs, oversized frame, bad batch item) is
+ * answered with a bare BAD_REQUEST for its request id and the connection stays usable; a frame too short
+ * to carry a request id gets id -1.
+ * Strings are an unsigned short byte length followed by UTF-8. Clients may pipeline: any number of
+ * requests can be in flight on one connection and responses carry the request id.
+ */
+public final class InternalApiProtocol {
+
+    public static final byte USER_EXISTS = 0x01;
+    public static final byte USER_ROLE = 0x02;
+    public static final byte VERIFY_TOKEN = 0x03;
+    public static final byte BATCH = 0x10;
+
+    public static final byte OK = 0;
+    public static final byte NOT_FOUND = 1;
+    public static final byte INVALID = 2;
+    public static final byte BAD_REQUEST = 3;
+    public static final byte ERROR = 4;
+
+    public static final int MAX_FRAME_BYTES = 1 << 20;
+    // byte op + int requestId
+    public static final int FRAME_HEADER_BYTES = 5;
+    public static final int MAX_BATCH_SIZE = 1024;
+
+    private InternalApiProtocol() {
+    }
+
+    public static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("String too long for internal API frame: " + bytes.length + " bytes");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    public static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readUnsignedShort()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static int readFrameLength(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_FRAME_BYTES) {
+            throw new IOException("Invalid internal API frame length " + length);
+        }
+        return length;
+    }
+}
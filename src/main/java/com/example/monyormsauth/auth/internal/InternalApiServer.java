@@ -0,0 +1,245 @@
+package com.example.monyormsauth.auth.internal;
+
+import com.example.monyormsauth.auth.exception.UserNotFoundException;
+import com.example.monyormsauth.auth.service.AccessToken;
+import com.example.monyormsauth.auth.service.AuthService;
+import com.example.monyormsauth.auth.service.JwtService;
+import com.example.monyormsauth.auth.service.TokenRevocationRegistry;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.monyormsauth.auth.internal.InternalApiProtocol.*;
+
+/**
+ * Internal-only listener for service-to-service lookups (user existence, role, token verification)
+ * using the binary protocol in {@link InternalApiProtocol}. It bypasses HTTP, Jackson and the
+ * Spring Security chain and calls the same {@link AuthService} / {@link JwtService} logic as the
+ * REST endpoints. Bind it to a private interface only.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "internalApi.enabled", havingValue = "true")
+public class InternalApiServer {
+
+    private final AuthService authService;
+    private final JwtService jwtService;
+    private final TokenRevocationRegistry revocationRegistry;
+    private final String bindAddress;
+    private final int port;
+    private final ThreadPoolExecutor connections;
+
+    private ServerSocket serverSocket;
+    private Thread acceptor;
+
+    public InternalApiServer(AuthService authService,
+                             JwtService jwtService,
+                             TokenRevocationRegistry revocationRegistry,
+                             @Value("${internalApi.bindAddress:127.0.0.1}") String bindAddress,
+                             @Value("${internalApi.port:9091}") int port,
+                             @Value("${internalApi.maxConnections:64}") int maxConnections) {
+        this.authService = authService;
+        this.jwtService = jwtService;
+        this.revocationRegistry = revocationRegistry;
+        this.bindAddress = bindAddress;
+        this.port = port;
+        AtomicInteger threadIds = new AtomicInteger();
+        this.connections = new ThreadPoolExecutor(0, maxConnections, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+            Thread thread = new Thread(r, "internal-api-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(InetAddress.getByName(bindAddress), port));
+        acceptor = new Thread(this::acceptLoop, "internal-api-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info("Internal binary API listening on {}:{}", bindAddress, getPort());
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                try {
+                    connections.execute(() -> serve(socket));
+                } catch (RejectedExecutionException e) {
+                    log.warn("Internal API connection limit reached, closing {}", socket.getRemoteSocketAddress());
+                    socket.close();
+                }
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    log.error("Internal API accept failed", e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 16 * 1024));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 16 * 1024))) {
+
+            ByteArrayOutputStream responseBuffer = new ByteArrayOutputStream(256);
+            DataOutputStream response = new DataOutputStream(responseBuffer);
+            while (true) {
+                int length = in.readInt();
+                if (length < 0) {
+                    // Nothing after this can be framed again
+                    throw new IOException("Invalid internal API frame length " + length);
+                }
+                // An oversized frame is skipped, not buffered, and answered like any other bad request
+                boolean oversized = length > MAX_FRAME_BYTES;
+                byte[] frame = new byte[oversized ? Math.min(length, FRAME_HEADER_BYTES) : length];
+                in.readFully(frame);
+                if (oversized) {
+                    in.skipNBytes(length - frame.length);
+                }
+
+                DataInputStream request = new DataInputStream(new ByteArrayInputStream(frame));
+                byte op = 0;
+                int requestId = -1;
+                responseBuffer.reset();
+                try {
+                    if (frame.length < FRAME_HEADER_BYTES) {
+                        throw new EOFException("Frame of " + frame.length + " bytes has no request header");
+                    }
+                    op = request.readByte();
+                    requestId = request.readInt();
+                    if (oversized) {
+                        throw new IOException("Frame of " + length + " bytes exceeds " + MAX_FRAME_BYTES);
+                    }
+                    response.writeInt(requestId);
+                    if (op == BATCH) {
+                        handleBatch(request, response);
+                    } else {
+                        handle(op, request, response);
+                    }
+                } catch (IOException e) {
+                    // Only the in-memory frame is read here: a malformed request, not a broken connection
+                    log.warn("Bad internal API request {} (op {}): {}", requestId, op, e.getMessage());
+                    reply(responseBuffer, response, requestId, BAD_REQUEST);
+                } catch (RuntimeException e) {
+                    log.error("Internal API request {} (op {}) failed", requestId, op, e);
+                    reply(responseBuffer, response, requestId, ERROR);
+                }
+
+                out.writeInt(responseBuffer.size());
+                responseBuffer.writeTo(out);
+                // Pipelined requests already buffered are answered before flushing
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (EOFException | SocketException e) {
+            // client closed the connection
+        } catch (IOException e) {
+            log.warn("Internal API connection {} closed: {}", socket.getRemoteSocketAddress(), e.getMessage());
+        }
+    }
+
+    // Replaces whatever was written for the request with a bare status
+    private static void reply(ByteArrayOutputStream buffer, DataOutputStream response,
+                              int requestId, byte status) throws IOException {
+        buffer.reset();
+        response.writeInt(requestId);
+        response.writeByte(status);
+    }
+
+    // An unknown op or short payload in any item fails the whole batch: the items after it cannot be located
+    private void handleBatch(DataInputStream request, DataOutputStream response) throws IOException {
+        int count = request.readUnsignedShort();
+        if (count > MAX_BATCH_SIZE) {
+            throw new IOException("Batch of " + count + " exceeds " + MAX_BATCH_SIZE);
+        }
+        response.writeByte(OK);
+        response.writeShort(count);
+        for (int i = 0; i < count; i++) {
+            handle(request.readByte(), request, response);
+        }
+    }
+
+    private void handle(byte op, DataInputStream request, DataOutputStream response) throws IOException {
+        switch (op) {
+            case USER_EXISTS -> {
+                boolean exists = authService.doesUserExist(request.readLong());
+                response.writeByte(OK);
+                response.writeBoolean(exists);
+            }
+            case USER_ROLE -> {
+                long userId = request.readLong();
+                try {
+                    String role = authService.getUserRole(userId);
+                    response.writeByte(OK);
+                    writeString(response, role);
+                } catch (UserNotFoundException e) {
+                    response.writeByte(NOT_FOUND);
+                }
+            }
+            case VERIFY_TOKEN -> verifyToken(readString(request), response);
+            default -> throw new IOException("Unknown internal API op " + op);
+        }
+    }
+
+    private void verifyToken(String token, DataOutputStream response) throws IOException {
+        AccessToken accessToken;
+        try {
+            accessToken = jwtService.parseAccessToken(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            response.writeByte(INVALID);
+            return;
+        }
+        if (revocationRegistry.isRevoked(accessToken)) {
+            response.writeByte(INVALID);
+            return;
+        }
+        response.writeByte(OK);
+        writeString(response, accessToken.subject());
+        List<GrantedAuthority> authorities = accessToken.authorities();
+        response.writeByte(authorities.size());
+        for (GrantedAuthority authority : authorities) {
+            writeString(response, authority.getAuthority());
+        }
+        response.writeLong(accessToken.expiresAtEpochSecond());
+    }
+}
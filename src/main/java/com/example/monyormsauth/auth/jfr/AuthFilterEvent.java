@@ -0,0 +1,27 @@
+package com.example.monyormsauth.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name(AuthFilterEvent.NAME)
+@Label("JWT Auth Filter")
+@Category({"MonyoRMS", "Auth"})
+@Description("Time spent in JwtAuthFilter itself, excluding the rest of the filter chain")
+@StackTrace(false)
+public class AuthFilterEvent extends Event {
+
+    public static final String NAME = "monyorms.auth.JwtAuthFilter";
+
+    @Label("Path")
+    public String path;
+
+    @Label("Authenticated")
+    public boolean authenticated;
+
+    @Label("Outcome")
+    public String outcome;
+}
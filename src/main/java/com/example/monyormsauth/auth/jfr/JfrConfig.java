@@ -0,0 +1,89 @@
+package com.example.monyormsauth.auth.jfr;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+
+/**
+ * JFR instrumentation for the auth hot path. The events are always emitted (a disabled JFR event
+ * costs next to nothing); thresholds come from {@code jfr/monyorms-auth.jfc} or, for the optional
+ * in-process recording, from the {@code jfr.thresholds.*} properties.
+ */
+@Slf4j
+@org.springframework.context.annotation.Configuration
+public class JfrConfig {
+
+    static final String SETTINGS = "jfr/monyorms-auth.jfc";
+
+    @Value("${jfr.recording.enabled:false}")
+    private boolean recordingEnabled;
+
+    @Value("${jfr.recording.maxAge:30m}")
+    private Duration maxAge;
+
+    @Value("${jfr.recording.destination:monyorms-auth.jfr}")
+    private String destination;
+
+    @Value("${jfr.thresholds.jwt:0ms}")
+    private Duration jwtThreshold;
+
+    @Value("${jfr.thresholds.passwordEncoder:0ms}")
+    private Duration passwordEncoderThreshold;
+
+    @Value("${jfr.thresholds.repository:1ms}")
+    private Duration repositoryThreshold;
+
+    @Value("${jfr.thresholds.filter:1ms}")
+    private Duration filterThreshold;
+
+    private Recording recording;
+
+    @Bean
+    static BeanPostProcessor repositoryJfrPostProcessor() {
+        return new RepositoryJfrPostProcessor();
+    }
+
+    @PostConstruct
+    void startRecording() throws IOException, ParseException {
+        if (!recordingEnabled) {
+            return;
+        }
+        Configuration settings;
+        try (Reader reader = new InputStreamReader(new ClassPathResource(SETTINGS).getInputStream(), StandardCharsets.UTF_8)) {
+            settings = Configuration.create(reader);
+        }
+        recording = new Recording(settings);
+        recording.setName("monyorms-auth");
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setDestination(Path.of(destination));
+        recording.enable(JwtEvent.class).withThreshold(jwtThreshold);
+        recording.enable(PasswordEncoderEvent.class).withThreshold(passwordEncoderThreshold);
+        recording.enable(RepositoryCallEvent.class).withThreshold(repositoryThreshold);
+        recording.enable(AuthFilterEvent.class).withThreshold(filterThreshold);
+        recording.start();
+        log.info("JFR recording started, written to {} on shutdown (max age {})", destination, maxAge);
+    }
+
+    @PreDestroy
+    void stopRecording() {
+        if (recording != null) {
+            recording.stop(); // writes the data to the destination
+            recording.close();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.monyormsauth.auth.jfr;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Emits a {@link PasswordEncoderEvent} around every encode and match of the wrapped encoder.
+ */
+public class JfrPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final int costFactor;
+
+    public JfrPasswordEncoder(PasswordEncoder delegate, int costFactor) {
+        this.delegate = delegate;
+        this.costFactor = costFactor;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        PasswordEncoderEvent event = new PasswordEncoderEvent();
+        event.begin();
+        String encoded = delegate.encode(rawPassword);
+        event.operation = "encode";
+        event.costFactor = costFactor;
+        event.outcome = "ok";
+        event.commit();
+        return encoded;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        PasswordEncoderEvent event = new PasswordEncoderEvent();
+        event.begin();
+        boolean matches = delegate.matches(rawPassword, encodedPassword);
+        event.operation = "match";
+        event.costFactor = costFactor;
+        event.outcome = matches ? "match" : "mismatch";
+        event.commit();
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.monyormsauth.auth.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Offline analyzer: summarises the auth events of a JFR recording into a per-stage latency table.
+ *
+ * <pre>
+ * ./gradlew jfrReport -Precording=auth.jfr
+ * </pre>
+ */
+public final class JfrStageReport {
+
+    private JfrStageReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: JfrStageReport <recording.jfr>");
+            System.exit(2);
+        }
+
+        Map<String, Samples> stages = new HashMap<>();
+        try (RecordingFile recording = new RecordingFile(Path.of(args[0]))) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                String stage = stageOf(event);
+                if (stage != null) {
+                    stages.computeIfAbsent(stage, key -> new Samples()).add(event.getDuration().toNanos());
+                }
+            }
+        }
+
+        if (stages.isEmpty()) {
+            System.out.println("No MonyoRMS auth events in " + args[0]);
+            return;
+        }
+
+        double grandTotal = stages.values().stream().mapToDouble(samples -> samples.total).sum();
+        System.out.printf("%-48s %9s %11s %9s %9s %9s %9s %9s %7s%n",
+                "stage", "count", "total ms", "mean ms", "p50 ms", "p95 ms", "p99 ms", "max ms", "share");
+        stages.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Samples> entry) -> entry.getValue().total).reversed())
+                .forEach(entry -> {
+                    Samples samples = entry.getValue();
+                    samples.sort();
+                    System.out.printf("%-48s %9d %11.1f %9.3f %9.3f %9.3f %9.3f %9.3f %6.1f%%%n",
+                            entry.getKey(), samples.size, ms(samples.total), ms(samples.total) / samples.size,
+                            ms(samples.percentile(0.50)), ms(samples.percentile(0.95)), ms(samples.percentile(0.99)),
+                            ms(samples.percentile(1.0)), samples.total / grandTotal * 100);
+                });
+    }
+
+    private static String stageOf(RecordedEvent event) {
+        return switch (event.getEventType().getName()) {
+            case JwtEvent.NAME -> "jwt." + event.getString("operation");
+            case PasswordEncoderEvent.NAME -> "password." + event.getString("operation")
+                    + " (cost " + event.getInt("costFactor") + ")";
+            case RepositoryCallEvent.NAME -> "repository." + event.getString("repository")
+                    + "." + event.getString("method");
+            case AuthFilterEvent.NAME -> event.hasField("outcome") && !"ok".equals(event.getString("outcome"))
+                    ? "filter.jwtAuth (" + event.getString("outcome") + ")"
+                    : "filter.jwtAuth";
+            default -> null;
+        };
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class Samples {
+        private long[] values = new long[64];
+        private int size;
+        private long total;
+
+        void add(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+            total += nanos;
+        }
+
+        void sort() {
+            Arrays.sort(values, 0, size);
+        }
+
+        long percentile(double p) {
+            int index = (int) Math.ceil(p * size) - 1;
+            return values[Math.max(0, Math.min(size - 1, index))];
+        }
+    }
+}
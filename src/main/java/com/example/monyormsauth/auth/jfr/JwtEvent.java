@@ -0,0 +1,27 @@
+package com.example.monyormsauth.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name(JwtEvent.NAME)
+@Label("JWT Sign/Verify")
+@Category({"MonyoRMS", "Auth"})
+@Description("Signing or verifying a JWT in JwtService")
+@StackTrace(false)
+public class JwtEvent extends Event {
+
+    public static final String NAME = "monyorms.auth.Jwt";
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Token Length")
+    public int tokenLength;
+
+    @Label("Outcome")
+    public String outcome;
+}
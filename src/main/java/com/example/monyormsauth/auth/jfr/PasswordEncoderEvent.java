@@ -0,0 +1,27 @@
+package com.example.monyormsauth.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name(PasswordEncoderEvent.NAME)
+@Label("Password Encode/Match")
+@Category({"MonyoRMS", "Auth"})
+@Description("BCrypt password hashing or verification")
+@StackTrace(false)
+public class PasswordEncoderEvent extends Event {
+
+    public static final String NAME = "monyorms.auth.PasswordEncoder";
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Cost Factor")
+    public int costFactor;
+
+    @Label("Outcome")
+    public String outcome;
+}
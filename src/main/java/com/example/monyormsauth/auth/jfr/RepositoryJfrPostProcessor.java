@@ -0,0 +1,59 @@
+package com.example.monyormsauth.auth.jfr;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.Repository;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Adds a {@link RepositoryCallEvent} interceptor to every Spring Data repository bean.
+ */
+public class RepositoryJfrPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof Repository<?, ?>)) {
+            return bean;
+        }
+        MethodInterceptor interceptor = interceptor(repositoryName(bean));
+        // Spring Data repositories are already proxies; the advice must come first because the
+        // query executor at the end of their chain never calls proceed()
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(0, interceptor);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+    }
+
+    private static MethodInterceptor interceptor(String repository) {
+        return invocation -> {
+            RepositoryCallEvent event = new RepositoryCallEvent();
+            event.begin();
+            String outcome = "ok";
+            try {
+                return invocation.proceed();
+            } catch (Throwable e) {
+                outcome = e.getClass().getSimpleName();
+                throw e;
+            } finally {
+                event.repository = repository;
+                event.method = invocation.getMethod().getName();
+                event.outcome = outcome;
+                event.commit();
+            }
+        };
+    }
+
+    private static String repositoryName(Object bean) {
+        for (Class<?> type : ClassUtils.getAllInterfaces(bean)) {
+            if (Repository.class.isAssignableFrom(type) && !type.getName().startsWith("org.springframework.")) {
+                return type.getSimpleName();
+            }
+        }
+        return bean.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.monyormsauth.auth.limiter;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Endpoint classes for load shedding. A class may only use its share of the current limit,
+ * so when the service saturates forgot-password is shed first and internal lookups last.
+ */
+public enum RequestPriority {
+
+    // internal lookups from other services, and refresh
+    CRITICAL(1.0),
+    // login, register and everything else
+    NORMAL(0.9),
+    // forgot-password
+    LOW(0.75);
+
+    private final double limitShare;
+
+    RequestPriority(double limitShare) {
+        this.limitShare = limitShare;
+    }
+
+    public double limitShare() {
+        return limitShare;
+    }
+
+    public static RequestPriority of(HttpServletRequest request) {
+        String path = request.getServletPath();
+        if (path.startsWith("/api/auth/forgot-password")) {
+            return LOW;
+        }
+        if (path.startsWith("/api/auth/refresh-token")) {
+            return CRITICAL;
+        }
+        if ("GET".equals(request.getMethod()) && path.startsWith("/api/auth/users/")
+                && (path.endsWith("/exists") || path.endsWith("/role"))) {
+            return CRITICAL;
+        }
+        return NORMAL;
+    }
+}
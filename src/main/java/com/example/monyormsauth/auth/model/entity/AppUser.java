@@ -7,9 +7,11 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
 import java.util.Set;
 
 @Entity
+@Table(indexes = @Index(name = "idx_app_user_created_at_id", columnList = "createdAt, id"))
 @Data
 @Builder
 @NoArgsConstructor
@@ -34,5 +36,29 @@ public class AppUser {
     @Column(name = "role")
     private Set<ERole> roles;
 
+    // null for rows created before this column existed
+    @Column(updatable = false)
+    private Instant createdAt;
+
+    // Bumped on every change (JPA updates and bulk SQL alike); the ETag of the user read endpoints.
+    // A JPA update racing another change fails with OptimisticLockingFailureException, answered as 409
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private long version;
+
+    // Access tokens issued before this instant are rejected on every pod (TokenRevocationRegistry); starts at
+    // createdAt, so a legacy token naming a deleted user's username never matches a new user of that name.
+    // null for rows created before this column existed
+    private Instant tokensValidAfter;
+
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+        if (tokensValidAfter == null) {
+            tokensValidAfter = createdAt;
+        }
+    }
 
 }
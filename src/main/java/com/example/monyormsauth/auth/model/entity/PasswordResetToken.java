@@ -1,10 +1,13 @@
 package com.example.monyormsauth.auth.model.entity;
 
+import com.example.monyormsauth.auth.util.TokenPartitions;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.Instant;
 
+// Partitioned by expiry_day (see db/token-partitions.sql); token is only unique together with it
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"token", "expiry_day"}))
 @Data
 @Builder
 @NoArgsConstructor
@@ -15,13 +18,23 @@ public class PasswordResetToken {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String token;
 
-    @OneToOne
+    // One token per user is kept by PasswordResetTokenService, not by a unique user_id
+    @ManyToOne
     @JoinColumn(name = "user_id", referencedColumnName = "id")
     private AppUser user;
 
     @Column(nullable = false)
     private Instant expiryDate;
+
+    // Null only for rows written before the column existed
+    @Column(name = "expiry_day")
+    private Integer expiryDay;
+
+    @PrePersist
+    void assignExpiryDay() {
+        expiryDay = TokenPartitions.day(expiryDate);
+    }
 }
@@ -1,5 +1,6 @@
 package com.example.monyormsauth.auth.model.entity;
 
+import com.example.monyormsauth.auth.util.TokenPartitions;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -8,7 +9,9 @@ import lombok.NoArgsConstructor;
 
 import java.time.Instant;
 
+// Partitioned by expiry_day (see db/token-partitions.sql); token is only unique together with it
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"token", "expiry_day"}))
 @Data
 @Builder
 @NoArgsConstructor
@@ -19,14 +22,23 @@ public class RefreshToken {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String token;
 
-    @OneToOne(cascade = CascadeType.ALL, orphanRemoval = true)
+    // A partitioned table cannot keep user_id unique, so this is a plain many-to-one
+    @ManyToOne
     @JoinColumn(name = "user_id", referencedColumnName = "id")
     private AppUser user;
 
     @Column(nullable = false)
     private Instant expiryDate;
 
+    // Null only for rows written before the column existed
+    @Column(name = "expiry_day")
+    private Integer expiryDay;
+
+    @PrePersist
+    void assignExpiryDay() {
+        expiryDay = TokenPartitions.day(expiryDate);
+    }
 }
@@ -1,14 +1,36 @@
 package com.example.monyormsauth.auth.repository;
 
 import com.example.monyormsauth.auth.model.entity.PasswordResetToken;
+import com.example.monyormsauth.auth.util.TokenPartitions;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface PasswordResetTokenRepository extends JpaRepository<PasswordResetToken, Long> {
-    Optional<PasswordResetToken> findByToken(String token);
 
-    void deleteByUser_Id(Long userId);
+    // The partition is part of the token, so this probes a single partition's index. Unprefixed tokens
+    // are searched for only while unprefixedLookups is on (see LegacyTokenCutover)
+    default Optional<PasswordResetToken> findByToken(String token, boolean unprefixedLookups) {
+        int day = TokenPartitions.dayOf(token);
+        if (day >= 0) {
+            return findByTokenAndExpiryDay(token, day);
+        }
+        return unprefixedLookups ? findUnprefixedToken(token) : Optional.empty();
+    }
+
+    Optional<PasswordResetToken> findByTokenAndExpiryDay(String token, Integer expiryDay);
+
+    // Tokens issued before partitioning; probes every partition
+    @Query("select t from PasswordResetToken t where t.token = :token")
+    Optional<PasswordResetToken> findUnprefixedToken(@Param("token") String token);
+
+    // Runs immediately, so the replacement token is never stored next to the old one
+    @Modifying
+    @Query("delete from PasswordResetToken t where t.user.id = :userId")
+    int deleteByUser_Id(@Param("userId") Long userId);
 }
@@ -1,15 +1,64 @@
 package com.example.monyormsauth.auth.repository;
 
 import com.example.monyormsauth.auth.model.entity.RefreshToken;
+import com.example.monyormsauth.auth.util.TokenPartitions;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
 
-    Optional<RefreshToken> findByToken(String token);
+    // The partition is part of the token, so this probes a single partition's index. Unprefixed tokens
+    // are searched for only while unprefixedLookups is on (see LegacyTokenCutover)
+    default Optional<RefreshToken> findByToken(String token, boolean unprefixedLookups) {
+        int day = TokenPartitions.dayOf(token);
+        if (day >= 0) {
+            return findByTokenAndExpiryDay(token, day);
+        }
+        return unprefixedLookups ? findUnprefixedToken(token) : Optional.empty();
+    }
+
+    Optional<RefreshToken> findByTokenAndExpiryDay(String token, Integer expiryDay);
+
+    // Tokens issued before partitioning; probes every partition
+    @Query("select r from RefreshToken r where r.token = :token")
+    Optional<RefreshToken> findUnprefixedToken(@Param("token") String token);
+
+    // Bulk deletes do not cascade to the user, unlike entity deletes
+    @Modifying
+    @Query("delete from RefreshToken r where r.user.id = :userId")
+    int deleteByUser_Id(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("delete from RefreshToken r where r.token in :tokens")
+    int deleteAllByTokenIn(@Param("tokens") Collection<String> tokens);
+
+    @Modifying
+    @Query("delete from RefreshToken r where r.user.id in :userIds")
+    int deleteAllByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select r.token as token, r.user.id as userId, r.expiryDate as expiryDate "
+            + "from RefreshToken r where r.expiryDate > :now")
+    Stream<RefreshTokenView> streamActive(@Param("now") Instant now);
+
+    interface RefreshTokenView {
+        String getToken();
+
+        Long getUserId();
 
-    void deleteByUser_Id(Long userId);
+        Instant getExpiryDate();
+    }
 }
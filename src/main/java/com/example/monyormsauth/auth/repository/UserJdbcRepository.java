@@ -0,0 +1,184 @@
+package com.example.monyormsauth.auth.repository;
+
+import com.example.monyormsauth.auth.dto.UserFilter;
+import com.example.monyormsauth.auth.dto.UserSummary;
+import com.example.monyormsauth.auth.model.enumerator.ERole;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Set-based user queries that don't fit Spring Data: keyset-paginated search, the streaming export
+ * and the bulk admin statements.
+ * Pages seek on the primary key ({@code id > :after ORDER BY id}), so page N costs the same as page 1.
+ */
+@Repository
+public class UserJdbcRepository {
+
+    private static final String SELECT_SUMMARY = """
+            SELECT u.id, u.username, u.email, u.created_at,
+                   (SELECT string_agg(r.role, ',') FROM user_roles r WHERE r.user_id = u.id) AS roles
+            FROM app_user u
+            """;
+
+    private static final RowMapper<UserSummary> SUMMARY_MAPPER = (rs, rowNum) -> {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        String roles = rs.getString("roles");
+        return UserSummary.builder()
+                .id(rs.getLong("id"))
+                .username(rs.getString("username"))
+                .email(rs.getString("email"))
+                .roles(roles == null ? List.of() : Arrays.asList(roles.split(",")))
+                .createdAt(createdAt == null ? null : createdAt.toInstant())
+                .build();
+    };
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate streamingJdbc;
+
+    public UserJdbcRepository(DataSource dataSource,
+                              @Value("${users.export.fetchSize:500}") int exportFetchSize) {
+        this.jdbc = new NamedParameterJdbcTemplate(dataSource);
+        // PostgreSQL only streams with a fetch size inside a transaction (autocommit off)
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        streaming.setFetchSize(exportFetchSize);
+        this.streamingJdbc = new NamedParameterJdbcTemplate(streaming);
+    }
+
+    /** Up to {@code limit} users with {@code id > after} matching the filter, ordered by id. */
+    public List<UserSummary> findPage(UserFilter filter, long after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("after", after).addValue("limit", limit);
+        String sql = SELECT_SUMMARY + where(filter, params) + " AND u.id > :after ORDER BY u.id LIMIT :limit";
+        return jdbc.query(sql, params, SUMMARY_MAPPER);
+    }
+
+    /**
+     * Streams every matching user through a forward-only cursor. Must run inside a transaction
+     * so the driver fetches in chunks instead of materialising the whole result.
+     */
+    public void streamAll(UserFilter filter, Consumer<UserSummary> sink) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = SELECT_SUMMARY + where(filter, params) + " ORDER BY u.id";
+        int[] row = {0};
+        streamingJdbc.query(sql, params, rs -> {
+            sink.accept(SUMMARY_MAPPER.mapRow(rs, row[0]++));
+        });
+    }
+
+    /** Streams (username, email) of every user through the forward-only cursor; call inside a transaction. */
+    public void streamIdentifiers(BiConsumer<String, String> sink) {
+        streamingJdbc.getJdbcTemplate().query("SELECT username, email FROM app_user", rs -> {
+            sink.accept(rs.getString(1), rs.getString(2));
+        });
+    }
+
+    /** (username, email) of users created at or after {@code since}, through idx_app_user_created_at_id. */
+    public void streamIdentifiersCreatedSince(Instant since, BiConsumer<String, String> sink) {
+        jdbc.query("SELECT username, email FROM app_user WHERE created_at >= :since",
+                new MapSqlParameterSource("since", Timestamp.from(since)), rs -> {
+                    sink.accept(rs.getString(1), rs.getString(2));
+                });
+    }
+
+    /** {@code tokens_valid_after} in epoch millis, 0 when never set; empty when the user does not exist. */
+    public OptionalLong findTokensValidAfter(Long id) {
+        return tokensValidAfter("id = :key", id);
+    }
+
+    /** As {@link #findTokensValidAfter(Long)}, for legacy tokens that only carry the username. */
+    public OptionalLong findTokensValidAfterByUsername(String username) {
+        return tokensValidAfter("username = :key", username);
+    }
+
+    private OptionalLong tokensValidAfter(String condition, Object key) {
+        List<Timestamp> rows = jdbc.queryForList("SELECT tokens_valid_after FROM app_user WHERE " + condition,
+                new MapSqlParameterSource("key", key), Timestamp.class);
+        if (rows.isEmpty()) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(rows.get(0) == null ? 0 : rows.get(0).getTime());
+    }
+
+    /** Ids matching the filter after {@code after}, for walking a bulk operation in chunks. */
+    public List<Long> findIds(UserFilter filter, long after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("after", after).addValue("limit", limit);
+        String sql = "SELECT u.id FROM app_user u " + where(filter, params) + " AND u.id > :after ORDER BY u.id LIMIT :limit";
+        return jdbc.queryForList(sql, params, Long.class);
+    }
+
+    /** Locks the existing users among {@code ids} for the rest of the transaction; returns id to username. */
+    public Map<Long, String> lockUsers(Collection<Long> ids) {
+        Map<Long, String> users = new LinkedHashMap<>();
+        jdbc.query("SELECT id, username FROM app_user WHERE id IN (:ids) ORDER BY id FOR UPDATE",
+                new MapSqlParameterSource("ids", ids),
+                rs -> {
+                    users.put(rs.getLong("id"), rs.getString("username"));
+                });
+        return users;
+    }
+
+    /**
+     * Replaces the roles of all {@code ids} with {@code role} and revokes their access tokens issued before now;
+     * returns the number of users updated.
+     */
+    public int replaceRoles(Collection<Long> ids, ERole role) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids).addValue("role", role.name())
+                .addValue("now", Timestamp.from(Instant.now()));
+        jdbc.update("DELETE FROM user_roles WHERE user_id IN (:ids)", params);
+        jdbc.update("UPDATE app_user SET version = version + 1, tokens_valid_after = :now WHERE id IN (:ids)", params);
+        return jdbc.update("INSERT INTO user_roles (user_id, role) SELECT id, :role FROM app_user WHERE id IN (:ids)", params);
+    }
+
+    /** Deletes the users and everything referencing them; returns the number of users deleted. */
+    public int deleteUsers(Collection<Long> ids) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+        jdbc.update("DELETE FROM refresh_token WHERE user_id IN (:ids)", params);
+        jdbc.update("DELETE FROM password_reset_token WHERE user_id IN (:ids)", params);
+        jdbc.update("DELETE FROM user_roles WHERE user_id IN (:ids)", params);
+        return jdbc.update("DELETE FROM app_user WHERE id IN (:ids)", params);
+    }
+
+    static String where(UserFilter filter, MapSqlParameterSource params) {
+        StringBuilder where = new StringBuilder("WHERE 1 = 1");
+        if (filter.getRole() != null) {
+            where.append(" AND EXISTS (SELECT 1 FROM user_roles fr WHERE fr.user_id = u.id AND fr.role = :role)");
+            params.addValue("role", filter.getRole().name());
+        }
+        if (filter.getUsernamePrefix() != null && !filter.getUsernamePrefix().isEmpty()) {
+            where.append(" AND u.username LIKE :usernamePrefix ESCAPE '\\'");
+            params.addValue("usernamePrefix", likePrefix(filter.getUsernamePrefix()));
+        }
+        if (filter.getEmailPrefix() != null && !filter.getEmailPrefix().isEmpty()) {
+            where.append(" AND u.email LIKE :emailPrefix ESCAPE '\\'");
+            params.addValue("emailPrefix", likePrefix(filter.getEmailPrefix()));
+        }
+        if (filter.getCreatedFrom() != null) {
+            where.append(" AND u.created_at >= :createdFrom");
+            params.addValue("createdFrom", Timestamp.from(filter.getCreatedFrom()));
+        }
+        if (filter.getCreatedTo() != null) {
+            where.append(" AND u.created_at < :createdTo");
+            params.addValue("createdTo", Timestamp.from(filter.getCreatedTo()));
+        }
+        return where.toString();
+    }
+
+    private static String likePrefix(String prefix) {
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+}
@@ -1,13 +1,25 @@
 package com.example.monyormsauth.auth.repository;
 
 import com.example.monyormsauth.auth.model.entity.AppUser;
+import com.example.monyormsauth.auth.model.enumerator.ERole;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<AppUser, Long> {
     Optional<AppUser> findByUsername(String username);
     Optional<AppUser> findByEmail(String email);
+    boolean existsByUsername(String username);
+    boolean existsByEmail(String email);
+
+    @Query("select u.version from AppUser u where u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("select r from AppUser u join u.roles r where u.id = :id")
+    List<ERole> findRolesById(@Param("id") Long id);
 }
@@ -0,0 +1,156 @@
+package com.example.monyormsauth.auth.service;
+
+import com.example.monyormsauth.auth.dto.AbuseReport;
+import com.example.monyormsauth.auth.exception.TooManyRequestsException;
+import com.example.monyormsauth.auth.util.HeavyHitterTracker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the heaviest sources of failed logins (per identifier and per client IP) and of
+ * forgot-password requests (per email) over a sliding window, in fixed memory.
+ *
+ * <p>With {@code abuse.block.enabled} a key is refused while its windowed count is at or above the
+ * threshold and either it is one of the current top-k candidates or its count stays above the threshold
+ * even after subtracting the sketch's overcount bound. Either condition keeps sketch overcounts from
+ * blocking quiet keys that merely share counters with a noisy one; the second keeps a key blocked when
+ * an attacker sprays enough other keys to push it out of the candidates. A block lifts by itself as the
+ * window slides past the failures.
+ *
+ * <p>Identifiers passed to {@link #exclude} (the warm-up's random throwaway principal) are not
+ * counted, neither per identifier nor per IP.
+ */
+@Service
+@Slf4j
+public class AbuseMonitor {
+
+    private final HeavyHitterTracker loginFailuresByIdentifier;
+    private final HeavyHitterTracker loginFailuresByIp;
+    private final HeavyHitterTracker forgotPasswordByEmail;
+
+    private final boolean blockingEnabled;
+    private final long identifierThreshold;
+    private final long ipThreshold;
+    private final long forgotPasswordThreshold;
+    private final Set<String> excludedIdentifiers = ConcurrentHashMap.newKeySet();
+
+    public AbuseMonitor(@Value("${abuse.windowSeconds:600}") long windowSeconds,
+                        @Value("${abuse.buckets:10}") int buckets,
+                        @Value("${abuse.topK:50}") int topK,
+                        @Value("${abuse.sketchDepth:4}") int sketchDepth,
+                        @Value("${abuse.sketchWidth:4096}") int sketchWidth,
+                        @Value("${abuse.block.enabled:false}") boolean blockingEnabled,
+                        @Value("${abuse.block.loginFailuresPerIdentifier:20}") long identifierThreshold,
+                        @Value("${abuse.block.loginFailuresPerIp:100}") long ipThreshold,
+                        @Value("${abuse.block.forgotPasswordPerEmail:5}") long forgotPasswordThreshold) {
+        long windowMillis = windowSeconds * 1000;
+        this.loginFailuresByIdentifier = new HeavyHitterTracker(windowMillis, buckets, topK, sketchDepth, sketchWidth);
+        this.loginFailuresByIp = new HeavyHitterTracker(windowMillis, buckets, topK, sketchDepth, sketchWidth);
+        this.forgotPasswordByEmail = new HeavyHitterTracker(windowMillis, buckets, topK, sketchDepth, sketchWidth);
+        this.blockingEnabled = blockingEnabled;
+        this.identifierThreshold = identifierThreshold;
+        this.ipThreshold = ipThreshold;
+        this.forgotPasswordThreshold = forgotPasswordThreshold;
+    }
+
+    /** Throws {@link TooManyRequestsException#LOGIN_BLOCKED} if the identifier or IP is blocked. */
+    public void checkLogin(String identifier, String clientIp) {
+        checkLogin(identifier, clientIp, System.currentTimeMillis());
+    }
+
+    void checkLogin(String identifier, String clientIp, long now) {
+        if (!blockingEnabled) {
+            return;
+        }
+        if (isBlocked(loginFailuresByIdentifier, normalize(identifier), identifierThreshold, now)
+                || isBlocked(loginFailuresByIp, clientIp, ipThreshold, now)) {
+            throw TooManyRequestsException.LOGIN_BLOCKED;
+        }
+    }
+
+    /** Stops counting failed logins for {@code identifier} until {@link #include} is called. */
+    public void exclude(String identifier) {
+        String key = normalize(identifier);
+        if (key != null) {
+            excludedIdentifiers.add(key);
+        }
+    }
+
+    public void include(String identifier) {
+        String key = normalize(identifier);
+        if (key != null) {
+            excludedIdentifiers.remove(key);
+        }
+    }
+
+    public void recordLoginFailure(String identifier, String clientIp) {
+        recordLoginFailure(identifier, clientIp, System.currentTimeMillis());
+    }
+
+    void recordLoginFailure(String identifier, String clientIp, long now) {
+        String key = normalize(identifier);
+        if (key != null && excludedIdentifiers.contains(key)) {
+            return;
+        }
+        if (key != null) {
+            long count = loginFailuresByIdentifier.record(key, now);
+            if (count == identifierThreshold) {
+                log.warn("Identifier {} reached {} failed logins in the current window", key, count);
+            }
+        }
+        if (clientIp != null) {
+            long count = loginFailuresByIp.record(clientIp, now);
+            if (count == ipThreshold) {
+                log.warn("Client {} reached {} failed logins in the current window", clientIp, count);
+            }
+        }
+    }
+
+    /** Counts the request and throws {@link TooManyRequestsException#FORGOT_PASSWORD_BLOCKED} if the email is blocked. */
+    public void recordForgotPassword(String email) {
+        recordForgotPassword(email, System.currentTimeMillis());
+    }
+
+    void recordForgotPassword(String email, long now) {
+        String key = normalize(email);
+        if (key == null) {
+            return;
+        }
+        if (blockingEnabled && isBlocked(forgotPasswordByEmail, key, forgotPasswordThreshold, now)) {
+            throw TooManyRequestsException.FORGOT_PASSWORD_BLOCKED;
+        }
+        forgotPasswordByEmail.record(key, now);
+    }
+
+    public AbuseReport report(int limit) {
+        return report(limit, System.currentTimeMillis());
+    }
+
+    AbuseReport report(int limit, long now) {
+        return AbuseReport.builder()
+                .windowSeconds(loginFailuresByIdentifier.windowMillis() / 1000)
+                .blockingEnabled(blockingEnabled)
+                .loginFailuresByIdentifier(loginFailuresByIdentifier.top(limit, now))
+                .loginFailuresByIp(loginFailuresByIp.top(limit, now))
+                .forgotPasswordByEmail(forgotPasswordByEmail.top(limit, now))
+                .build();
+    }
+
+    private static boolean isBlocked(HeavyHitterTracker tracker, String key, long threshold, long now) {
+        if (key == null) {
+            return false;
+        }
+        long estimate = tracker.estimate(key, now);
+        return estimate >= threshold
+                && (tracker.isCandidate(key, now) || estimate - tracker.overcountBound(now) >= threshold);
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
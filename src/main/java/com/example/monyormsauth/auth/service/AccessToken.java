@@ -0,0 +1,22 @@
+package com.example.monyormsauth.auth.service;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+
+/**
+ * A verified access token, parsed once.
+ *
+ * @param version     1 for legacy tokens (username subject, "roles" list), 2 for the compact profile
+ * @param subject     username (v1) or user id (v2)
+ * @param userId      {@code null} for v1 tokens
+ * @param authorities shared, immutable list, do not modify
+ * @param issuedAtEpochMilli "iat" plus its "ms" part; tokens without it fall back to the start of their "iat" second
+ */
+public record AccessToken(int version,
+                          String subject,
+                          Long userId,
+                          List<GrantedAuthority> authorities,
+                          long issuedAtEpochMilli,
+                          long expiresAtEpochSecond) {
+}
@@ -1,25 +1,36 @@
 package com.example.monyormsauth.auth.service;
 
 import com.example.monyormsauth.auth.dto.*;
+import com.example.monyormsauth.auth.event.UserRevocationEvent;
 import com.example.monyormsauth.auth.exception.DuplicateException;
 import com.example.monyormsauth.auth.exception.InvalidCredentialsException;
 import com.example.monyormsauth.auth.exception.UserNotFoundException;
+import com.example.monyormsauth.auth.exception.TooManyRequestsException;
 import com.example.monyormsauth.auth.model.entity.AppUser;
-import com.example.monyormsauth.auth.model.entity.PasswordResetToken;
 import com.example.monyormsauth.auth.model.entity.RefreshToken;
 import com.example.monyormsauth.auth.model.enumerator.ERole;
 import com.example.monyormsauth.auth.repository.PasswordResetTokenRepository;
-import com.example.monyormsauth.auth.repository.RefreshTokenRepository;
 import com.example.monyormsauth.auth.repository.UserRepository;
+import com.example.monyormsauth.auth.util.SingleFlight;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 @Service
@@ -29,22 +40,32 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
-    private final RefreshTokenRepository refreshTokenRepository;
     private final RefreshTokenService refreshTokenService;
     private final PasswordResetTokenService passwordResetTokenService;
     private final PasswordResetTokenRepository passwordResetTokenRepository;
     private final EmailService emailService;
-
-    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtService jwtService, AuthenticationManager authenticationManager, RefreshTokenRepository refreshTokenRepository, RefreshTokenService refreshTokenService, PasswordResetTokenService passwordResetTokenService, PasswordResetTokenRepository passwordResetTokenRepository, EmailService emailService) {
+    private final ApplicationEventPublisher eventPublisher;
+    private final IdentifierIndex identifierIndex;
+    private final AbuseMonitor abuseMonitor;
+    private final PasswordResetCoalescer resetCoalescer;
+    // Eyni refresh token ilə paralel gələn sorğular bir hesablamanı paylaşır
+    private final SingleFlight<String, RefreshResult> refreshFlight;
+
+    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtService jwtService, AuthenticationManager authenticationManager, RefreshTokenService refreshTokenService, PasswordResetTokenService passwordResetTokenService, PasswordResetTokenRepository passwordResetTokenRepository, @Lazy EmailService emailService, ApplicationEventPublisher eventPublisher, IdentifierIndex identifierIndex, AbuseMonitor abuseMonitor, PasswordResetCoalescer resetCoalescer,
+                       @Value("${jwt.refreshCoalesceWindowMs:2000}") long refreshCoalesceWindowMs) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
         this.authenticationManager = authenticationManager;
-        this.refreshTokenRepository = refreshTokenRepository;
         this.refreshTokenService = refreshTokenService;
         this.passwordResetTokenService = passwordResetTokenService;
         this.passwordResetTokenRepository = passwordResetTokenRepository;
         this.emailService = emailService;
+        this.eventPublisher = eventPublisher;
+        this.identifierIndex = identifierIndex;
+        this.abuseMonitor = abuseMonitor;
+        this.resetCoalescer = resetCoalescer;
+        this.refreshFlight = new SingleFlight<>(refreshCoalesceWindowMs);
     }
 
     @Transactional
@@ -56,34 +77,44 @@ public class AuthService {
 
         log.info("User found with id: " + userId);
         user.setRoles(new HashSet<>(Set.of(role)));
+        user.setTokensValidAfter(Instant.now());
         log.info("set role: ");
 
         userRepository.save(user);
+        // Köhnə rollu access tokenlər commit-dən sonra qəbul edilmir
+        revoke(user, UserRevocationEvent.Reason.ROLE_CHANGED);
     }
 
     @Transactional
     public void deleteUser(Long userId) {
-        refreshTokenRepository.deleteByUser_Id(userId);
+        refreshTokenService.purgeUser(userId);
         passwordResetTokenRepository.deleteByUser_Id(userId);
 
         AppUser user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
 
         userRepository.delete(user);
+        revoke(user, UserRevocationEvent.Reason.DELETED);
+    }
+
+    private void revoke(AppUser user, UserRevocationEvent.Reason reason) {
+        eventPublisher.publishEvent(new UserRevocationEvent(
+                List.of(user.getId()), List.of(user.getUsername()), reason, Instant.now()));
     }
 
     public AuthResponse register(RegisterRequest registerRequest) {
 
         log.info("Registering new user with username {}", registerRequest.getUsername());
-        userRepository.findByUsername(registerRequest.getUsername()).ifPresent(user -> {
+        // Bloom filter "yox" deyirsə DB-yə sorğu getmir
+        if (identifierIndex.isUsernameTaken(registerRequest.getUsername())) {
             log.warn("Username {} already exists", registerRequest.getUsername());
-            throw new DuplicateException("Username already exists");
-        });
+            throw DuplicateException.USERNAME_TAKEN;
+        }
 
-        userRepository.findByEmail(registerRequest.getEmail()).ifPresent(user -> {
+        if (identifierIndex.isEmailTaken(registerRequest.getEmail())) {
             log.warn("Email {} already exists", registerRequest.getEmail());
-            throw new DuplicateException("Email already exists");
-        });
+            throw DuplicateException.EMAIL_TAKEN;
+        }
 
         AppUser user = AppUser.builder()
                 .username(registerRequest.getUsername())
@@ -92,23 +123,36 @@ public class AuthService {
                 .password(passwordEncoder.encode(registerRequest.getPassword()))
                 .build();
 
-        userRepository.save(user);
+        try {
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            // Bloom filter başqa pod-da qeydiyyatdan keçmiş adı bilməyə bilər; unique constraint son sözdür
+            identifierIndex.add(user);
+            if (userRepository.existsByUsername(user.getUsername())) {
+                throw DuplicateException.USERNAME_TAKEN;
+            }
+            if (userRepository.existsByEmail(user.getEmail())) {
+                throw DuplicateException.EMAIL_TAKEN;
+            }
+            throw e;
+        }
+        identifierIndex.add(user);
 
         log.info("User {} registered successfully", user.getUsername());
-        String accessToken = jwtService.generateToken(user.getUsername());
-        String refreshToken = jwtService.generateRefreshToken(user.getUsername());
-       // RefreshToken refreshToken = refreshTokenService.createRefreshToken(user.getUsername());
+        String accessToken = jwtService.generateToken(user);
+        RefreshToken refreshToken = refreshTokenService.createRefreshToken(user);
 
         return AuthResponse.builder()
                 .accessToken(accessToken)
-                .refreshToken(refreshToken)
+                .refreshToken(refreshToken.getToken())
                 .build();
 
     }
 
-    public AuthResponse login(LoginRequest request) {
+    public AuthResponse login(LoginRequest request, String clientIp) {
 
         log.info("User login attempt with identifier {}", request.getIdentifier());
+        abuseMonitor.checkLogin(request.getIdentifier(), clientIp);
 
         try {
             authenticationManager.authenticate(
@@ -117,27 +161,35 @@ public class AuthService {
                             request.getPassword()
                     )
             );
-        } catch (BadCredentialsException ex) {
-            throw new InvalidCredentialsException("Username or password is incorrect");
+        } catch (BadCredentialsException | UsernameNotFoundException ex) {
+            abuseMonitor.recordLoginFailure(request.getIdentifier(), clientIp);
+            throw InvalidCredentialsException.BAD_CREDENTIALS;
         }
 
         AppUser user = userRepository.findByUsername(request.getIdentifier())
                 .or(() -> userRepository.findByEmail(request.getIdentifier()))
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
+                .orElseThrow(() -> UserNotFoundException.USER_NOT_FOUND);
 
         log.info("User {} logged in successfully", user.getUsername());
-        String accessToken = jwtService.generateToken(user.getUsername());
-        String refreshToken = jwtService.generateRefreshToken(user.getUsername());
-        //RefreshToken refreshToken = refreshTokenService.createRefreshToken(user.getUsername());
+        String accessToken = jwtService.generateToken(user);
+        RefreshToken refreshToken = refreshTokenService.createRefreshToken(user);
 
         return AuthResponse.builder()
                 .accessToken(accessToken)
-                .refreshToken(refreshToken)
+                .refreshToken(refreshToken.getToken())
                 .build();
 
     }
 
     public AuthResponse refreshToken(RefreshTokenRequest request) {
+        return refreshFlight.execute(request.getRefreshToken(), () -> doRefreshToken(request)).response();
+    }
+
+    // Coalesce edilmiş nəticə istifadəçiyə bağlıdır ki, logout/revocation zamanı silinə bilsin
+    private record RefreshResult(Long userId, AuthResponse response) {
+    }
+
+    private RefreshResult doRefreshToken(RefreshTokenRequest request) {
 
         log.info("Refreshing access token using refresh token {}", request.getRefreshToken());
         RefreshToken refreshToken = refreshTokenService.findByToken(request.getRefreshToken())
@@ -148,20 +200,28 @@ public class AuthService {
         AppUser user = userRepository.findById(refreshToken.getUser().getId())
                 .orElseThrow(() -> new UserNotFoundException("User not found for refresh token."));
 
-        String newAccessToken = jwtService.generateToken(user.getUsername());
+        String newAccessToken = jwtService.generateToken(user);
 
         log.info("Access token refreshed for user {}", user.getUsername());
-        return AuthResponse.builder()
+        return new RefreshResult(user.getId(), AuthResponse.builder()
                 .accessToken(newAccessToken)
                 .refreshToken(refreshToken.getToken())  // Refresh token eyni qalır
-                .build();
+                .build());
+    }
+
+    // Rol dəyişikliyi və ya silinmədən sonra köhnə access token artıq paylanmamalıdır
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRevocation(UserRevocationEvent event) {
+        Set<Long> userIds = Set.copyOf(event.userIds());
+        refreshFlight.evictIf(result -> userIds.contains(result.userId()));
     }
 
     public void logout(String username) {
         log.info("Logging out user {}", username);
         AppUser user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
+                .orElseThrow(() -> UserNotFoundException.USER_NOT_FOUND);
         refreshTokenService.deleteByUserId(user.getId());
+        refreshFlight.evictIf(result -> user.getId().equals(result.userId()));
         log.info("User {} logged out successfully", username);
     }
 
@@ -171,19 +231,42 @@ public class AuthService {
     public void forgotPassword(ForgotPasswordRequest forgotPasswordRequest) {
 
         log.info("Password reset requested for email {}", forgotPasswordRequest.getEmail());
+        abuseMonitor.recordForgotPassword(forgotPasswordRequest.getEmail());
         AppUser user = userRepository.findByEmail(forgotPasswordRequest.getEmail())
                 .orElseThrow(() -> new UserNotFoundException("User with this email not found"));
 
-        var token = passwordResetTokenService.createToken(user.getUsername());
+        // Təkrar sorğular pəncərə daxilində yeni token yazmır və ikinci mail göndərmir
+        PasswordResetCoalescer.Claim claim = resetCoalescer.claim(user.getId(), passwordResetTokenService::isUsable);
+        if (claim.action() == PasswordResetCoalescer.Action.REFUSE) {
+            // Coalescer doludur: burada token yazıb mail göndərmək limiti mənasız edərdi
+            throw TooManyRequestsException.FORGOT_PASSWORD_BLOCKED;
+        }
+        if (claim.action() == PasswordResetCoalescer.Action.SUPPRESS) {
+            log.info("Password reset for {} already mailed recently, request coalesced", user.getEmail());
+            return;
+        }
+
+        String token = claim.token();
+        if (claim.action() == PasswordResetCoalescer.Action.ISSUE) {
+            token = passwordResetTokenService.issueToken(user);
+            resetCoalescer.issued(user.getId(), token);
+        }
 
-        String resetLink = "http://localhost:8080/api/auth/reset-password?token=" + token.getToken();
+        String resetLink = "http://localhost:8080/api/auth/reset-password?token=" + token;
+        long minutesLeft = Math.max(1, (Duration.between(Instant.now(), claim.tokenExpiresAt()).getSeconds() + 59) / 60);
 
         String emailBody = "<p>Salam,</p>"
                 + "<p>Şifrəni yeniləmək üçün linkə klikləyin:</p>"
                 + "<a href=\"" + resetLink + "\">Şifrəni Yenilə</a>"
-                + "<p>Bu link 1 saat ərzində aktiv olacaq.</p>";
+                + "<p>Bu link " + minutesLeft + " dəqiqə ərzində aktiv olacaq.</p>";
 
-        emailService.sendEmail(user.getEmail(), "Şifrə Yeniləmə Linki", emailBody);
+        Long userId = user.getId();
+        emailService.sendEmail(user.getEmail(), "Şifrə Yeniləmə Linki", emailBody)
+                .exceptionally(e -> {
+                    // Mail getmədisə hesab pəncərədə bloklu qalmamalıdır; növbəti sorğu yenidən göndərəcək
+                    resetCoalescer.forget(userId);
+                    return null;
+                });
 
         log.info("Password reset email sent to {}", user.getEmail());
 
@@ -192,34 +275,45 @@ public class AuthService {
     @Transactional
     public void resetPassword(ResetPasswordRequest resetPasswordRequest) {
         log.info("Resetting password using token {}", resetPasswordRequest.getToken());
-        PasswordResetToken resetToken = passwordResetTokenService.findByToken(resetPasswordRequest.getToken())
-                .orElseThrow(() -> new UserNotFoundException("Invalid or expired password reset token"));
-
-        passwordResetTokenService.verifyExpiration(resetToken);
-
-        AppUser user = userRepository.findByUsername(resetToken.getUser().getUsername())
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
+        AppUser user = passwordResetTokenService.resolveUser(resetPasswordRequest.getToken());
 
         user.setPassword(passwordEncoder.encode(resetPasswordRequest.getNewPassword()));
         userRepository.save(user);
 
         // Reset token istifadə olunduğu üçün silirik
-        passwordResetTokenService.deleteByUserId(user.getId());
+        passwordResetTokenService.invalidate(user);
+        resetCoalescer.forget(user.getId());
         log.info("Password reset successful for user {}", user.getUsername());
 
     }
 
+    // Qeydiyyat formu üçün; sorğulanmayan sahə null qalır
+    public AvailabilityResponse checkAvailability(String username, String email) {
+        return AvailabilityResponse.builder()
+                .usernameAvailable(username == null ? null : !identifierIndex.isUsernameTaken(username))
+                .emailAvailable(email == null ? null : !identifierIndex.isEmailTaken(email))
+                .build();
+    }
+
     public boolean doesUserExist(Long id) {
         return userRepository.existsById(id);
     }
 
+    // Bütün entity yüklənmir, yalnız user_roles oxunur
     public String getUserRole(Long userId) {
-        return userRepository.findById(userId)
-                .map(user -> user.getRoles().stream()
-                        .findFirst()
-                        .map(Enum::name)
-                        .orElseThrow(() -> new UserNotFoundException("User has no role assigned"))) // rol yoxdursa exception
-                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
+        List<ERole> roles = userRepository.findRolesById(userId);
+        if (!roles.isEmpty()) {
+            return roles.get(0).name();
+        }
+        if (userRepository.findVersionById(userId).isPresent()) {
+            throw new UserNotFoundException("User has no role assigned"); // rol yoxdursa exception
+        }
+        throw new UserNotFoundException("User not found with id: " + userId);
+    }
+
+    // ETag üçün; istifadəçi yoxdursa boş qayıdır
+    public Optional<Long> getUserVersion(Long userId) {
+        return userRepository.findVersionById(userId);
     }
 
 
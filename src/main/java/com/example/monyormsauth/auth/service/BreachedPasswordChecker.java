@@ -0,0 +1,47 @@
+package com.example.monyormsauth.auth.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+/**
+ * Checks new passwords against the breached-password filter configured with
+ * {@code breachedPasswords.filterPath}. When no path is set every password passes.
+ */
+@Service
+@Slf4j
+public class BreachedPasswordChecker {
+
+    private final BreachedPasswordFilter filter;
+
+    public BreachedPasswordChecker(@Value("${breachedPasswords.filterPath:}") String filterPath) {
+        if (filterPath == null || filterPath.isBlank()) {
+            log.info("Breached-password filter disabled (breachedPasswords.filterPath not set)");
+            this.filter = null;
+            return;
+        }
+        try {
+            this.filter = BreachedPasswordFilter.open(Path.of(filterPath));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open breached-password filter " + filterPath, e);
+        }
+        log.info("Breached-password filter mapped from {}: {} entries, {} MiB, k={}",
+                filterPath, filter.entryCount(), filter.bitCount() / 8 / (1 << 20), filter.hashCount());
+    }
+
+    public boolean isBreached(String password) {
+        return filter != null && password != null && filter.mightContain(password);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (filter != null) {
+            filter.close();
+        }
+    }
+}
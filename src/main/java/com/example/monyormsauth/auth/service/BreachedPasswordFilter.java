@@ -0,0 +1,165 @@
+package com.example.monyormsauth.auth.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Read-only Bloom filter over SHA-1 password hashes, memory-mapped from a file written by
+ * {@code BreachedPasswordFilterBuilder} (tools source set). The bit array stays off-heap and is shared by every
+ * process on the host through the page cache.
+ *
+ * <pre>
+ * offset  0  int   magic "MBPF"
+ * offset  4  int   format version
+ * offset  8  int   number of hash functions (k)
+ * offset 12  int   reserved
+ * offset 16  long  number of bits (multiple of 64)
+ * offset 24  long  number of inserted entries
+ * offset 32  long[] bit array, big-endian
+ * </pre>
+ */
+public final class BreachedPasswordFilter implements Closeable {
+
+    static final int MAGIC = 0x4D425046; // "MBPF"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+
+    // 1 GiB segments, so files larger than 2 GiB can still be mapped
+    static final int SEGMENT_SHIFT = 30;
+    static final long SEGMENT_BYTES = 1L << SEGMENT_SHIFT;
+
+    private static final ThreadLocal<MessageDigest> SHA1 = ThreadLocal.withInitial(BreachedPasswordFilter::newSha1);
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final int hashCount;
+    private final long bitCount;
+    private final long entryCount;
+
+    private BreachedPasswordFilter(FileChannel channel, MappedByteBuffer[] segments,
+                                   int hashCount, long bitCount, long entryCount) {
+        this.channel = channel;
+        this.segments = segments;
+        this.hashCount = hashCount;
+        this.bitCount = bitCount;
+        this.entryCount = entryCount;
+    }
+
+    public static BreachedPasswordFilter open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            int read;
+            do {
+                read = channel.read(header);
+            } while (read >= 0 && header.hasRemaining());
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException("Not a breached-password filter: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported breached-password filter version " + version);
+            }
+            int hashCount = header.getInt();
+            header.getInt();
+            long bitCount = header.getLong();
+            long entryCount = header.getLong();
+
+            long dataBytes = bitCount / 8;
+            if (hashCount <= 0 || bitCount <= 0 || bitCount % 64 != 0 || channel.size() < HEADER_BYTES + dataBytes) {
+                throw new IOException("Corrupt breached-password filter: " + path);
+            }
+            return new BreachedPasswordFilter(channel,
+                    map(channel, FileChannel.MapMode.READ_ONLY, HEADER_BYTES, dataBytes),
+                    hashCount, bitCount, entryCount);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public boolean mightContain(String password) {
+        MessageDigest sha1 = SHA1.get();
+        return mightContainSha1(sha1.digest(password.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public boolean mightContainSha1(byte[] sha1) {
+        long h1 = hash1(sha1);
+        long h2 = hash2(sha1);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            long word = getWord(bit >>> 6);
+            if ((word & (1L << (bit & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+
+    public long entryCount() {
+        return entryCount;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private long getWord(long wordIndex) {
+        long offset = wordIndex << 3;
+        return segments[(int) (offset >>> SEGMENT_SHIFT)].getLong((int) (offset & (SEGMENT_BYTES - 1)));
+    }
+
+    // SHA-1 is already uniformly distributed: the first 16 bytes give both hashes for double hashing
+    static long hash1(byte[] sha1) {
+        return readLong(sha1, 0);
+    }
+
+    static long hash2(byte[] sha1) {
+        return readLong(sha1, 8) | 1;
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = offset; i < offset + 8; i++) {
+            value = (value << 8) | (bytes[i] & 0xFF);
+        }
+        return value;
+    }
+
+    static MappedByteBuffer[] map(FileChannel channel, FileChannel.MapMode mode, long position, long length)
+            throws IOException {
+        int count = (int) ((length + SEGMENT_BYTES - 1) >>> SEGMENT_SHIFT);
+        MappedByteBuffer[] segments = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long start = (long) i << SEGMENT_SHIFT;
+            segments[i] = channel.map(mode, position + start, Math.min(SEGMENT_BYTES, length - start));
+        }
+        return segments;
+    }
+
+    static MessageDigest newSha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+    }
+}
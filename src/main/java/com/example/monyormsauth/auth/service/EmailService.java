@@ -9,6 +9,8 @@ import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -19,9 +21,10 @@ public class EmailService {
      * @param to      Kimə göndəriləcək
      * @param subject Mövzu
      * @param body    HTML və ya plain mətn body
+     * @return mail göndərildikdə tamamlanır, alınmadıqda xəta ilə tamamlanır
      */
     @Async("taskExecutor") // paralel threaddə işləyir, mail gözlətmir
-    public void sendEmail(String to, String subject, String body) {
+    public CompletableFuture<Void> sendEmail(String to, String subject, String body) {
         try {
             MimeMessage message = mailSender.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
@@ -33,6 +36,7 @@ public class EmailService {
             mailSender.send(message);
 
             log.info("Email sent successfully to: {}", to);
+            return CompletableFuture.completedFuture(null);
 
         } catch (MessagingException e) {
             log.error("Failed to send email to {}: {}", to, e.getMessage());
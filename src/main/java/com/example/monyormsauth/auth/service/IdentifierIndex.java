@@ -0,0 +1,237 @@
+package com.example.monyormsauth.auth.service;
+
+import com.example.monyormsauth.auth.event.UserRevocationEvent;
+import com.example.monyormsauth.auth.model.entity.AppUser;
+import com.example.monyormsauth.auth.repository.UserJdbcRepository;
+import com.example.monyormsauth.auth.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory Bloom filter over every username and email, so lookups for names that definitely don't
+ * exist never reach the database. Built by a streaming scan on a background thread at startup (until
+ * then every lookup answers "maybe"), extended on register and rebuilt once deletes have left too
+ * many stale entries or the filter outgrew its capacity.
+ *
+ * <p>Each pod only sees its own registrations, so every {@code identifiers.catchUpIntervalMs} it adds
+ * the users created since its last scan (an index range on {@code created_at}, overlapping the previous
+ * one to catch late commits), and it is fully rebuilt every {@code identifiers.rebuildIntervalMs}. An
+ * "absent" answer is only trusted while the filter has caught up within {@code identifiers.maxAgeMs};
+ * past that, for example while the database is unreachable, every lookup goes to the database. The
+ * public availability check can therefore be wrong about another pod's registration for at most that
+ * long, and register still relies on the unique constraints.
+ */
+@Service
+@Slf4j
+public class IdentifierIndex {
+
+    private static final char USERNAME = 'u';
+    private static final char EMAIL = 'e';
+    // Registrations may commit this long after their created_at (or come from a pod whose clock is behind)
+    private static final long CATCH_UP_OVERLAP_MS = 60_000;
+
+    private final UserRepository userRepository;
+    private final UserJdbcRepository userJdbcRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final long expectedUsers;
+    private final double falsePositiveRate;
+    private final double rebuildStaleRatio;
+    private final long rebuildIntervalMs;
+    private final long catchUpIntervalMs;
+    private final long maxAgeMs;
+
+    private final Counter definitelyAbsent;
+    private final Counter maybePresent;
+
+    private volatile IdentifierBloomFilter filter;
+    private volatile IdentifierBloomFilter building;
+    // Registrations committed on any pod before this instant are in the filter
+    private volatile long freshAsOf;
+    private final AtomicLong staleEntries = new AtomicLong();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final ScheduledExecutorService builder = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "identifier-index-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public IdentifierIndex(UserRepository userRepository,
+                           UserJdbcRepository userJdbcRepository,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${identifiers.enabled:true}") boolean enabled,
+                           @Value("${identifiers.expectedUsers:10000000}") long expectedUsers,
+                           @Value("${identifiers.falsePositiveRate:0.01}") double falsePositiveRate,
+                           @Value("${identifiers.rebuildStaleRatio:0.1}") double rebuildStaleRatio,
+                           @Value("${identifiers.rebuildIntervalMs:900000}") long rebuildIntervalMs,
+                           @Value("${identifiers.catchUpIntervalMs:5000}") long catchUpIntervalMs,
+                           @Value("${identifiers.maxAgeMs:30000}") long maxAgeMs) {
+        this.userRepository = userRepository;
+        this.userJdbcRepository = userJdbcRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.expectedUsers = expectedUsers;
+        this.falsePositiveRate = falsePositiveRate;
+        this.rebuildStaleRatio = rebuildStaleRatio;
+        this.rebuildIntervalMs = rebuildIntervalMs;
+        this.catchUpIntervalMs = catchUpIntervalMs;
+        this.maxAgeMs = maxAgeMs;
+        this.definitelyAbsent = Counter.builder("auth.identifiers.lookups").tag("result", "absent").register(meterRegistry);
+        this.maybePresent = Counter.builder("auth.identifiers.lookups").tag("result", "maybe").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (enabled) {
+            triggerRebuild("startup");
+            if (rebuildIntervalMs > 0) {
+                // Drops deleted users and resets the false positive rate
+                builder.scheduleWithFixedDelay(() -> triggerRebuild("schedule"),
+                        rebuildIntervalMs, rebuildIntervalMs, TimeUnit.MILLISECONDS);
+            }
+            if (catchUpIntervalMs > 0) {
+                // Picks up users registered on other pods
+                builder.scheduleWithFixedDelay(this::catchUp, catchUpIntervalMs, catchUpIntervalMs, TimeUnit.MILLISECONDS);
+            }
+        } else {
+            log.info("Identifier Bloom filter disabled (identifiers.enabled=false)");
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        builder.shutdownNow();
+    }
+
+    /** {@code false} means no user has this username and the database need not be asked. */
+    public boolean mightContainUsername(String username) {
+        return mightContain(USERNAME, username);
+    }
+
+    public boolean mightContainEmail(String email) {
+        return mightContain(EMAIL, email);
+    }
+
+    public boolean isUsernameTaken(String username) {
+        return mightContainUsername(username) && userRepository.existsByUsername(username);
+    }
+
+    public boolean isEmailTaken(String email) {
+        return mightContainEmail(email) && userRepository.existsByEmail(email);
+    }
+
+    /** Call after the user row is committed. */
+    public void add(AppUser user) {
+        // building first: if it is still null here the rebuild scan has not started and will see the row
+        IdentifierBloomFilter next = building;
+        IdentifierBloomFilter current = filter;
+        if (current != null) {
+            add(current, user);
+            if (current.size() > current.capacity()) {
+                triggerRebuild("capacity");
+            }
+        }
+        if (next != null && next != current) {
+            add(next, user);
+        }
+    }
+
+    @EventListener
+    public void onRevocation(UserRevocationEvent event) {
+        if (event.reason() != UserRevocationEvent.Reason.DELETED) {
+            return;
+        }
+        long stale = staleEntries.addAndGet(2L * event.userIds().size());
+        IdentifierBloomFilter current = filter;
+        if (current != null && stale > current.size() * rebuildStaleRatio) {
+            triggerRebuild("deletes");
+        }
+    }
+
+    boolean isBuilt() {
+        return filter != null;
+    }
+
+    // Runs on the builder thread, so never concurrently with a rebuild
+    void catchUp() {
+        IdentifierBloomFilter current = filter;
+        if (current == null) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            userJdbcRepository.streamIdentifiersCreatedSince(Instant.ofEpochMilli(freshAsOf - CATCH_UP_OVERLAP_MS), (username, email) -> {
+                // Most rows of the overlap are already in; adding them again would only inflate size()
+                if (!current.mightContain(USERNAME, username)) {
+                    current.add(USERNAME, username);
+                }
+                if (!current.mightContain(EMAIL, email)) {
+                    current.add(EMAIL, email);
+                }
+            });
+            freshAsOf = start;
+        } catch (RuntimeException e) {
+            log.warn("Identifier Bloom filter catch-up failed, absent answers go to the database after {} ms", maxAgeMs, e);
+        }
+    }
+
+    private boolean mightContain(char namespace, String value) {
+        IdentifierBloomFilter current = filter;
+        if (current == null || value == null || current.mightContain(namespace, value)
+                || System.currentTimeMillis() - freshAsOf > maxAgeMs) {
+            maybePresent.increment();
+            return true;
+        }
+        definitelyAbsent.increment();
+        return false;
+    }
+
+    private void triggerRebuild(String reason) {
+        if (enabled && rebuilding.compareAndSet(false, true)) {
+            builder.execute(() -> rebuild(reason));
+        }
+    }
+
+    void rebuild(String reason) {
+        long start = System.nanoTime();
+        long scanStart = System.currentTimeMillis();
+        try {
+            long users = userRepository.count();
+            // two identifiers per user, with headroom so registrations don't force an early rebuild
+            IdentifierBloomFilter next = new IdentifierBloomFilter(2 * Math.max(expectedUsers, users + users / 2), falsePositiveRate);
+            building = next;
+            long staleBefore = staleEntries.get();
+            readOnlyTransaction.executeWithoutResult(status -> userJdbcRepository.streamIdentifiers((username, email) -> {
+                next.add(USERNAME, username);
+                next.add(EMAIL, email);
+            }));
+            freshAsOf = scanStart;
+            filter = next;
+            staleEntries.addAndGet(-staleBefore);
+            log.info("Identifier Bloom filter built ({}): {} entries, {} MiB, k={} in {} ms",
+                    reason, next.size(), next.bitCount() / 8 / (1 << 20), next.hashCount(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Identifier Bloom filter build failed ({}), keeping the previous one", reason, e);
+        } finally {
+            building = null;
+            rebuilding.set(false);
+        }
+    }
+}
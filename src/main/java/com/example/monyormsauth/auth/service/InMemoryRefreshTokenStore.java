@@ -0,0 +1,392 @@
+package com.example.monyormsauth.auth.service;
+
+import com.example.monyormsauth.auth.event.UserRevocationEvent;
+import com.example.monyormsauth.auth.model.entity.AppUser;
+import com.example.monyormsauth.auth.model.entity.RefreshToken;
+import com.example.monyormsauth.auth.repository.RefreshTokenRepository;
+import com.example.monyormsauth.auth.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Refresh token store that answers every lookup from memory and persists creates and deletes
+ * to the database asynchronously (write-behind). Writes for the same token that happen inside one
+ * durability window are coalesced, e.g. a token created and deleted before the next flush never
+ * reaches the database. Flushes start every {@code refreshToken.durabilityWindowMs}, so a write reaches
+ * the database within that window plus the time one flush takes; that much can be lost on a crash.
+ * While the database is unreachable, failed writes stay queued and are retried with backoff, so an
+ * outage delays writes but only a crash during it loses them.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "refreshToken.store", havingValue = "memory")
+public class InMemoryRefreshTokenStore implements RefreshTokenStore {
+
+    private static final long EXPIRY_SWEEP_INTERVAL_MS = 60_000;
+    private static final long MAX_RETRY_BACKOFF_MS = 30_000;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long durabilityWindowMs;
+    // Expired rows go with their partition (TokenPartitionMaintenance), so sweeps only evict from memory
+    private final boolean partitioned;
+
+    private final Shard[] shards;
+    private final int shardMask;
+    private final Map<Long, Set<String>> tokensByUser = new ConcurrentHashMap<>();
+
+    // Pending writes, drained by the flusher thread
+    private final Map<String, PendingWrite> pendingTokenWrites = new ConcurrentHashMap<>();
+    private final Set<Long> pendingUserDeletes = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "refresh-token-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private long lastExpirySweep = System.currentTimeMillis();
+    // Flusher thread only
+    private int failedFlushes;
+    private long nextFlushAt;
+
+    public InMemoryRefreshTokenStore(RefreshTokenRepository refreshTokenRepository,
+                                     UserRepository userRepository,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${refreshToken.shards:16}") int shardCount,
+                                     @Value("${refreshToken.durabilityWindowMs:200}") long durabilityWindowMs,
+                                     @Value("${tokenPartitions.enabled:false}") boolean partitioned) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.durabilityWindowMs = durabilityWindowMs;
+        this.partitioned = partitioned;
+
+        int size = Integer.highestOneBit(Math.max(1, shardCount - 1) << 1);
+        this.shards = new Shard[size];
+        for (int i = 0; i < size; i++) {
+            shards[i] = new Shard();
+        }
+        this.shardMask = size - 1;
+    }
+
+    @PostConstruct
+    void start() {
+        AtomicInteger loaded = new AtomicInteger();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (var tokens = refreshTokenRepository.streamActive(Instant.now())) {
+                tokens.forEach(view -> {
+                    put(new Entry(view.getToken(), view.getUserId(), view.getExpiryDate()));
+                    loaded.incrementAndGet();
+                });
+            }
+        });
+        log.info("Loaded {} active refresh tokens into memory ({} shards, durability window {} ms)",
+                loaded.get(), shards.length, durabilityWindowMs);
+
+        // Fixed rate: a slow flush does not push every later one back
+        flusher.scheduleAtFixedRate(this::flushSafely, durabilityWindowMs, durabilityWindowMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+        if (!flush()) {
+            log.error("Shutting down with unwritten refresh token writes: {} user deletes, {} token writes",
+                    pendingUserDeletes.size(), pendingTokenWrites.size());
+        }
+    }
+
+    @Override
+    public RefreshToken save(RefreshToken refreshToken) {
+        Entry entry = new Entry(refreshToken.getToken(), refreshToken.getUser().getId(), refreshToken.getExpiryDate());
+        put(entry);
+        pendingTokenWrites.put(entry.token(), PendingWrite.upsert(entry));
+        return refreshToken;
+    }
+
+    @Override
+    public Optional<RefreshToken> findByToken(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(shardFor(token).get(token)).map(Entry::toRefreshToken);
+    }
+
+    @Override
+    public void delete(RefreshToken refreshToken) {
+        Entry removed = shardFor(refreshToken.getToken()).remove(refreshToken.getToken());
+        if (removed != null) {
+            unindex(removed);
+        }
+        queueDelete(refreshToken.getToken());
+    }
+
+    @Override
+    public void deleteByUserId(Long userId) {
+        Set<String> tokens = tokensByUser.remove(userId);
+        if (tokens != null) {
+            for (String token : tokens) {
+                shardFor(token).remove(token);
+                // Tokens that were never flushed simply disappear; the user-wide delete covers the rest
+                pendingTokenWrites.remove(token);
+            }
+        }
+        pendingUserDeletes.add(userId);
+    }
+
+    @Override
+    public void purgeUser(Long userId) {
+        deleteByUserId(userId);
+        pendingUserDeletes.remove(userId);
+        refreshTokenRepository.deleteAllByUserIdIn(List.of(userId));
+    }
+
+    // Bulk deletes remove the rows with plain SQL; only the cached copies and pending writes are left here
+    @EventListener
+    public void onRevocation(UserRevocationEvent event) {
+        if (event.reason() != UserRevocationEvent.Reason.DELETED) {
+            return;
+        }
+        for (Long userId : event.userIds()) {
+            Set<String> tokens = tokensByUser.remove(userId);
+            if (tokens != null) {
+                for (String token : tokens) {
+                    shardFor(token).remove(token);
+                    pendingTokenWrites.remove(token);
+                }
+            }
+            pendingUserDeletes.remove(userId);
+        }
+    }
+
+    private void put(Entry entry) {
+        shardFor(entry.token()).put(entry);
+        tokensByUser.computeIfAbsent(entry.userId(), id -> ConcurrentHashMap.newKeySet()).add(entry.token());
+    }
+
+    private void unindex(Entry entry) {
+        tokensByUser.computeIfPresent(entry.userId(), (id, tokens) -> {
+            tokens.remove(entry.token());
+            return tokens.isEmpty() ? null : tokens;
+        });
+    }
+
+    private void queueDelete(String token) {
+        pendingTokenWrites.compute(token, (key, pending) ->
+                pending != null && pending.upsert() ? null : PendingWrite.DELETE);
+    }
+
+    private Shard shardFor(String token) {
+        int h = token.hashCode();
+        return shards[(h ^ (h >>> 16)) & shardMask];
+    }
+
+    private void flushSafely() {
+        long now = System.currentTimeMillis();
+        if (now < nextFlushAt) {
+            return;
+        }
+        try {
+            if (flush()) {
+                failedFlushes = 0;
+            } else {
+                failedFlushes++;
+                nextFlushAt = now + Math.min(MAX_RETRY_BACKOFF_MS, durabilityWindowMs << Math.min(failedFlushes, 16));
+            }
+            if (System.currentTimeMillis() - lastExpirySweep >= EXPIRY_SWEEP_INTERVAL_MS) {
+                sweepExpired();
+                lastExpirySweep = System.currentTimeMillis();
+            }
+        } catch (RuntimeException e) {
+            log.error("Refresh token flush failed", e);
+        }
+    }
+
+    // Order matters: user-wide deletes first, so tokens created after a logout survive.
+    // Returns false if writes were put back for a retry.
+    boolean flush() {
+        List<Long> userDeletes = new ArrayList<>();
+        for (Long userId : pendingUserDeletes) {
+            if (pendingUserDeletes.remove(userId)) {
+                userDeletes.add(userId);
+            }
+        }
+
+        List<String> tokenDeletes = new ArrayList<>();
+        List<Entry> upserts = new ArrayList<>();
+        for (String token : pendingTokenWrites.keySet()) {
+            PendingWrite write = pendingTokenWrites.remove(token);
+            if (write == null) {
+                continue;
+            }
+            if (write.upsert()) {
+                upserts.add(write.entry());
+            } else {
+                tokenDeletes.add(token);
+            }
+        }
+
+        if (userDeletes.isEmpty() && tokenDeletes.isEmpty() && upserts.isEmpty()) {
+            return true;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(userDeletes, tokenDeletes, upserts));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // One bad row (e.g. a user deleted meanwhile) must not hold up the whole batch
+            log.warn("Batched refresh token flush failed, retrying writes one by one: {}", e.getMessage());
+            boolean written = true;
+            for (Long userId : userDeletes) {
+                written &= persistOrRequeue(List.of(userId), List.of(), List.of());
+            }
+            for (String token : tokenDeletes) {
+                written &= persistOrRequeue(List.of(), List.of(token), List.of());
+            }
+            for (Entry entry : upserts) {
+                written &= persistOrRequeue(List.of(), List.of(), List.of(entry));
+            }
+            return written;
+        } catch (RuntimeException e) {
+            requeue(userDeletes, tokenDeletes, upserts);
+            log.warn("Refresh token flush failed, keeping {} writes for a retry: {}",
+                    userDeletes.size() + tokenDeletes.size() + upserts.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean persistOrRequeue(List<Long> userDeletes, List<String> tokenDeletes, List<Entry> upserts) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(userDeletes, tokenDeletes, upserts));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Can never succeed, e.g. a token of a user that no longer exists
+            log.error("Dropping refresh token write (users={}, deletes={}, upserts={}): {}",
+                    userDeletes, tokenDeletes.size(), upserts.size(), e.getMessage());
+            return true;
+        } catch (RuntimeException e) {
+            requeue(userDeletes, tokenDeletes, upserts);
+            return false;
+        }
+    }
+
+    // Writes queued since the drain are newer and win over the ones put back
+    private void requeue(List<Long> userDeletes, List<String> tokenDeletes, List<Entry> upserts) {
+        pendingUserDeletes.addAll(userDeletes);
+        for (String token : tokenDeletes) {
+            pendingTokenWrites.putIfAbsent(token, PendingWrite.DELETE);
+        }
+        for (Entry entry : upserts) {
+            // A token deleted since (logout, user deletion) is gone from its shard and must stay unwritten
+            pendingTokenWrites.computeIfAbsent(entry.token(),
+                    token -> entry.equals(shardFor(token).get(token)) ? PendingWrite.upsert(entry) : null);
+        }
+    }
+
+    private void persist(List<Long> userDeletes, List<String> tokenDeletes, List<Entry> upserts) {
+        if (!userDeletes.isEmpty()) {
+            refreshTokenRepository.deleteAllByUserIdIn(userDeletes);
+        }
+        if (!tokenDeletes.isEmpty()) {
+            refreshTokenRepository.deleteAllByTokenIn(tokenDeletes);
+        }
+        if (!upserts.isEmpty()) {
+            List<RefreshToken> entities = new ArrayList<>(upserts.size());
+            for (Entry entry : upserts) {
+                entities.add(RefreshToken.builder()
+                        .token(entry.token())
+                        .user(userRepository.getReferenceById(entry.userId()))
+                        .expiryDate(entry.expiryDate())
+                        .build());
+            }
+            refreshTokenRepository.saveAll(entities);
+        }
+    }
+
+    private void sweepExpired() {
+        Instant now = Instant.now();
+        int removed = 0;
+        for (Shard shard : shards) {
+            for (Entry entry : shard.removeExpired(now)) {
+                unindex(entry);
+                if (!partitioned) {
+                    queueDelete(entry.token());
+                }
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            log.debug("Evicted {} expired refresh tokens from memory", removed);
+        }
+    }
+
+    private record Entry(String token, Long userId, Instant expiryDate) {
+
+        RefreshToken toRefreshToken() {
+            return RefreshToken.builder()
+                    .token(token)
+                    .user(AppUser.builder().id(userId).build())
+                    .expiryDate(expiryDate)
+                    .build();
+        }
+    }
+
+    private record PendingWrite(boolean upsert, Entry entry) {
+
+        static final PendingWrite DELETE = new PendingWrite(false, null);
+
+        static PendingWrite upsert(Entry entry) {
+            return new PendingWrite(true, entry);
+        }
+    }
+
+    private static final class Shard {
+        private final Map<String, Entry> tokens = new HashMap<>();
+
+        synchronized Entry get(String token) {
+            return tokens.get(token);
+        }
+
+        synchronized void put(Entry entry) {
+            tokens.put(entry.token(), entry);
+        }
+
+        synchronized Entry remove(String token) {
+            return tokens.remove(token);
+        }
+
+        synchronized List<Entry> removeExpired(Instant now) {
+            List<Entry> expired = new ArrayList<>();
+            tokens.values().removeIf(entry -> {
+                if (entry.expiryDate().isBefore(now)) {
+                    expired.add(entry);
+                    return true;
+                }
+                return false;
+            });
+            return expired;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.monyormsauth.auth.service;
+
+import com.example.monyormsauth.auth.model.entity.RefreshToken;
+import com.example.monyormsauth.auth.repository.RefreshTokenRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "refreshToken.store", havingValue = "jpa", matchIfMissing = true)
+public class JpaRefreshTokenStore implements RefreshTokenStore {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final LegacyTokenCutover legacyTokenCutover;
+
+    @Override
+    public RefreshToken save(RefreshToken refreshToken) {
+        return refreshTokenRepository.save(refreshToken);
+    }
+
+    @Override
+    public Optional<RefreshToken> findByToken(String token) {
+        return refreshTokenRepository.findByToken(token, legacyTokenCutover.unprefixedLookups());
+    }
+
+    @Override
+    public void delete(RefreshToken refreshToken) {
+        refreshTokenRepository.delete(refreshToken);
+    }
+
+    @Override
+    @Transactional
+    public void deleteByUserId(Long userId) {
+        refreshTokenRepository.deleteByUser_Id(userId);
+    }
+
+    @Override
+    @Transactional
+    public void purgeUser(Long userId) {
+        refreshTokenRepository.deleteAllByUserIdIn(List.of(userId));
+    }
+}
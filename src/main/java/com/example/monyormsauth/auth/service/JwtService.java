@@ -1,19 +1,24 @@
 package com.example.monyormsauth.auth.service;
 
+import com.example.monyormsauth.auth.jfr.JwtEvent;
 import com.example.monyormsauth.auth.model.entity.AppUser;
 import com.example.monyormsauth.auth.repository.UserRepository;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
-import java.util.*;
-import java.util.function.Function;
+import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,58 +32,50 @@ public class JwtService {
     @Value("${jwt.expirationMs}")
     private long jwtExpirationMs;
 
-    @Value("${jwt.refreshExpirationMs}")
-    private long refreshExpirationMs;
+    // legacy: sub=username, "roles" siyahısı; compact: v=2, sub=user id, r=rol bitmask
+    @Value("${jwt.claimProfile:legacy}")
+    private String claimProfile;
+
+    // Secret-dən bir dəfə yaradılır, hər token üçün yenidən decode edilmir
+    private Key signKey;
+    private JwtParser jwtParser;
+    private Hs256TokenEncoder tokenEncoder;
+    private boolean compactClaims;
 
     public JwtService(UserRepository userRepository) {
         this.userRepository = userRepository;
     }
 
-
-    // Tokenin içindən istifadəçi adını çıxarır (subject hissəsi)
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    // Tokenin expiration tarixini çıxarır
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    // Tokenin içindən hər hansı bir claim-i çıxarmaq üçün ümumi metod
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    @PostConstruct
+    void init() {
+        byte[] keyBytes = Decoders.BASE64.decode(secret);
+        this.signKey = Keys.hmacShaKeyFor(keyBytes);
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(signKey).build();
+        this.tokenEncoder = new Hs256TokenEncoder(keyBytes);
+        this.compactClaims = switch (claimProfile) {
+            case "legacy" -> false;
+            case "compact" -> true;
+            default -> throw new IllegalStateException("Unknown jwt.claimProfile: " + claimProfile);
+        };
     }
 
     // Tokenin içindəki bütün claim-ləri çıxarır
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignKey())
-                .build()
-                .parseClaimsJws(token.trim())  // <-- burda trim əlavə et
-                .getBody();
-    }
-
-    // Token expiration tarixi keçibsə true qaytarır
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    // Tokenin etibarlılığını yoxlayır (username uyğun gəlir və expiration keçməyib)
-    public boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
-    }
-
-    // UserDetails yoxlaması olmadan tokeni sadəcə sintaktik yoxlayır
-    public boolean validateToken(String token) {
+        JwtEvent event = new JwtEvent();
+        event.begin();
+        String outcome = "ok";
         try {
-            extractAllClaims(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+            return jwtParser
+                    .parseClaimsJws(token.trim())  // <-- burda trim əlavə et
+                    .getBody();
+        } catch (RuntimeException e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            event.operation = "verify";
+            event.tokenLength = token.length();
+            event.outcome = outcome;
+            event.commit();
         }
     }
 
@@ -86,45 +83,66 @@ public class JwtService {
     public String generateToken(String username) {
         AppUser user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        return generateToken(user);
+    }
 
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("roles", user.getRoles().stream()
+    // İstifadəçi artıq yüklənibsə əlavə sorğu olmadan access token yaradır
+    public String generateToken(AppUser user) {
+        long now = System.currentTimeMillis();
+        if (compactClaims) {
+            int roleMask = RoleMask.of(user.getRoles());
+            return sign(() -> tokenEncoder.encodeCompact(user.getId(), roleMask, now, jwtExpirationMs));
+        }
+
+        List<String> roles = user.getRoles().stream()
                 .map(role -> "ROLE_" + role.name())
-                .collect(Collectors.toList()));
+                .collect(Collectors.toList());
 
-        return createToken(claims, username, jwtExpirationMs);
+        return sign(() -> tokenEncoder.encode(user.getUsername(), roles, null, now, jwtExpirationMs, true));
     }
 
-    public List<String> extractRoles(String token) {
+    // Access tokeni bir dəfə parse edir; həm legacy (v1), həm compact (v2) tokenlər qəbul olunur
+    public AccessToken parseAccessToken(String token) {
         Claims claims = extractAllClaims(token);
-        Object rolesObject = claims.get("roles");
-        if (rolesObject instanceof List<?>) {
-            return ((List<?>) rolesObject).stream()
-                    .map(Object::toString)
-                    .collect(Collectors.toList());
+        // ms: iat-ın millisaniyə hissəsi; iatMs bu dəyişiklikdən əvvəl verilmiş tokenlərdədir; heç biri yoxdursa saniyənin əvvəli
+        long issuedAt = claims.getIssuedAt() == null ? 0 : claims.getIssuedAt().getTime();
+        if (claims.get("ms") instanceof Number millis) {
+            issuedAt += millis.longValue();
+        } else if (claims.get("iatMs") instanceof Number millis) {
+            issuedAt = millis.longValue();
+        }
+        long expiresAt = claims.getExpiration() == null ? 0 : claims.getExpiration().getTime() / 1000;
+        Object version = claims.get("v");
+
+        if (version == null) {
+            Object roles = claims.get("roles");
+            List<?> roleList = roles instanceof List<?> list ? list : List.of();
+            int mask = RoleMask.ofAuthorities(roleList);
+            List<GrantedAuthority> authorities = mask >= 0
+                    ? RoleMask.authorities(mask)
+                    : roleList.stream().<GrantedAuthority>map(r -> new SimpleGrantedAuthority(r.toString())).toList();
+            return new AccessToken(1, claims.getSubject(), null, authorities, issuedAt, expiresAt);
         }
-        return Collections.emptyList();
-    }
-
-    // Refresh token yaradır (sadə versiya)
-    public String generateRefreshToken(String username) {
-        return createToken(new HashMap<>(), username, refreshExpirationMs);
-    }
 
-    // Token yaratma prosesi - claim-lər, müddət və imza alqoritmi
-    private String createToken(Map<String, Object> claims, String subject, long expirationMs) {
-        return Jwts.builder()
-                .setClaims(claims)
-                .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expirationMs))
-                .signWith(getSignKey(), SignatureAlgorithm.HS256)
-                .compact();
+        if (version instanceof Number number && number.intValue() == 2 && claims.get("r") instanceof Number roleMask) {
+            String subject = claims.getSubject();
+            try {
+                return new AccessToken(2, subject, Long.valueOf(subject), RoleMask.authorities(roleMask.intValue()), issuedAt, expiresAt);
+            } catch (NumberFormatException e) {
+                throw new MalformedJwtException("Compact token subject is not a user id");
+            }
+        }
+        throw new UnsupportedJwtException("Unsupported token claim version: " + version);
     }
 
-    // Secret string-dən HMAC-SHA imza üçün istifadə olunan Key yaradır
-    private Key getSignKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private String sign(Supplier<String> encoder) {
+        JwtEvent event = new JwtEvent();
+        event.begin();
+        String token = encoder.get();
+        event.operation = "sign";
+        event.tokenLength = token.length();
+        event.outcome = "ok";
+        event.commit();
+        return token;
     }
 }
@@ -0,0 +1,32 @@
+package com.example.monyormsauth.auth.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Decides whether unprefixed (pre-partitioning) tokens are still looked up. They can only be found by
+ * scanning every partition's index, so the lookup is switched off at {@code tokenPartitions.legacyUntil}:
+ * the UTC date by which the last unprefixed token has expired. Left empty, they are looked up forever.
+ */
+@Component
+public class LegacyTokenCutover {
+
+    // null: no cutover configured
+    private final Instant legacyUntil;
+
+    public LegacyTokenCutover(@Value("${tokenPartitions.legacyUntil:}") String legacyUntil) {
+        this.legacyUntil = legacyUntil.isBlank() ? null : LocalDate.parse(legacyUntil.trim()).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    public boolean unprefixedLookups() {
+        return unprefixedLookups(Instant.now());
+    }
+
+    boolean unprefixedLookups(Instant now) {
+        return legacyUntil == null || now.isBefore(legacyUntil);
+    }
+}
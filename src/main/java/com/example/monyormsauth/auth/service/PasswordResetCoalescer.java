@@ -0,0 +1,204 @@
+package com.example.monyormsauth.auth.service;
+
+import com.example.monyormsauth.auth.event.UserRevocationEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Per-account state for forgot-password requests, so that repeated presses neither rewrite the
+ * reset token nor send a mail each time.
+ *
+ * <ul>
+ *   <li>Inside {@code passwordReset.coalesceWindowSeconds} of the last mail a request is {@link Action#SUPPRESS}ed:
+ *   no token write, no mail.</li>
+ *   <li>After the window, while the last token still has {@code reuseMinRemainingSeconds} to live and is still
+ *   usable, the same token is mailed again ({@link Action#RESEND}); the link in the earlier mail keeps working.</li>
+ *   <li>Otherwise a new token is issued ({@link Action#ISSUE}).</li>
+ * </ul>
+ *
+ * Entries are dropped once they can no longer affect a decision, when the password is reset, when the
+ * user is deleted and when the mail could not be sent. The map is capped; above the cap requests for
+ * accounts it does not track are {@link Action#REFUSE}d, since issuing would write a token and send a
+ * mail per request, which is what the cap is there to stop.
+ */
+@Component
+public class PasswordResetCoalescer {
+
+    public enum Action { ISSUE, RESEND, SUPPRESS, REFUSE }
+
+    /** {@code token} is null unless {@link Action#RESEND}; {@code tokenExpiresAt} is null for {@link Action#REFUSE}. */
+    public record Claim(Action action, String token, Instant tokenExpiresAt) {
+    }
+
+    private static final int SWEEP_EVERY = 1024;
+    // A sweep walks the whole map; a full map must not turn every request into one
+    private static final long SWEEP_MIN_INTERVAL_MS = 1000;
+
+    private final ConcurrentMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicInteger sinceSweep = new AtomicInteger();
+    private final AtomicLong lastSweep = new AtomicLong();
+    private final long windowMs;
+    private final long reuseMinRemainingMs;
+    private final long tokenTtlMs;
+    private final int maxEntries;
+    private final Counter issued;
+    private final Counter resent;
+    private final Counter suppressed;
+    private final Counter refused;
+
+    public PasswordResetCoalescer(MeterRegistry meterRegistry,
+                                  @Value("${passwordReset.coalesceWindowSeconds:300}") long windowSeconds,
+                                  @Value("${passwordReset.reuseMinRemainingSeconds:1800}") long reuseMinRemainingSeconds,
+                                  @Value("${passwordReset.maxTrackedAccounts:100000}") int maxEntries) {
+        this.windowMs = windowSeconds * 1000;
+        this.reuseMinRemainingMs = reuseMinRemainingSeconds * 1000;
+        this.tokenTtlMs = PasswordResetTokenService.TOKEN_TTL_SECONDS * 1000;
+        this.maxEntries = maxEntries;
+        this.issued = counter(meterRegistry, "issued");
+        this.resent = counter(meterRegistry, "resent");
+        this.suppressed = counter(meterRegistry, "suppressed");
+        this.refused = counter(meterRegistry, "refused");
+    }
+
+    /**
+     * Decides what a forgot-password request for {@code userId} should do and records it. An {@link Action#ISSUE}
+     * claim must be followed by {@link #issued} once the token exists; if the surrounding transaction rolls
+     * back the claim is dropped again.
+     *
+     * @param tokenUsable whether a token about to be resent still works (it may have been used or purged
+     *                    since it was mailed); called outside any lock, only for a would-be {@link Action#RESEND}
+     */
+    public Claim claim(Long userId, Predicate<String> tokenUsable) {
+        long now = System.currentTimeMillis();
+        maybeSweep(now);
+        if (entries.size() >= maxEntries && !entries.containsKey(userId)) {
+            refused.increment();
+            return new Claim(Action.REFUSE, null, null);
+        }
+
+        Claim claim = decide(userId, now);
+        if (claim.action() == Action.RESEND && !tokenUsable.test(claim.token())) {
+            claim = replace(userId, claim.token(), now);
+        }
+        switch (claim.action()) {
+            case ISSUE -> {
+                issued.increment();
+                forgetOnRollback(userId);
+            }
+            case RESEND -> resent.increment();
+            case SUPPRESS -> suppressed.increment();
+            case REFUSE -> refused.increment();
+        }
+        return claim;
+    }
+
+    private Claim decide(Long userId, long now) {
+        Claim[] result = new Claim[1];
+        entries.compute(userId, (id, entry) -> {
+            if (entry != null && now < entry.windowEndsAt) {
+                result[0] = new Claim(Action.SUPPRESS, null, Instant.ofEpochMilli(entry.tokenExpiresAt));
+                return entry;
+            }
+            String token = entry == null ? null : entry.token;
+            if (token != null && entry.tokenExpiresAt - now >= reuseMinRemainingMs) {
+                result[0] = new Claim(Action.RESEND, token, Instant.ofEpochMilli(entry.tokenExpiresAt));
+                return new Entry(token, entry.tokenExpiresAt, now + windowMs);
+            }
+            // Expiry taken before the token is created, so it never overstates the real one
+            result[0] = new Claim(Action.ISSUE, null, Instant.ofEpochMilli(now + tokenTtlMs));
+            return new Entry(null, now + tokenTtlMs, now + windowMs);
+        });
+        return result[0];
+    }
+
+    // The token to resend no longer works: issue a new one, unless a concurrent request got there first
+    private Claim replace(Long userId, String staleToken, long now) {
+        Claim[] result = new Claim[1];
+        entries.compute(userId, (id, entry) -> {
+            if (entry != null && !staleToken.equals(entry.token)) {
+                result[0] = new Claim(Action.SUPPRESS, null, Instant.ofEpochMilli(entry.tokenExpiresAt));
+                return entry;
+            }
+            result[0] = new Claim(Action.ISSUE, null, Instant.ofEpochMilli(now + tokenTtlMs));
+            return new Entry(null, now + tokenTtlMs, now + windowMs);
+        });
+        return result[0];
+    }
+
+    /** Attaches the token created for an {@link Action#ISSUE} claim, making it available for {@link Action#RESEND}. */
+    public void issued(Long userId, String token) {
+        entries.computeIfPresent(userId, (id, entry) -> entry.token == null
+                ? new Entry(token, entry.tokenExpiresAt, entry.windowEndsAt)
+                : entry);
+    }
+
+    public void forget(Long userId) {
+        entries.remove(userId);
+    }
+
+    @EventListener
+    public void onRevocation(UserRevocationEvent event) {
+        if (event.reason() == UserRevocationEvent.Reason.DELETED) {
+            event.userIds().forEach(entries::remove);
+        }
+    }
+
+    /** Number of accounts currently tracked. */
+    public int size() {
+        return entries.size();
+    }
+
+    private void forgetOnRollback(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    forget(userId);
+                }
+            }
+        });
+    }
+
+    private void maybeSweep(long now) {
+        if (sinceSweep.incrementAndGet() < SWEEP_EVERY && entries.size() < maxEntries) {
+            return;
+        }
+        long last = lastSweep.get();
+        // One thread per interval; the others go on without waiting for it
+        if (now - last < SWEEP_MIN_INTERVAL_MS || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        sinceSweep.set(0);
+        entries.entrySet().removeIf(e -> e.getValue().isDead(now, reuseMinRemainingMs));
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("auth.password_reset.requests")
+                .description("Forgot-password requests by coalescing outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record Entry(String token, long tokenExpiresAt, long windowEndsAt) {
+
+        // Neither suppresses nor can be resent any more
+        boolean isDead(long now, long reuseMinRemainingMs) {
+            return now >= windowEndsAt && (token == null || tokenExpiresAt - now < reuseMinRemainingMs);
+        }
+    }
+}
@@ -1,56 +1,35 @@
 package com.example.monyormsauth.auth.service;
 
-import com.example.monyormsauth.auth.exception.UserNotFoundException;
 import com.example.monyormsauth.auth.model.entity.AppUser;
-import com.example.monyormsauth.auth.model.entity.PasswordResetToken;
-import com.example.monyormsauth.auth.repository.PasswordResetTokenRepository;
-import com.example.monyormsauth.auth.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
-import java.util.Optional;
-import java.util.UUID;
-
+// Tokenin harada saxlandığı passwordReset.mode ilə seçilən PasswordResetTokenStore-dan asılıdır
 @Service
+@RequiredArgsConstructor
 public class PasswordResetTokenService {
 
-    private final PasswordResetTokenRepository tokenRepository;
-    private final UserRepository userRepository;
-
-    public PasswordResetTokenService(PasswordResetTokenRepository tokenRepository, UserRepository userRepository) {
-        this.tokenRepository = tokenRepository;
-        this.userRepository = userRepository;
-    }
-
-
-    public PasswordResetToken createToken(String username) {
-        AppUser user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
-
-        // Əvvəlki token varsa sil
-        tokenRepository.deleteByUser_Id(user.getId());
+    static final long TOKEN_TTL_SECONDS = 3600; // 1 saat müddət
 
-        PasswordResetToken token = PasswordResetToken.builder()
-                .user(user)
-                .token(UUID.randomUUID().toString())
-                .expiryDate(Instant.now().plusSeconds(3600)) // 1 saat müddət
-                .build();
+    private final PasswordResetTokenStore tokenStore;
 
-        return tokenRepository.save(token);
+    // Reset linkinə qoyulacaq token dəyərini qaytarır
+    public String issueToken(AppUser user) {
+        return tokenStore.issue(user);
     }
 
-    public Optional<PasswordResetToken> findByToken(String token) {
-        return tokenRepository.findByToken(token);
+    // Tokeni yoxlayır və aid olduğu istifadəçini qaytarır
+    public AppUser resolveUser(String token) {
+        return tokenStore.resolveUser(token);
     }
 
-    public void verifyExpiration(PasswordResetToken token) {
-        if (token.getExpiryDate().isBefore(Instant.now())) {
-            tokenRepository.delete(token);
-            throw new UserNotFoundException("Password reset token expired");
-        }
+    // Artıq göndərilmiş token yenidən göndərilə bilərmi
+    public boolean isUsable(String token) {
+        return tokenStore.isUsable(token);
     }
 
-    public void deleteByUserId(Long userId) {
-        tokenRepository.deleteByUser_Id(userId);
+    // Token istifadə olunduqdan sonra çağırılır; stateless rejimdə şifrə dəyişdiyi üçün token artıq etibarsızdır
+    public void invalidate(AppUser user) {
+        tokenStore.invalidate(user);
     }
 }
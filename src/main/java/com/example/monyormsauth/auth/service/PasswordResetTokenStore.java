@@ -0,0 +1,26 @@
+package com.example.monyormsauth.auth.service;
+
+import com.example.monyormsauth.auth.model.entity.AppUser;
+
+/**
+ * Where password reset tokens live. The implementation is selected with {@code passwordReset.mode}:
+ * {@code table} (default) keeps one row per user, {@code stateless} signs the token instead and
+ * stores nothing.
+ */
+public interface PasswordResetTokenStore {
+
+    /** Issues a token valid for {@link PasswordResetTokenService#TOKEN_TTL_SECONDS}, replacing the user's previous one. */
+    String issue(AppUser user);
+
+    /**
+     * @return the user the token was issued for
+     * @throws com.example.monyormsauth.auth.exception.UserNotFoundException if the token is unknown, invalid or expired
+     */
+    AppUser resolveUser(String token);
+
+    /** Whether a token issued earlier would still be accepted by {@link #resolveUser}. */
+    boolean isUsable(String token);
+
+    /** Called once the token has been used and the password changed. */
+    void invalidate(AppUser user);
+}
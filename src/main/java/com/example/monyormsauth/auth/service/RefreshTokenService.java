@@ -3,52 +3,64 @@ package com.example.monyormsauth.auth.service;
 import com.example.monyormsauth.auth.exception.UserNotFoundException;
 import com.example.monyormsauth.auth.model.entity.AppUser;
 import com.example.monyormsauth.auth.model.entity.RefreshToken;
-import com.example.monyormsauth.auth.repository.RefreshTokenRepository;
 import com.example.monyormsauth.auth.repository.UserRepository;
+import com.example.monyormsauth.auth.util.TokenPartitions;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.Optional;
-import java.util.UUID;
 
 @Service
 public class RefreshTokenService {
 
-    private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenStore refreshTokenStore;
     private final UserRepository userRepository;
+    private final long refreshExpirationMs;
 
     // Constructor injection
-    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, UserRepository userRepository) {
-        this.refreshTokenRepository = refreshTokenRepository;
+    public RefreshTokenService(RefreshTokenStore refreshTokenStore, UserRepository userRepository,
+                               @Value("${jwt.refreshExpirationMs:604800000}") long refreshExpirationMs) {
+        this.refreshTokenStore = refreshTokenStore;
         this.userRepository = userRepository;
+        this.refreshExpirationMs = refreshExpirationMs;
     }
 
     public RefreshToken createRefreshToken(String username) {
         AppUser user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
+        return createRefreshToken(user);
+    }
 
+    // Login and register already hold the user, so no second lookup
+    public RefreshToken createRefreshToken(AppUser user) {
+        Instant expiryDate = Instant.now().plusMillis(refreshExpirationMs);
         RefreshToken refreshToken = RefreshToken.builder()
                 .user(user)
-                .token(UUID.randomUUID().toString())
-                .expiryDate(Instant.now().plusMillis(604800000)) // 7 gün millisaniyə (7*24*60*60*1000)
+                .token(TokenPartitions.newToken(expiryDate))
+                .expiryDate(expiryDate)
                 .build();
 
-        return refreshTokenRepository.save(refreshToken);
+        return refreshTokenStore.save(refreshToken);
     }
 
     public Optional<RefreshToken> findByToken(String token) {
-        return refreshTokenRepository.findByToken(token);
+        return refreshTokenStore.findByToken(token);
     }
 
     public RefreshToken verifyExpiration(RefreshToken token) {
         if (token.getExpiryDate().isBefore(Instant.now())) {
-            refreshTokenRepository.delete(token);
+            refreshTokenStore.delete(token);
             throw new UserNotFoundException("Refresh token expired. Please login again.");
         }
         return token;
     }
 
     public void deleteByUserId(Long userId) {
-        refreshTokenRepository.deleteByUser_Id(userId);
+        refreshTokenStore.deleteByUserId(userId);
+    }
+
+    public void purgeUser(Long userId) {
+        refreshTokenStore.purgeUser(userId);
     }
 }
@@ -0,0 +1,27 @@
+package com.example.monyormsauth.auth.service;
+
+import com.example.monyormsauth.auth.model.entity.RefreshToken;
+
+import java.util.Optional;
+
+/**
+ * Storage for refresh tokens. The implementation is selected with {@code refreshToken.store}:
+ * {@code jpa} (default) goes straight to the database, {@code memory} serves lookups from a
+ * sharded in-memory map and persists writes in the background.
+ */
+public interface RefreshTokenStore {
+
+    RefreshToken save(RefreshToken refreshToken);
+
+    Optional<RefreshToken> findByToken(String token);
+
+    void delete(RefreshToken refreshToken);
+
+    void deleteByUserId(Long userId);
+
+    /**
+     * Removes the user's tokens from the database before returning, inside the caller's transaction.
+     * Used before the user row itself is deleted.
+     */
+    void purgeUser(Long userId);
+}
@@ -0,0 +1,71 @@
+package com.example.monyormsauth.auth.service;
+
+import com.example.monyormsauth.auth.model.enumerator.ERole;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Role set as a bitmask for the compact token profile: bit {@code n} is {@code ERole.values()[n]}.
+ * New roles must therefore only be appended to {@link ERole}, never reordered.
+ * Authority lists for every possible mask are built once, so the auth filter only indexes an array.
+ */
+public final class RoleMask {
+
+    private static final ERole[] ROLES = ERole.values();
+    private static final List<List<GrantedAuthority>> AUTHORITIES = new ArrayList<>(1 << ROLES.length);
+    private static final Map<String, Integer> BITS_BY_AUTHORITY = new HashMap<>();
+
+    static {
+        for (int mask = 0; mask < 1 << ROLES.length; mask++) {
+            List<GrantedAuthority> authorities = new ArrayList<>(Integer.bitCount(mask));
+            for (ERole role : ROLES) {
+                if ((mask & bit(role)) != 0) {
+                    authorities.add(new SimpleGrantedAuthority("ROLE_" + role.name()));
+                }
+            }
+            AUTHORITIES.add(List.copyOf(authorities));
+        }
+        for (ERole role : ROLES) {
+            BITS_BY_AUTHORITY.put("ROLE_" + role.name(), bit(role));
+        }
+    }
+
+    private RoleMask() {
+    }
+
+    public static int of(Collection<ERole> roles) {
+        int mask = 0;
+        for (ERole role : roles) {
+            mask |= bit(role);
+        }
+        return mask;
+    }
+
+    /** Mask for legacy {@code "ROLE_*"} claim values, or -1 if one of them is not a known role. */
+    public static int ofAuthorities(Collection<?> authorities) {
+        int mask = 0;
+        for (Object authority : authorities) {
+            Integer bit = BITS_BY_AUTHORITY.get(String.valueOf(authority));
+            if (bit == null) {
+                return -1;
+            }
+            mask |= bit;
+        }
+        return mask;
+    }
+
+    /** Shared, immutable authority list for the mask; unknown bits are ignored. */
+    public static List<GrantedAuthority> authorities(int mask) {
+        return AUTHORITIES.get(mask & (AUTHORITIES.size() - 1));
+    }
+
+    private static int bit(ERole role) {
+        return 1 << role.ordinal();
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.monyormsauth.auth.service;
+
+import com.example.monyormsauth.auth.exception.UserNotFoundException;
+import com.example.monyormsauth.auth.model.entity.AppUser;
+import com.example.monyormsauth.auth.repository.UserRepository;
+import io.jsonwebtoken.io.Decoders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Stateless password reset tokens: {@code base64url(userId, expiresAt) + "." + base64url(hmac)}.
+ * The HMAC also covers the user's current password hash, so a token stops working as soon as the
+ * password is changed and needs no table row. Verifying costs one user lookup.
+ */
+@Component
+@ConditionalOnProperty(name = "passwordReset.mode", havingValue = "stateless")
+public class SignedPasswordResetTokens implements PasswordResetTokenStore {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final byte[] PURPOSE = "password-reset".getBytes(StandardCharsets.US_ASCII);
+    private static final int PAYLOAD_LENGTH = 16;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final UserRepository userRepository;
+    private final SecretKeySpec key;
+
+    public SignedPasswordResetTokens(UserRepository userRepository, @Value("${jwt.secret}") String secret) {
+        this.userRepository = userRepository;
+        // Separate key from the JWT signing key, derived from the same secret
+        this.key = new SecretKeySpec(hmac(new SecretKeySpec(Decoders.BASE64.decode(secret), ALGORITHM), PURPOSE), ALGORITHM);
+    }
+
+    @Override
+    public String issue(AppUser user) {
+        return issue(user, Instant.now().plusSeconds(PasswordResetTokenService.TOKEN_TTL_SECONDS));
+    }
+
+    String issue(AppUser user, Instant expiresAt) {
+        byte[] payload = ByteBuffer.allocate(PAYLOAD_LENGTH)
+                .putLong(user.getId())
+                .putLong(expiresAt.getEpochSecond())
+                .array();
+        return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(sign(payload, user.getPassword()));
+    }
+
+    /**
+     * @return the user the token was issued for
+     * @throws UserNotFoundException if the token is malformed, expired, or the password changed since it was issued
+     */
+    @Override
+    public AppUser resolveUser(String token) {
+        int dot = token == null ? -1 : token.indexOf('.');
+        if (dot <= 0) {
+            throw invalid();
+        }
+
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = DECODER.decode(token.substring(0, dot));
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            throw invalid();
+        }
+        if (payload.length != PAYLOAD_LENGTH) {
+            throw invalid();
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        long userId = buffer.getLong();
+        long expiresAt = buffer.getLong();
+        if (expiresAt < Instant.now().getEpochSecond()) {
+            throw new UserNotFoundException("Password reset token expired");
+        }
+
+        AppUser user = userRepository.findById(userId).orElseThrow(SignedPasswordResetTokens::invalid);
+        if (!MessageDigest.isEqual(signature, sign(payload, user.getPassword()))) {
+            throw invalid();
+        }
+        return user;
+    }
+
+    @Override
+    public boolean isUsable(String token) {
+        try {
+            resolveUser(token);
+            return true;
+        } catch (UserNotFoundException e) {
+            return false;
+        }
+    }
+
+    // Nothing to delete: the new password hash no longer matches the signature
+    @Override
+    public void invalidate(AppUser user) {
+    }
+
+    private byte[] sign(byte[] payload, String passwordHash) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            mac.update(payload);
+            mac.update(passwordHash.getBytes(StandardCharsets.UTF_8));
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign password reset token", e);
+        }
+    }
+
+    private static byte[] hmac(SecretKeySpec key, byte[] data) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot derive password reset key", e);
+        }
+    }
+
+    private static UserNotFoundException invalid() {
+        return new UserNotFoundException("Invalid or expired password reset token");
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.monyormsauth.auth.service;
+
+import com.example.monyormsauth.auth.exception.UserNotFoundException;
+import com.example.monyormsauth.auth.model.entity.AppUser;
+import com.example.monyormsauth.auth.model.entity.PasswordResetToken;
+import com.example.monyormsauth.auth.repository.PasswordResetTokenRepository;
+import com.example.monyormsauth.auth.util.TokenPartitions;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "passwordReset.mode", havingValue = "table", matchIfMissing = true)
+public class TablePasswordResetTokenStore implements PasswordResetTokenStore {
+
+    private final PasswordResetTokenRepository tokenRepository;
+    private final LegacyTokenCutover legacyTokenCutover;
+
+    @Override
+    public String issue(AppUser user) {
+        // The previous token, if any, stops working
+        tokenRepository.deleteByUser_Id(user.getId());
+
+        Instant expiryDate = Instant.now().plusSeconds(PasswordResetTokenService.TOKEN_TTL_SECONDS);
+        PasswordResetToken token = PasswordResetToken.builder()
+                .user(user)
+                .token(TokenPartitions.newToken(expiryDate))
+                .expiryDate(expiryDate)
+                .build();
+        return tokenRepository.save(token).getToken();
+    }
+
+    @Override
+    public AppUser resolveUser(String token) {
+        PasswordResetToken resetToken = tokenRepository.findByToken(token, legacyTokenCutover.unprefixedLookups())
+                .orElseThrow(() -> new UserNotFoundException("Invalid or expired password reset token"));
+        if (resetToken.getExpiryDate().isBefore(Instant.now())) {
+            tokenRepository.delete(resetToken);
+            throw new UserNotFoundException("Password reset token expired");
+        }
+        return resetToken.getUser();
+    }
+
+    @Override
+    public boolean isUsable(String token) {
+        return tokenRepository.findByToken(token, legacyTokenCutover.unprefixedLookups())
+                .map(resetToken -> resetToken.getExpiryDate().isAfter(Instant.now()))
+                .orElse(false);
+    }
+
+    @Override
+    public void invalidate(AppUser user) {
+        tokenRepository.deleteByUser_Id(user.getId());
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.monyormsauth.auth.service;
+
+import com.example.monyormsauth.auth.util.TokenPartitions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Keeps the day partitions of the token tables (see {@code db/token-partitions.sql}) ahead of the
+ * longest token lifetime and drops the ones whose tokens have all expired. Expiry costs one
+ * {@code DROP TABLE} per table and day instead of a row delete per token plus vacuum.
+ *
+ * <p>Every pod schedules the job; a session-level advisory lock lets one of them run it at a time and
+ * the others skip. Expired partitions are detached {@code CONCURRENTLY} (PostgreSQL 14+) before the
+ * drop, so token reads and writes on the parent never wait behind an ACCESS EXCLUSIVE lock.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "tokenPartitions.enabled", havingValue = "true")
+public class TokenPartitionMaintenance {
+
+    static final List<String> TABLES = List.of("refresh_token", "password_reset_token");
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+    // pg_try_advisory_lock key, shared by every pod of this service
+    static final long ADVISORY_LOCK_KEY = 0x4D4F4E594F5450L;
+
+    private record Partition(String name, boolean detachPending) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int aheadDays;
+    private final int retainDays;
+
+    public TokenPartitionMaintenance(JdbcTemplate jdbcTemplate,
+                                     @Value("${tokenPartitions.aheadDays:14}") int aheadDays,
+                                     @Value("${tokenPartitions.retainDays:1}") int retainDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.aheadDays = aheadDays;
+        this.retainDays = retainDays;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${tokenPartitions.maintenanceIntervalMs:3600000}")
+    public void maintain() {
+        // The advisory lock belongs to the session, so lock, work and unlock share one connection.
+        // It stays in autocommit: DETACH ... CONCURRENTLY cannot run inside a transaction block.
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                JdbcTemplate session = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+                if (!Boolean.TRUE.equals(session.queryForObject("SELECT pg_try_advisory_lock(?)", Boolean.class, ADVISORY_LOCK_KEY))) {
+                    log.debug("Token partition maintenance is running on another instance, skipping");
+                    return null;
+                }
+                try {
+                    maintain(session, TokenPartitions.day(Instant.now()));
+                } finally {
+                    session.queryForObject("SELECT pg_advisory_unlock(?)", Boolean.class, ADVISORY_LOCK_KEY);
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.error("Token partition maintenance could not run: {}", e.getMessage());
+        }
+    }
+
+    void maintain(JdbcTemplate session, int today) {
+        for (String table : TABLES) {
+            try {
+                createAhead(session, table, today);
+                dropExpired(session, table, today);
+            } catch (RuntimeException e) {
+                // Next run retries; partitions are created two weeks ahead, so a missed run is harmless
+                log.error("Token partition maintenance failed for {}: {}", table, e.getMessage());
+            }
+        }
+    }
+
+    static String partitionName(String table, int day) {
+        return table + "_p" + LocalDate.ofEpochDay(day).format(SUFFIX);
+    }
+
+    private void createAhead(JdbcTemplate session, String table, int today) {
+        for (int day = today; day <= today + aheadDays; day++) {
+            session.execute("CREATE TABLE IF NOT EXISTS " + partitionName(table, day)
+                    + " PARTITION OF " + table + " FOR VALUES FROM (" + day + ") TO (" + (day + 1) + ")");
+        }
+    }
+
+    private void dropExpired(JdbcTemplate session, String table, int today) {
+        List<Partition> partitions = session.query("""
+                SELECT c.relname, i.inhdetachpending FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                JOIN pg_class p ON p.oid = i.inhparent
+                WHERE p.relname = ?
+                """, (rs, rowNum) -> new Partition(rs.getString(1), rs.getBoolean(2)), table);
+
+        String prefix = table + "_p";
+        for (Partition partition : partitions) {
+            if (!partition.name().startsWith(prefix)) {
+                continue; // not one of ours
+            }
+            int day = (int) LocalDate.parse(partition.name().substring(prefix.length()), SUFFIX).toEpochDay();
+            // expiry_day < today means every token in the partition has expired; retainDays covers clock skew
+            if (day < today - retainDays) {
+                // A concurrent detach interrupted by a crash or cancel has to be finalized instead of restarted
+                session.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition.name()
+                        + (partition.detachPending() ? " FINALIZE" : " CONCURRENTLY"));
+                session.execute("DROP TABLE IF EXISTS " + partition.name());
+                log.info("Dropped expired token partition {}", partition.name());
+            }
+        }
+    }
+}
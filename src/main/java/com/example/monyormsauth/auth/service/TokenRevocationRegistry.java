@@ -0,0 +1,106 @@
+package com.example.monyormsauth.auth.service;
+
+import com.example.monyormsauth.auth.event.UserRevocationEvent;
+import com.example.monyormsauth.auth.repository.UserJdbcRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides whether an access token was revoked by a role change or by deleting its user. The source of truth
+ * is {@code app_user.tokens_valid_after}, written in the same transaction as the change, so every pod and
+ * every restart sees it; a deleted user's row is gone, which revokes all their tokens.
+ *
+ * <p>The column is read at most once per user every {@code jwt.revocationCheckIntervalMs} and cached;
+ * that interval is how long another pod may still accept a revoked token. Revocations published on this
+ * pod are applied to the cache right after their commit, and a token minted strictly before that
+ * millisecond is rejected; one minted right after the change, even within the same second, is not.
+ */
+@Component
+public class TokenRevocationRegistry {
+
+    private static final long PURGE_INTERVAL_MS = 60_000;
+    // Cached for users that do not exist (any more): every token is revoked
+    private static final long DELETED = Long.MAX_VALUE;
+
+    private final UserJdbcRepository userJdbcRepository;
+    private final Map<Long, Validity> byUserId = new ConcurrentHashMap<>();
+    private final Map<String, Validity> byUsername = new ConcurrentHashMap<>();
+    private final long checkIntervalMs;
+    private final int maxEntries;
+    private volatile long lastPurge;
+
+    public TokenRevocationRegistry(UserJdbcRepository userJdbcRepository,
+                                   @Value("${jwt.revocationCheckIntervalMs:5000}") long checkIntervalMs,
+                                   @Value("${jwt.revocationCacheSize:100000}") int maxEntries) {
+        this.userJdbcRepository = userJdbcRepository;
+        this.checkIntervalMs = checkIntervalMs;
+        this.maxEntries = maxEntries;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRevocation(UserRevocationEvent event) {
+        long now = System.currentTimeMillis();
+        // As of the commit, not the publish: a token minted while the change was uncommitted saw the old roles
+        long validAfter = event.reason() == UserRevocationEvent.Reason.DELETED
+                ? DELETED
+                : Math.max(event.revokedAt().toEpochMilli(), now);
+        Validity validity = new Validity(validAfter, now);
+        event.userIds().forEach(id -> byUserId.merge(id, validity, Validity::newest));
+        event.usernames().forEach(name -> byUsername.merge(name, validity, Validity::newest));
+    }
+
+    public boolean isRevoked(AccessToken token) {
+        long now = System.currentTimeMillis();
+        long validAfter = token.userId() != null
+                ? validAfter(byUserId, token.userId(), now, userJdbcRepository::findTokensValidAfter)
+                : validAfter(byUsername, token.subject(), now, userJdbcRepository::findTokensValidAfterByUsername);
+        return token.issuedAtEpochMilli() < validAfter;
+    }
+
+    private <K> long validAfter(Map<K, Validity> cache, K key, long now, Lookup<K> lookup) {
+        Validity cached = cache.get(key);
+        if (cached != null && now - cached.checkedAt < checkIntervalMs) {
+            return cached.validAfter;
+        }
+        OptionalLong stored = lookup.find(key);
+        Validity loaded = new Validity(stored.isPresent() ? stored.getAsLong() : DELETED, now);
+        // The row is the truth (a username may belong to a new user by now), unless a local revocation
+        // committed while it was being read
+        Validity merged = cache.compute(key, (k, current) ->
+                current != null && current.checkedAt >= now ? Validity.newest(current, loaded) : loaded);
+        purgeStale(now);
+        return merged.validAfter;
+    }
+
+    private void purgeStale(long now) {
+        if (now - lastPurge < PURGE_INTERVAL_MS && byUserId.size() + byUsername.size() <= maxEntries) {
+            return;
+        }
+        lastPurge = now;
+        // Stale entries are re-read before use anyway
+        long cutoff = now - checkIntervalMs;
+        byUserId.values().removeIf(validity -> validity.checkedAt < cutoff);
+        byUsername.values().removeIf(validity -> validity.checkedAt < cutoff);
+        if (byUserId.size() + byUsername.size() > maxEntries) {
+            byUserId.clear();
+            byUsername.clear();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Lookup<K> {
+        OptionalLong find(K key);
+    }
+
+    private record Validity(long validAfter, long checkedAt) {
+
+        static Validity newest(Validity a, Validity b) {
+            return new Validity(Math.max(a.validAfter, b.validAfter), Math.max(a.checkedAt, b.checkedAt));
+        }
+    }
+}
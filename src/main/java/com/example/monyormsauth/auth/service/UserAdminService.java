@@ -0,0 +1,145 @@
+package com.example.monyormsauth.auth.service;
+
+import com.example.monyormsauth.auth.dto.BulkDeleteRequest;
+import com.example.monyormsauth.auth.dto.BulkResult;
+import com.example.monyormsauth.auth.dto.BulkRoleRequest;
+import com.example.monyormsauth.auth.dto.UserFilter;
+import com.example.monyormsauth.auth.dto.UserPage;
+import com.example.monyormsauth.auth.dto.UserSummary;
+import com.example.monyormsauth.auth.event.UserRevocationEvent;
+import com.example.monyormsauth.auth.repository.UserJdbcRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+@Service
+@Slf4j
+public class UserAdminService {
+
+    private static final int FLUSH_EVERY = 1_000;
+
+    private final UserJdbcRepository userJdbcRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate transaction;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxPageSize;
+    private final int bulkChunkSize;
+
+    public UserAdminService(UserJdbcRepository userJdbcRepository,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${users.maxPageSize:200}") int maxPageSize,
+                            @Value("${users.bulk.chunkSize:500}") int bulkChunkSize) {
+        this.userJdbcRepository = userJdbcRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.maxPageSize = maxPageSize;
+        this.bulkChunkSize = bulkChunkSize;
+    }
+
+    public UserPage listUsers(UserFilter filter, Long after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        // One extra row tells us whether there is a next page without a COUNT(*)
+        List<UserSummary> rows = userJdbcRepository.findPage(filter, after == null ? 0 : after, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<UserSummary> items = hasMore ? rows.subList(0, pageSize) : rows;
+        return UserPage.builder()
+                .items(items)
+                .nextCursor(hasMore ? items.get(items.size() - 1).getId() : null)
+                .build();
+    }
+
+    /** Writes every matching user as one JSON object per line; memory stays flat whatever the row count. */
+    public void exportUsers(UserFilter filter, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        long[] count = {0};
+        try (SequenceWriter writer = objectMapper.writerFor(UserSummary.class)
+                .withRootValueSeparator("\n")
+                .writeValues(out)) {
+            readOnlyTransaction.executeWithoutResult(status -> userJdbcRepository.streamAll(filter, user -> {
+                try {
+                    writer.write(user);
+                    if (++count[0] % FLUSH_EVERY == 0) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+            writer.flush();
+            out.write('\n');
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        log.info("Exported {} users in {} ms", count[0], (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public BulkResult assignRole(BulkRoleRequest request) {
+        BulkResult result = inChunks(request.getIds(), request.getFilter(), UserRevocationEvent.Reason.ROLE_CHANGED,
+                ids -> userJdbcRepository.replaceRoles(ids, request.getRole()));
+        log.info("Bulk role {} assigned to {} users in {} chunks", request.getRole(), result.getAffectedUsers(), result.getChunks());
+        return result;
+    }
+
+    public BulkResult deleteUsers(BulkDeleteRequest request) {
+        BulkResult result = inChunks(request.getIds(), request.getFilter(), UserRevocationEvent.Reason.DELETED,
+                userJdbcRepository::deleteUsers);
+        log.info("Bulk deleted {} users in {} chunks", result.getAffectedUsers(), result.getChunks());
+        return result;
+    }
+
+    // One transaction per chunk keeps locks and undo short; the revocation is published once the chunk committed
+    private BulkResult inChunks(List<Long> ids, UserFilter filter, UserRevocationEvent.Reason reason,
+                                Function<Collection<Long>, Integer> statement) {
+        int affected = 0;
+        int chunks = 0;
+        if (ids != null && !ids.isEmpty()) {
+            List<Long> distinct = ids.stream().distinct().sorted().toList();
+            for (int from = 0; from < distinct.size(); from += bulkChunkSize) {
+                affected += runChunk(distinct.subList(from, Math.min(from + bulkChunkSize, distinct.size())), reason, statement);
+                chunks++;
+            }
+        } else {
+            long after = 0;
+            List<Long> chunk;
+            while (!(chunk = userJdbcRepository.findIds(filter, after, bulkChunkSize)).isEmpty()) {
+                affected += runChunk(chunk, reason, statement);
+                chunks++;
+                after = chunk.get(chunk.size() - 1);
+            }
+        }
+        return BulkResult.builder().affectedUsers(affected).chunks(chunks).build();
+    }
+
+    private int runChunk(List<Long> ids, UserRevocationEvent.Reason reason, Function<Collection<Long>, Integer> statement) {
+        Map<Long, String> users = new HashMap<>();
+        Integer affected = transaction.execute(status -> {
+            users.putAll(userJdbcRepository.lockUsers(ids));
+            return users.isEmpty() ? 0 : statement.apply(users.keySet());
+        });
+        if (!users.isEmpty()) {
+            eventPublisher.publishEvent(new UserRevocationEvent(users.keySet(), users.values(), reason, Instant.now()));
+        }
+        return affected == null ? 0 : affected;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.monyormsauth.auth.service;
 
+import com.example.monyormsauth.auth.exception.StacklessUsernameNotFoundException;
 import com.example.monyormsauth.auth.model.entity.AppUser;
 import com.example.monyormsauth.auth.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -21,7 +22,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     public UserDetails loadUserByUsername(String usernameOrEmail) throws UsernameNotFoundException {
         AppUser user = userRepository.findByUsername(usernameOrEmail)
                 .or(() -> userRepository.findByEmail(usernameOrEmail))
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with username or email: " + usernameOrEmail));
+                .orElseThrow(() -> new StacklessUsernameNotFoundException("User not found with username or email: " + usernameOrEmail));
 
         // Rolları GrantedAuthority formatına çeviririk
         Set<GrantedAuthority> authorities = user.getRoles().stream()
@@ -0,0 +1,16 @@
+package com.example.monyormsauth.auth.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts every statement Hibernate prepares into {@link StatementCounter}; the SQL is left unchanged.
+ * Plain JdbcTemplate queries (UserJdbcRepository) bypass Hibernate and are not counted.
+ */
+public class CountingStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        StatementCounter.increment();
+        return sql;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.monyormsauth.auth.sql;
+
+/**
+ * Per-thread count of SQL statements prepared by Hibernate while a request is being served.
+ * Counting is off (and free) on threads where {@link #start()} was not called.
+ */
+public final class StatementCounter {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    private StatementCounter() {
+    }
+
+    public static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    /** Statements counted since {@link #start()}, or -1 when counting is off on this thread. */
+    public static int current() {
+        int[] count = COUNT.get();
+        return count == null ? -1 : count[0];
+    }
+
+    /** Stops counting and returns the final count. */
+    public static int stop() {
+        int count = current();
+        COUNT.remove();
+        return count;
+    }
+
+    static void increment() {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.monyormsauth.auth.util;
+
+import java.util.Arrays;
+
+/**
+ * Count-min sketch with conservative update: fixed memory ({@code depth * width} ints) and estimates
+ * that may overcount, never undercount. Not thread-safe; {@link HeavyHitterTracker} guards it.
+ */
+public final class CountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final int[] counts;
+
+    /** {@code width} is rounded up to a power of two. */
+    public CountMinSketch(int depth, int width) {
+        int w = Integer.highestOneBit(Math.max(2, width - 1) << 1);
+        this.depth = depth;
+        this.mask = w - 1;
+        this.counts = new int[depth * w];
+    }
+
+    /** Adds {@code amount} for the key hash and returns the new estimate. */
+    public int add(long hash, int amount) {
+        int estimate = estimate(hash);
+        int target = estimate > Integer.MAX_VALUE - amount ? Integer.MAX_VALUE : estimate + amount;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        // Conservative update: only raise counters that are below the new estimate
+        for (int row = 0; row < depth; row++) {
+            int index = row * (mask + 1) + ((h1 + row * h2) & mask);
+            if (counts[index] < target) {
+                counts[index] = target;
+            }
+        }
+        return target;
+    }
+
+    public int estimate(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counts[row * (mask + 1) + ((h1 + row * h2) & mask)]);
+        }
+        return min;
+    }
+
+    /** Counters per row, after rounding. */
+    public int width() {
+        return mask + 1;
+    }
+
+    public void clear() {
+        Arrays.fill(counts, 0);
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.monyormsauth.auth.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streaming top-K over a sliding time window in fixed memory. The window is split into buckets, each
+ * with its own {@link CountMinSketch} and at most {@code k} candidate keys (the bucket's largest
+ * estimates). Expired buckets are cleared as time moves on, so counts and candidates slide with the
+ * window and memory never grows with the number of distinct keys.
+ */
+public final class HeavyHitterTracker {
+
+    public record HeavyHitter(String key, long count) {
+    }
+
+    private final long bucketMillis;
+    private final int k;
+    private final CountMinSketch[] sketches;
+    private final long[] totals;
+    private final List<Map<String, Integer>> candidates;
+    private long currentBucket;
+
+    public HeavyHitterTracker(long windowMillis, int buckets, int k, int sketchDepth, int sketchWidth) {
+        this.bucketMillis = Math.max(1, windowMillis / buckets);
+        this.k = k;
+        this.sketches = new CountMinSketch[buckets];
+        this.totals = new long[buckets];
+        this.candidates = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            sketches[i] = new CountMinSketch(sketchDepth, sketchWidth);
+            candidates.add(new HashMap<>(k * 2));
+        }
+    }
+
+    /** Counts one event for {@code key} and returns its estimated count over the window. */
+    public synchronized long record(String key, long nowMillis) {
+        advance(nowMillis);
+        int slot = slot(currentBucket);
+        long hash = hash(key);
+        int bucketCount = sketches[slot].add(hash, 1);
+        totals[slot]++;
+        offer(candidates.get(slot), key, bucketCount);
+        return windowEstimate(hash);
+    }
+
+    public synchronized long estimate(String key, long nowMillis) {
+        advance(nowMillis);
+        return windowEstimate(hash(key));
+    }
+
+    /**
+     * How far {@link #estimate} may exceed a key's true count: the count-min bound of e/width of the
+     * events in the window, which holds for any one key with probability 1 - e^-depth. Grows with the
+     * traffic, so it is large exactly when many distinct keys are being sprayed.
+     */
+    public synchronized long overcountBound(long nowMillis) {
+        advance(nowMillis);
+        long total = 0;
+        for (long bucketTotal : totals) {
+            total += bucketTotal;
+        }
+        return (long) Math.ceil(Math.E * total / sketches[0].width());
+    }
+
+    /** Whether the key is currently among the top-k candidates of any bucket in the window. */
+    public synchronized boolean isCandidate(String key, long nowMillis) {
+        advance(nowMillis);
+        for (Map<String, Integer> bucket : candidates) {
+            if (bucket.containsKey(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized List<HeavyHitter> top(int limit, long nowMillis) {
+        advance(nowMillis);
+        Set<String> keys = new HashSet<>();
+        candidates.forEach(bucket -> keys.addAll(bucket.keySet()));
+        List<HeavyHitter> hitters = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            hitters.add(new HeavyHitter(key, windowEstimate(hash(key))));
+        }
+        hitters.sort(Comparator.comparingLong(HeavyHitter::count).reversed());
+        return hitters.size() > limit ? new ArrayList<>(hitters.subList(0, limit)) : hitters;
+    }
+
+    public long windowMillis() {
+        return bucketMillis * sketches.length;
+    }
+
+    private void offer(Map<String, Integer> bucket, String key, int count) {
+        if (bucket.containsKey(key) || bucket.size() < k) {
+            bucket.put(key, count);
+            return;
+        }
+        // k is small (tens), a linear scan for the minimum is cheaper than keeping a heap in sync
+        String minKey = null;
+        int min = Integer.MAX_VALUE;
+        for (Map.Entry<String, Integer> entry : bucket.entrySet()) {
+            if (entry.getValue() < min) {
+                min = entry.getValue();
+                minKey = entry.getKey();
+            }
+        }
+        if (count > min) {
+            bucket.remove(minKey);
+            bucket.put(key, count);
+        }
+    }
+
+    private long windowEstimate(long hash) {
+        long total = 0;
+        for (CountMinSketch sketch : sketches) {
+            total += sketch.estimate(hash);
+        }
+        return total;
+    }
+
+    private void advance(long nowMillis) {
+        long bucket = nowMillis / bucketMillis;
+        if (bucket <= currentBucket) {
+            return;
+        }
+        long steps = Math.min(bucket - currentBucket, sketches.length);
+        for (long i = 1; i <= steps; i++) {
+            int slot = slot(currentBucket + i);
+            sketches[slot].clear();
+            totals[slot] = 0;
+            candidates.get(slot).clear();
+        }
+        currentBucket = bucket;
+    }
+
+    private int slot(long bucket) {
+        return (int) (bucket % sketches.length);
+    }
+
+    private static long hash(String key) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
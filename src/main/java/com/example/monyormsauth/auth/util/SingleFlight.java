@@ -0,0 +1,81 @@
+package com.example.monyormsauth.auth.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Merges concurrent calls for the same key into one computation whose result every caller shares.
+ * A successful result is also handed to callers arriving up to {@code windowMs} after it completed;
+ * failures are shared only with callers already waiting, the next call retries. Results that must not
+ * outlive a state change (logout, revocation) are dropped with {@link #evict} / {@link #evictIf}.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+    private final long windowMs;
+
+    public SingleFlight(long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    public V execute(K key, Supplier<V> computation) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = calls.putIfAbsent(key, call);
+        if (existing != null) {
+            return join(existing);
+        }
+
+        try {
+            V value = computation.get();
+            call.complete(value);
+            if (windowMs > 0) {
+                CompletableFuture.delayedExecutor(windowMs, TimeUnit.MILLISECONDS).execute(() -> calls.remove(key, call));
+            } else {
+                calls.remove(key, call);
+            }
+            return value;
+        } catch (RuntimeException | Error e) {
+            calls.remove(key, call);
+            call.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /** Forgets the call for {@code key}, in flight or completed; callers already waiting still share it. */
+    public void evict(K key) {
+        calls.remove(key);
+    }
+
+    /**
+     * Forgets every completed result matching {@code predicate}, plus every call still in flight, whose
+     * result is not known yet. Callers already waiting still share those; the next caller computes afresh.
+     */
+    public void evictIf(Predicate<? super V> predicate) {
+        calls.values().removeIf(call -> !call.isDone()
+                || (!call.isCompletedExceptionally() && predicate.test(call.getNow(null))));
+    }
+
+    /** Number of keys currently in flight or inside their reuse window. */
+    public int size() {
+        return calls.size();
+    }
+
+    private static <V> V join(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.monyormsauth.auth.util;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Partition key of the token tables: the UTC day a token expires, as days since the epoch. It is
+ * embedded in the token value ({@code "<day>.<uuid>"}), so a lookup by token goes straight to one
+ * partition's unique index. Tokens issued before partitioning carry no prefix.
+ */
+public final class TokenPartitions {
+
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private TokenPartitions() {
+    }
+
+    public static int day(Instant expiry) {
+        return (int) Math.floorDiv(expiry.getEpochSecond(), SECONDS_PER_DAY);
+    }
+
+    public static String newToken(Instant expiry) {
+        return prefixed(day(expiry), UUID.randomUUID().toString());
+    }
+
+    public static String prefixed(int day, String value) {
+        return day + "." + value;
+    }
+
+    /** The day embedded in {@code token}, or -1 for an unprefixed (pre-partitioning) token. */
+    public static int dayOf(String token) {
+        if (token == null) {
+            return -1;
+        }
+        int dot = token.indexOf('.');
+        // Today is a 5 digit day, 6 digits last until the year 4707
+        if (dot < 1 || dot > 6) {
+            return -1;
+        }
+        int day = 0;
+        for (int i = 0; i < dot; i++) {
+            char c = token.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            day = day * 10 + (c - '0');
+        }
+        return day;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.monyormsauth.auth.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The password must satisfy the {@code passwordPolicy.*} rules and, unless disabled, must not appear
+ * in the breached-password corpus. For new passwords only; logins just cap the length.
+ */
+@Documented
+@Constraint(validatedBy = PasswordPolicyValidator.class)
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PasswordPolicy {
+
+    /** Upper bound for {@code passwordPolicy.maxLength}, also the length cap on login requests. */
+    int MAX_LENGTH = 128;
+
+    String message() default "Password does not meet the password policy.";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,69 @@
+package com.example.monyormsauth.auth.validation;
+
+import com.example.monyormsauth.auth.service.BreachedPasswordChecker;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+public class PasswordPolicyValidator implements ConstraintValidator<PasswordPolicy, String> {
+
+    private static final String BREACHED_MESSAGE =
+            "This password has appeared in a data breach. Please choose a different password.";
+
+    private final PasswordRules rules;
+    private final BreachedPasswordChecker breachedPasswordChecker;
+    private final boolean checkBreached;
+    // Message templates per violation, built once; special characters may contain template syntax
+    private final Map<PasswordRules.Violation, String> messages = new EnumMap<>(PasswordRules.Violation.class);
+
+    public PasswordPolicyValidator(BreachedPasswordChecker breachedPasswordChecker,
+                                   @Value("${passwordPolicy.minLength:8}") int minLength,
+                                   @Value("${passwordPolicy.maxLength:128}") int maxLength,
+                                   @Value("${passwordPolicy.requireLowercase:true}") boolean requireLowercase,
+                                   @Value("${passwordPolicy.requireUppercase:true}") boolean requireUppercase,
+                                   @Value("${passwordPolicy.requireDigit:true}") boolean requireDigit,
+                                   @Value("${passwordPolicy.requireSpecial:true}") boolean requireSpecial,
+                                   @Value("${passwordPolicy.specialCharacters:!@#$%^&*()_+}") String specialCharacters,
+                                   @Value("${passwordPolicy.allowOtherCharacters:false}") boolean allowOtherCharacters,
+                                   @Value("${passwordPolicy.checkBreached:true}") boolean checkBreached) {
+        if (maxLength > PasswordPolicy.MAX_LENGTH) {
+            throw new IllegalArgumentException("passwordPolicy.maxLength must not exceed " + PasswordPolicy.MAX_LENGTH);
+        }
+        this.rules = new PasswordRules(minLength, maxLength, requireLowercase, requireUppercase,
+                requireDigit, requireSpecial, specialCharacters, allowOtherCharacters);
+        this.breachedPasswordChecker = breachedPasswordChecker;
+        this.checkBreached = checkBreached;
+        for (PasswordRules.Violation violation : PasswordRules.Violation.values()) {
+            messages.put(violation, escape(rules.describe(violation)));
+        }
+    }
+
+    @Override
+    public boolean isValid(String value, ConstraintValidatorContext context) {
+        if (value == null) {
+            return true;
+        }
+        PasswordRules.Violation violation = rules.check(value);
+        if (violation != null) {
+            reject(context, messages.get(violation));
+            return false;
+        }
+        if (checkBreached && breachedPasswordChecker.isBreached(value)) {
+            reject(context, BREACHED_MESSAGE);
+            return false;
+        }
+        return true;
+    }
+
+    private static void reject(ConstraintValidatorContext context, String template) {
+        context.disableDefaultConstraintViolation();
+        context.buildConstraintViolationWithTemplate(template).addConstraintViolation();
+    }
+
+    private static String escape(String message) {
+        return message.replace("\\", "\\\\").replace("{", "\\{").replace("}", "\\}").replace("$", "\\$");
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.monyormsauth.auth.validation;
+
+/**
+ * Password composition rules, checked in one pass over the characters without allocating.
+ * The length cap is checked first, so oversized input is rejected without being scanned.
+ */
+public final class PasswordRules {
+
+    public enum Violation {
+        TOO_LONG, TOO_SHORT, INVALID_CHARACTER, NO_LOWERCASE, NO_UPPERCASE, NO_DIGIT, NO_SPECIAL
+    }
+
+    private static final int LOWERCASE = 1;
+    private static final int UPPERCASE = 1 << 1;
+    private static final int DIGIT = 1 << 2;
+    private static final int SPECIAL = 1 << 3;
+
+    private final int minLength;
+    private final int maxLength;
+    private final int required;
+    private final String specialCharacters;
+    // Bit set over ASCII, one bit per special character
+    private final long[] special = new long[2];
+    private final boolean allowOtherCharacters;
+
+    public PasswordRules(int minLength, int maxLength,
+                         boolean requireLowercase, boolean requireUppercase,
+                         boolean requireDigit, boolean requireSpecial,
+                         String specialCharacters, boolean allowOtherCharacters) {
+        if (minLength < 0 || maxLength < minLength) {
+            throw new IllegalArgumentException("Invalid password length range " + minLength + ".." + maxLength);
+        }
+        for (int i = 0; i < specialCharacters.length(); i++) {
+            char c = specialCharacters.charAt(i);
+            if (c >= 128 || Character.isLetterOrDigit(c)) {
+                throw new IllegalArgumentException("Special characters must be ASCII symbols, got '" + c + "'");
+            }
+            special[c >>> 6] |= 1L << c;
+        }
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.required = (requireLowercase ? LOWERCASE : 0) | (requireUppercase ? UPPERCASE : 0)
+                | (requireDigit ? DIGIT : 0) | (requireSpecial ? SPECIAL : 0);
+        this.specialCharacters = specialCharacters;
+        this.allowOtherCharacters = allowOtherCharacters;
+    }
+
+    /** Returns the first rule the password breaks, or null if it satisfies all of them. */
+    public Violation check(CharSequence password) {
+        int length = password.length();
+        if (length > maxLength) {
+            return Violation.TOO_LONG;
+        }
+        if (length < minLength) {
+            return Violation.TOO_SHORT;
+        }
+
+        int seen = 0;
+        for (int i = 0; i < length; i++) {
+            char c = password.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                seen |= LOWERCASE;
+            } else if (c >= 'A' && c <= 'Z') {
+                seen |= UPPERCASE;
+            } else if (c >= '0' && c <= '9') {
+                seen |= DIGIT;
+            } else if (c < 128 && (special[c >>> 6] & (1L << c)) != 0) {
+                seen |= SPECIAL;
+            } else if (!allowOtherCharacters) {
+                return Violation.INVALID_CHARACTER;
+            }
+        }
+
+        int missing = required & ~seen;
+        if (missing == 0) {
+            return null;
+        }
+        if ((missing & LOWERCASE) != 0) {
+            return Violation.NO_LOWERCASE;
+        }
+        if ((missing & UPPERCASE) != 0) {
+            return Violation.NO_UPPERCASE;
+        }
+        return (missing & DIGIT) != 0 ? Violation.NO_DIGIT : Violation.NO_SPECIAL;
+    }
+
+    /** User-facing description of a violation. */
+    public String describe(Violation violation) {
+        return switch (violation) {
+            case TOO_LONG -> "Password must be at most " + maxLength + " characters long.";
+            case TOO_SHORT -> "Password must be at least " + minLength + " characters long.";
+            case INVALID_CHARACTER -> "Password may only contain letters, digits and " + specialCharacters + ".";
+            case NO_LOWERCASE -> "Password must contain a lowercase letter.";
+            case NO_UPPERCASE -> "Password must contain an uppercase letter.";
+            case NO_DIGIT -> "Password must contain a digit.";
+            case NO_SPECIAL -> "Password must contain a special character (" + specialCharacters + ").";
+        };
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.monyormsauth.auth.warmup;
+
+import com.example.monyormsauth.auth.model.entity.AppUser;
+import com.example.monyormsauth.auth.model.enumerator.ERole;
+import com.example.monyormsauth.auth.repository.UserRepository;
+import com.example.monyormsauth.auth.service.AbuseMonitor;
+import com.example.monyormsauth.auth.service.JwtService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Exercises the hot paths once at startup so the first real requests don't run on cold JIT code:
+ * token sign/verify, the HTTP + security filter chain, bcrypt and the UserRepository lookups.
+ *
+ * <p>ApplicationRunners finish before Spring Boot publishes {@code ReadinessState.ACCEPTING_TRAFFIC},
+ * so {@code /actuator/health/readiness} stays DOWN until this returns. Only a throwaway principal is
+ * used; nothing is written to the database, and its failed logins are excluded from {@link AbuseMonitor}.
+ * Failures are logged and never block startup.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class WarmupRunner implements ApplicationRunner {
+
+    private final JwtService jwtService;
+    private final PasswordEncoder passwordEncoder;
+    private final UserRepository userRepository;
+    private final AbuseMonitor abuseMonitor;
+    private final Environment environment;
+
+    private final int tokenIterations;
+    private final int httpRequests;
+    private final int passwordMatches;
+    private final int repositoryCalls;
+    private final long maxDurationMs;
+
+    public WarmupRunner(JwtService jwtService,
+                        PasswordEncoder passwordEncoder,
+                        UserRepository userRepository,
+                        AbuseMonitor abuseMonitor,
+                        Environment environment,
+                        @Value("${warmup.tokenIterations:5000}") int tokenIterations,
+                        @Value("${warmup.httpRequests:500}") int httpRequests,
+                        @Value("${warmup.passwordMatches:20}") int passwordMatches,
+                        @Value("${warmup.repositoryCalls:300}") int repositoryCalls,
+                        @Value("${warmup.maxDurationMs:20000}") long maxDurationMs) {
+        this.jwtService = jwtService;
+        this.passwordEncoder = passwordEncoder;
+        this.userRepository = userRepository;
+        this.abuseMonitor = abuseMonitor;
+        this.environment = environment;
+        this.tokenIterations = tokenIterations;
+        this.httpRequests = httpRequests;
+        this.passwordMatches = passwordMatches;
+        this.repositoryCalls = repositoryCalls;
+        this.maxDurationMs = maxDurationMs;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        long deadline = start + maxDurationMs * 1_000_000;
+
+        String name = "warmup-" + UUID.randomUUID();
+        AppUser principal = AppUser.builder()
+                .id(-1L)
+                .username(name)
+                .email(name + "@warmup.invalid")
+                .roles(Set.of(ERole.USER))
+                .build();
+        String token = jwtService.generateToken(principal);
+
+        stage("jwt sign/verify", tokenIterations, deadline, () -> jwtService.parseAccessToken(jwtService.generateToken(principal)));
+
+        String hash = passwordEncoder.encode(name);
+        stage("password match", passwordMatches, deadline, () -> passwordEncoder.matches(name, hash));
+
+        stage("user repository", repositoryCalls, deadline, () -> {
+            userRepository.findByUsername(name);
+            userRepository.findByEmail(principal.getEmail());
+            userRepository.findById(principal.getId());
+            userRepository.existsById(principal.getId());
+        });
+
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        if (port != null) {
+            abuseMonitor.exclude(name);
+            try {
+                warmHttp(port, name, token, deadline);
+            } finally {
+                abuseMonitor.include(name);
+            }
+        }
+
+        log.info("Warm-up finished in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Goes through Tomcat, the filter chain (incl. JwtAuthFilter), Jackson, validation and the error handler
+    private void warmHttp(int port, String name, String token, long deadline) {
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+        String base = "http://127.0.0.1:" + port + "/api/auth";
+        HttpRequest exists = HttpRequest.newBuilder(URI.create(base + "/users/-1/exists"))
+                .header("Authorization", "Bearer " + token)
+                .GET().build();
+        HttpRequest role = HttpRequest.newBuilder(URI.create(base + "/users/-1/role"))
+                .header("Authorization", "Bearer " + token)
+                .GET().build();
+        HttpRequest login = HttpRequest.newBuilder(URI.create(base + "/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"identifier\":\"" + name + "\",\"password\":\"warmup\"}"))
+                .build();
+        // Logins are a small share; they fail, but the principal is excluded from AbuseMonitor for the run
+        HttpRequest[] requests = {exists, role, exists, role, exists, role, exists, login};
+
+        int[] next = {0};
+        stage("http", httpRequests, deadline, () -> http.send(requests[next[0]++ % requests.length], HttpResponse.BodyHandlers.discarding()));
+    }
+
+    private void stage(String label, int iterations, long deadline, Step step) {
+        long start = System.nanoTime();
+        int completed = 0;
+        try {
+            while (completed < iterations && System.nanoTime() < deadline) {
+                step.run();
+                completed++;
+            }
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.warn("Warm-up stage '{}' stopped after {} iterations: {}", label, completed, e.toString());
+        }
+        long elapsed = System.nanoTime() - start;
+        log.info("Warm-up {}: {} iterations in {} ms ({} ops/s)",
+                label, completed, elapsed / 1_000_000, elapsed == 0 ? 0 : Math.round(completed * 1e9 / elapsed));
+    }
+
+    @FunctionalInterface
+    private interface Step {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,87 @@
+-- Day-partitioned token tables. Rows are ranged by expiry_day (UTC days since the epoch), which is
+-- also the prefix of every new token value (TokenPartitions), so a lookup by token prunes to one
+-- partition and expiry is a DETACH CONCURRENTLY + DROP TABLE per day (TokenPartitionMaintenance)
+-- instead of row deletes.
+-- Hibernate (ddl-auto=update) cannot create partitioned tables.
+-- Apply once per database in a maintenance window (PostgreSQL 14+ for DETACH PARTITION CONCURRENTLY), then set tokenPartitions.enabled=true.
+-- Unexpired tokens are copied over and keep their values; expired ones are left behind.
+-- Copied tokens have no day prefix; set tokenPartitions.legacyUntil to today plus the refresh token lifetime
+-- so lookups stop searching every partition for them once they have all expired.
+
+BEGIN;
+
+CREATE FUNCTION pg_temp.create_token_partitions(parent text, from_day int, to_day int) RETURNS void AS $$
+BEGIN
+    FOR d IN from_day..to_day LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF %I FOR VALUES FROM (%s) TO (%s)',
+                       parent || '_p' || to_char(date '1970-01-01' + d, 'YYYYMMDD'), parent, d, d + 1);
+    END LOOP;
+END
+$$ LANGUAGE plpgsql;
+
+-- refresh_token
+
+ALTER TABLE refresh_token RENAME TO refresh_token_unpartitioned;
+
+-- Unique and primary keys of a partitioned table must contain the partition key,
+-- so user_id is no longer unique (RefreshToken.user is a many-to-one)
+CREATE TABLE refresh_token (
+    id          bigint GENERATED BY DEFAULT AS IDENTITY,
+    token       varchar(255) NOT NULL,
+    user_id     bigint REFERENCES app_user (id),
+    expiry_date timestamp(6) with time zone NOT NULL,
+    expiry_day  integer NOT NULL,
+    PRIMARY KEY (id, expiry_day),
+    UNIQUE (token, expiry_day)
+) PARTITION BY RANGE (expiry_day);
+
+-- logout and user deletion delete by user
+CREATE INDEX idx_refresh_token_user_id ON refresh_token (user_id);
+
+SELECT pg_temp.create_token_partitions('refresh_token',
+        (floor(extract(epoch FROM now()) / 86400))::int,
+        greatest((floor(extract(epoch FROM now()) / 86400))::int + 14,
+                 coalesce((SELECT (floor(extract(epoch FROM max(expiry_date)) / 86400))::int
+                           FROM refresh_token_unpartitioned), 0)));
+
+INSERT INTO refresh_token (id, token, user_id, expiry_date, expiry_day)
+SELECT id, token, user_id, expiry_date, (floor(extract(epoch FROM expiry_date) / 86400))::int
+FROM refresh_token_unpartitioned
+WHERE expiry_date > now();
+
+SELECT setval(pg_get_serial_sequence('refresh_token', 'id'),
+              coalesce((SELECT max(id) FROM refresh_token_unpartitioned), 0) + 1, false);
+
+DROP TABLE refresh_token_unpartitioned;
+
+-- password_reset_token
+
+ALTER TABLE password_reset_token RENAME TO password_reset_token_unpartitioned;
+
+CREATE TABLE password_reset_token (
+    id          bigint GENERATED BY DEFAULT AS IDENTITY,
+    token       varchar(255) NOT NULL,
+    user_id     bigint REFERENCES app_user (id),
+    expiry_date timestamp(6) with time zone NOT NULL,
+    expiry_day  integer NOT NULL,
+    PRIMARY KEY (id, expiry_day),
+    UNIQUE (token, expiry_day)
+) PARTITION BY RANGE (expiry_day);
+
+CREATE INDEX idx_password_reset_token_user_id ON password_reset_token (user_id);
+
+SELECT pg_temp.create_token_partitions('password_reset_token',
+        (floor(extract(epoch FROM now()) / 86400))::int,
+        (floor(extract(epoch FROM now()) / 86400))::int + 14);
+
+INSERT INTO password_reset_token (id, token, user_id, expiry_date, expiry_day)
+SELECT id, token, user_id, expiry_date, (floor(extract(epoch FROM expiry_date) / 86400))::int
+FROM password_reset_token_unpartitioned
+WHERE expiry_date > now();
+
+SELECT setval(pg_get_serial_sequence('password_reset_token', 'id'),
+              coalesce((SELECT max(id) FROM password_reset_token_unpartitioned), 0) + 1, false);
+
+DROP TABLE password_reset_token_unpartitioned;
+
+COMMIT;
@@ -0,0 +1,10 @@
+-- Indexes for the admin user listing/export (UserJdbcRepository). Hibernate (ddl-auto=update)
+-- creates app_user.created_at and idx_app_user_created_at_id; these it cannot express.
+-- Apply once per database, CONCURRENTLY so the table stays writable.
+
+-- LIKE 'prefix%' can only use a btree with pattern ops under a non-C collation
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_app_user_username_prefix ON app_user (username text_pattern_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_app_user_email_prefix ON app_user (email text_pattern_ops);
+
+-- role filter: EXISTS (... WHERE user_id = u.id AND role = ?)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_roles_role_user ON user_roles (role, user_id);
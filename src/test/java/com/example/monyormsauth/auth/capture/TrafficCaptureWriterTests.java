@@ -0,0 +1,74 @@
+package com.example.monyormsauth.auth.capture;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrafficCaptureWriterTests {
+
+    // 12 bytes each: code, start, duration, status (2), flags, subject (4), requestBytes, detail
+    private static final TrafficRecord RECORD = new TrafficRecord(CapturedEndpoint.LOGIN, 1, 2, 200,
+            TrafficRecord.HAS_SUBJECT, 7, 0, 0, 40, 0);
+    // "MRTC" + version + segment marker + start millis
+    private static final int HEADER_BYTES = 5 + 9;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void stopsAtMaxBytesAndCountsTheRest() throws IOException {
+        Path file = dir.resolve("trace.mrtc");
+        TrafficCaptureWriter writer = new TrafficCaptureWriter(file, 1L, HEADER_BYTES + 10 * 12 + 5, 1024);
+        for (int i = 0; i < 25; i++) {
+            assertTrue(writer.offer(RECORD));
+        }
+        writer.close();
+
+        assertEquals(HEADER_BYTES + 10 * 12, Files.size(file));
+        assertEquals(Files.size(file), writer.written());
+        assertEquals(15, writer.dropped());
+        assertEquals(10, TrafficTraceFile.read(file).get(0).records().size());
+        // Once full, records are refused before they reach the queue
+        assertFalse(writer.offer(RECORD));
+        assertEquals(16, writer.dropped());
+    }
+
+    @Test
+    void fullQueueDropsInsteadOfBlocking() throws IOException {
+        Path file = dir.resolve("trace.mrtc");
+        TrafficCaptureWriter writer = new TrafficCaptureWriter(file, 1L, Long.MAX_VALUE, 1);
+        int offered = 200_000;
+        int accepted = 0;
+        for (int i = 0; i < offered; i++) {
+            if (writer.offer(RECORD)) {
+                accepted++;
+            }
+        }
+        writer.close();
+
+        assertTrue(writer.dropped() > 0, "a one-slot queue cannot keep up with a tight loop");
+        assertEquals(offered, accepted + writer.dropped());
+        assertEquals(accepted, TrafficTraceFile.read(file).get(0).records().size());
+    }
+
+    @Test
+    void eachProcessAppendsItsOwnSegment() throws IOException {
+        Path file = dir.resolve("trace.mrtc");
+        for (long start = 1; start <= 2; start++) {
+            TrafficCaptureWriter writer = new TrafficCaptureWriter(file, start, Long.MAX_VALUE, 16);
+            writer.offer(RECORD);
+            writer.close();
+        }
+
+        assertEquals(List.of(new TrafficTraceFile.Segment(1L, List.of(RECORD)), new TrafficTraceFile.Segment(2L, List.of(RECORD))),
+                TrafficTraceFile.read(file));
+    }
+}
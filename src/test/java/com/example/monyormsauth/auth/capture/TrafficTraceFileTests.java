@@ -0,0 +1,77 @@
+package com.example.monyormsauth.auth.capture;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TrafficTraceFileTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void segmentsAndRecordsRoundTrip() throws IOException {
+        Path file = dir.resolve("trace.mrtc");
+        TrafficRecord login = new TrafficRecord(CapturedEndpoint.LOGIN, 12, 3_500, 200,
+                TrafficRecord.HAS_SUBJECT | TrafficRecord.SUBJECT_EMAIL, -17, 0, 0, 48, 0);
+        TrafficRecord role = new TrafficRecord(CapturedEndpoint.UPDATE_ROLE, 5_000_000_000L, 900, 200,
+                TrafficRecord.HAS_SUBJECT | TrafficRecord.BEARER | TrafficRecord.BEARER_VALID | TrafficRecord.CALLER_ADMIN,
+                Integer.MAX_VALUE, Integer.MIN_VALUE, 3_599, 17, 2);
+        TrafficRecord anonymous = new TrafficRecord(CapturedEndpoint.AVAILABILITY, 0, 0, 400, 0, 0, 0, 0, 0, 0);
+
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            TrafficTraceFile.writeHeader(out);
+            TrafficTraceFile.writeSegmentStart(out, 1_700_000_000_000L);
+            TrafficTraceFile.writeRecord(out, login);
+            TrafficTraceFile.writeRecord(out, role);
+            TrafficTraceFile.writeSegmentStart(out, 1_700_000_600_000L);
+            TrafficTraceFile.writeSegmentStart(out, 1_700_000_900_000L);
+            TrafficTraceFile.writeRecord(out, anonymous);
+        }
+
+        List<TrafficTraceFile.Segment> segments = TrafficTraceFile.read(file);
+
+        assertEquals(List.of(
+                new TrafficTraceFile.Segment(1_700_000_000_000L, List.of(login, role)),
+                new TrafficTraceFile.Segment(1_700_000_600_000L, List.of()),
+                new TrafficTraceFile.Segment(1_700_000_900_000L, List.of(anonymous))), segments);
+    }
+
+    @Test
+    void recordCutShortEndsTheFile() throws IOException {
+        Path file = dir.resolve("trace.mrtc");
+        TrafficRecord record = new TrafficRecord(CapturedEndpoint.REFRESH_TOKEN, 1, 2, 200,
+                TrafficRecord.HAS_SUBJECT, 42, 0, 0, 60, 0);
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            TrafficTraceFile.writeHeader(out);
+            TrafficTraceFile.writeSegmentStart(out, 1L);
+            TrafficTraceFile.writeRecord(out, record);
+            TrafficTraceFile.writeRecord(out, record);
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        assertEquals(List.of(new TrafficTraceFile.Segment(1L, List.of(record))), TrafficTraceFile.read(file));
+    }
+
+    @Test
+    void otherFilesAreRejected() throws IOException {
+        Path file = dir.resolve("other.bin");
+        try (OutputStream out = Files.newOutputStream(file, StandardOpenOption.CREATE)) {
+            out.write("MRTX\u0001".getBytes());
+        }
+
+        assertThrows(IOException.class, () -> TrafficTraceFile.read(file));
+    }
+}
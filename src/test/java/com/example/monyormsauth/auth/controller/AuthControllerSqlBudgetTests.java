@@ -0,0 +1,129 @@
+package com.example.monyormsauth.auth.controller;
+
+import com.example.monyormsauth.auth.model.entity.AppUser;
+import com.example.monyormsauth.auth.model.enumerator.ERole;
+import com.example.monyormsauth.auth.repository.UserRepository;
+import com.example.monyormsauth.auth.service.AuthService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static com.example.monyormsauth.auth.controller.SqlStatementBudget.atMost;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * SQL statement budgets for the AuthController endpoints. Raising a budget should be a deliberate
+ * decision in review, not a side effect of a new lookup.
+ */
+@SpringBootTest(properties = "sqlStatements.header=true")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AuthControllerSqlBudgetTests {
+
+    private static final String PASSWORD = "Budget#Pass1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private AuthService authService;
+
+    private AppUser user;
+
+    @BeforeAll
+    void createUser() {
+        String name = "budget-" + UUID.randomUUID().toString().substring(0, 8);
+        user = userRepository.save(AppUser.builder()
+                .username(name)
+                .email(name + "@example.com")
+                .password(passwordEncoder.encode(PASSWORD))
+                .roles(Set.of(ERole.USER))
+                .build());
+    }
+
+    @AfterAll
+    void deleteUsers() {
+        // Also removes the refresh tokens the logins created
+        authService.deleteUser(user.getId());
+    }
+
+    @Test
+    void register() throws Exception {
+        String name = "budget-" + UUID.randomUUID().toString().substring(0, 8);
+        try {
+            // exists checks (skipped when the Bloom filter rules the name out) + user insert + role insert
+            // + refresh token insert
+            mockMvc.perform(post("/api/auth/register")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"username\":\"" + name + "\",\"email\":\"" + name + "@example.com\",\"password\":\"" + PASSWORD + "\"}"))
+                    .andExpect(status().isOk())
+                    .andExpect(atMost(5));
+        } finally {
+            userRepository.findByUsername(name).ifPresent(registered -> authService.deleteUser(registered.getId()));
+        }
+    }
+
+    @Test
+    void loginWithUsername() throws Exception {
+        // user + roles for authentication, then user + roles again in AuthService.login, refresh token insert
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"identifier\":\"" + user.getUsername() + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(atMost(5));
+    }
+
+    @Test
+    void userExists() throws Exception {
+        mockMvc.perform(get("/api/auth/users/{id}/exists", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(atMost(1));
+    }
+
+    @Test
+    void userExistsNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/api/auth/users/{id}/exists", user.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/auth/users/{id}/exists", user.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(atMost(1));
+    }
+
+    @Test
+    void userRole() throws Exception {
+        mockMvc.perform(get("/api/auth/users/{id}/role", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(atMost(2));
+    }
+
+    @Test
+    void availability() throws Exception {
+        mockMvc.perform(get("/api/auth/availability")
+                        .param("username", user.getUsername())
+                        .param("email", user.getEmail()))
+                .andExpect(status().isOk())
+                .andExpect(atMost(2));
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.monyormsauth.auth.controller;
+
+import com.example.monyormsauth.auth.model.entity.AppUser;
+import com.example.monyormsauth.auth.model.enumerator.ERole;
+import com.example.monyormsauth.auth.repository.UserRepository;
+import com.example.monyormsauth.auth.service.AuthService;
+import com.example.monyormsauth.auth.service.RefreshTokenService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Login, refresh and logout through the controller with the in-memory refresh token store: the token
+ * handed out by login is the one the store knows, and logout ends it without touching the account.
+ */
+@SpringBootTest(properties = "refreshToken.store=memory")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class AuthFlowTests {
+
+    private static final String PASSWORD = "Flow#Pass1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private AuthService authService;
+
+    private AppUser user;
+
+    @BeforeEach
+    void createUser() {
+        String name = "flow-" + UUID.randomUUID().toString().substring(0, 8);
+        user = userRepository.save(AppUser.builder()
+                .username(name)
+                .email(name + "@example.com")
+                .password(passwordEncoder.encode(PASSWORD))
+                .roles(Set.of(ERole.USER))
+                .build());
+    }
+
+    @AfterEach
+    void deleteUser() {
+        authService.deleteUser(user.getId());
+    }
+
+    @Test
+    void loginRefreshLogout() throws Exception {
+        String login = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"identifier\":\"" + user.getUsername() + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String refreshToken = JsonPath.read(login, "$.refreshToken");
+        assertEquals(user.getId(), refreshTokenService.findByToken(refreshToken).orElseThrow().getUser().getId());
+
+        refresh(refreshToken)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.refreshToken").value(refreshToken))
+                .andExpect(jsonPath("$.accessToken").isNotEmpty());
+
+        mockMvc.perform(post("/api/auth/logout").param("username", user.getUsername()))
+                .andExpect(status().isNoContent());
+
+        assertTrue(refreshTokenService.findByToken(refreshToken).isEmpty());
+        refresh(refreshToken).andExpect(status().isNotFound());
+        assertTrue(userRepository.existsById(user.getId()));
+    }
+
+    @Test
+    void registerHandsOutAStoredRefreshToken() throws Exception {
+        String name = "flow-" + UUID.randomUUID().toString().substring(0, 8);
+        try {
+            String register = mockMvc.perform(post("/api/auth/register")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"username\":\"" + name + "\",\"email\":\"" + name + "@example.com\",\"password\":\"" + PASSWORD + "\"}"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+
+            refresh(JsonPath.read(register, "$.refreshToken")).andExpect(status().isOk());
+        } finally {
+            userRepository.findByUsername(name).ifPresent(registered -> authService.deleteUser(registered.getId()));
+        }
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/api/auth/refresh-token")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"" + refreshToken + "\"}"));
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.monyormsauth.auth.controller;
+
+import com.example.monyormsauth.auth.filter.SqlStatementCountFilter;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** MockMvc matcher that fails when a request runs more SQL statements than its budget. */
+final class SqlStatementBudget {
+
+    private SqlStatementBudget() {
+    }
+
+    static ResultMatcher atMost(int maxStatements) {
+        return result -> {
+            String header = result.getResponse().getHeader(SqlStatementCountFilter.HEADER);
+            assertNotNull(header, SqlStatementCountFilter.HEADER + " missing, is sqlStatements.header off?");
+            int count = Integer.parseInt(header);
+            assertTrue(count <= maxStatements, () -> result.getRequest().getMethod() + " " + result.getRequest().getRequestURI()
+                    + " ran " + count + " SQL statements, budget is " + maxStatements);
+        };
+    }
+}
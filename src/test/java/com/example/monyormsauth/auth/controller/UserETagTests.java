@@ -0,0 +1,209 @@
+package com.example.monyormsauth.auth.controller;
+
+import com.example.monyormsauth.auth.dto.BulkRoleRequest;
+import com.example.monyormsauth.auth.dto.ForgotPasswordRequest;
+import com.example.monyormsauth.auth.dto.ResetPasswordRequest;
+import com.example.monyormsauth.auth.model.entity.AppUser;
+import com.example.monyormsauth.auth.model.enumerator.ERole;
+import com.example.monyormsauth.auth.repository.UserRepository;
+import com.example.monyormsauth.auth.service.AuthService;
+import com.example.monyormsauth.auth.service.EmailService;
+import com.example.monyormsauth.auth.service.UserAdminService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The user read endpoints' ETag must move with every kind of change to the user (JPA updates and bulk
+ * SQL alike), and a 304 must never hide one.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class UserETagTests {
+
+    private static final Pattern RESET_TOKEN = Pattern.compile("token=([^\"&]+)");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserAdminService userAdminService;
+
+    @SpyBean
+    private AuthService authService;
+
+    @MockBean
+    private EmailService emailService;
+
+    private AppUser user;
+
+    @BeforeEach
+    void createUser() {
+        String name = "etag-" + UUID.randomUUID().toString().substring(0, 8);
+        user = userRepository.save(AppUser.builder()
+                .username(name)
+                .email(name + "@example.com")
+                .password("not-used")
+                .roles(Set.of(ERole.USER))
+                .build());
+        when(emailService.sendEmail(anyString(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @AfterEach
+    void deleteUser() {
+        if (userRepository.existsById(user.getId())) {
+            authService.deleteUser(user.getId());
+        }
+    }
+
+    @Test
+    void unchangedUserIsNotModified() throws Exception {
+        String etag = roleETag();
+
+        mockMvc.perform(get(rolePath()).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(header().string("Cache-Control", "no-cache, private"));
+    }
+
+    @Test
+    void roleUpdateChangesTheETag() throws Exception {
+        String before = roleETag();
+
+        authService.updateUserRole(user.getId(), ERole.ADMIN);
+
+        assertChangedSince(before, "ADMIN");
+    }
+
+    @Test
+    void passwordResetChangesTheETag() throws Exception {
+        String before = roleETag();
+        ForgotPasswordRequest forgot = new ForgotPasswordRequest();
+        forgot.setEmail(user.getEmail());
+        authService.forgotPassword(forgot);
+
+        ResetPasswordRequest reset = new ResetPasswordRequest();
+        reset.setToken(mailedResetToken());
+        reset.setNewPassword("ETag#Pass1");
+        authService.resetPassword(reset);
+
+        assertChangedSince(before, "USER");
+    }
+
+    @Test
+    void bulkRoleChangeChangesTheETag() throws Exception {
+        String before = roleETag();
+
+        BulkRoleRequest request = new BulkRoleRequest();
+        request.setIds(List.of(user.getId()));
+        request.setRole(ERole.ADMIN);
+        userAdminService.assignRole(request);
+
+        assertChangedSince(before, "ADMIN");
+    }
+
+    @Test
+    void deletedUserGetsTheAbsentTag() throws Exception {
+        String present = mockMvc.perform(get(existsPath()))
+                .andExpect(status().isOk())
+                .andExpect(content().string("true"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        authService.deleteUser(user.getId());
+
+        String absent = "\"u" + user.getId() + "-absent\"";
+        mockMvc.perform(get(existsPath()).header("If-None-Match", present))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", absent))
+                .andExpect(content().string("false"));
+        mockMvc.perform(get(existsPath()).header("If-None-Match", absent))
+                .andExpect(status().isNotModified());
+        // The role endpoint has no "absent" body to cache
+        mockMvc.perform(get(rolePath()))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist("ETag"));
+    }
+
+    @Test
+    void concurrentUpdateIsAConflict() throws Exception {
+        doThrow(new ObjectOptimisticLockingFailureException(AppUser.class, user.getId()))
+                .when(authService).updateUserRole(eq(user.getId()), any());
+
+        mockMvc.perform(put(rolePath())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"role\":\"ADMIN\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(409))
+                .andExpect(jsonPath("$.code").value("CONCURRENT_UPDATE"));
+    }
+
+    private void assertChangedSince(String before, String role) throws Exception {
+        String after = mockMvc.perform(get(rolePath()).header("If-None-Match", before))
+                .andExpect(status().isOk())
+                .andExpect(content().string(role))
+                .andReturn().getResponse().getHeader("ETag");
+        assertTrue(after != null && !after.isEmpty());
+        assertNotEquals(before, after);
+    }
+
+    private String roleETag() throws Exception {
+        return mockMvc.perform(get(rolePath()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+    }
+
+    private String mailedResetToken() {
+        ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+        verify(emailService).sendEmail(eq(user.getEmail()), anyString(), body.capture());
+        Matcher matcher = RESET_TOKEN.matcher(body.getValue());
+        assertTrue(matcher.find());
+        return matcher.group(1);
+    }
+
+    private String rolePath() {
+        return "/api/auth/users/" + user.getId() + "/role";
+    }
+
+    private String existsPath() {
+        return "/api/auth/users/" + user.getId() + "/exists";
+    }
+}
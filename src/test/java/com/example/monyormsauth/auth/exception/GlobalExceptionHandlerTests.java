@@ -0,0 +1,109 @@
+package com.example.monyormsauth.auth.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.NotBlank;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Status codes and problem bodies of every handler, byte for byte, and the stackless exceptions.
+ */
+class GlobalExceptionHandlerTests {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void domainExceptionsKeepTheirStatusAndBody() {
+        assertProblem(handler.handleUserNotFoundException(new UserNotFoundException("User not found with id: 5")), 404,
+                "{\"type\":\"about:blank\",\"title\":\"Not Found\",\"status\":404,\"code\":\"USER_NOT_FOUND\",\"detail\":\"User not found with id: 5\"}");
+        assertProblem(handler.handleInvalidCredentials(InvalidCredentialsException.BAD_CREDENTIALS), 401,
+                "{\"type\":\"about:blank\",\"title\":\"Unauthorized\",\"status\":401,\"code\":\"INVALID_CREDENTIALS\",\"detail\":\"Username or password is incorrect\"}");
+        assertProblem(handler.handleDuplicateException(DuplicateException.USERNAME_TAKEN), 409,
+                "{\"type\":\"about:blank\",\"title\":\"Conflict\",\"status\":409,\"code\":\"DUPLICATE_RESOURCE\",\"detail\":\"Username already exists\"}");
+        assertProblem(handler.handleTooManyRequests(TooManyRequestsException.LOGIN_BLOCKED), 429,
+                "{\"type\":\"about:blank\",\"title\":\"Too Many Requests\",\"status\":429,\"code\":\"TOO_MANY_REQUESTS\",\"detail\":\"Too many failed login attempts, try again later\"}");
+    }
+
+    @Test
+    void frameworkExceptionsAreMappedToFixedBodies() {
+        assertProblem(handler.handleBadCredentials(new StacklessBadCredentialsException("Bad credentials")), 401,
+                "{\"type\":\"about:blank\",\"title\":\"Unauthorized\",\"status\":401,\"code\":\"INVALID_CREDENTIALS\",\"detail\":\"Username or password is incorrect\"}");
+        assertProblem(handler.handleOptimisticLockingFailure(new OptimisticLockingFailureException("stale")), 409,
+                "{\"type\":\"about:blank\",\"title\":\"Conflict\",\"status\":409,\"code\":\"CONCURRENT_UPDATE\",\"detail\":\"The resource was changed concurrently, retry the request\"}");
+        assertProblem(handler.handleAllExceptions(new IllegalStateException("boom")), 500,
+                "{\"type\":\"about:blank\",\"title\":\"Internal Server Error\",\"status\":500,\"code\":\"INTERNAL_ERROR\",\"detail\":\"Server error baş verdi.\"}");
+    }
+
+    @Test
+    void fieldErrorsAreListedFirstOneWins() throws Exception {
+        BeanPropertyBindingResult result = new BeanPropertyBindingResult(new Object(), "request");
+        result.addError(new FieldError("request", "password", "Password is too short"));
+        result.addError(new FieldError("request", "password", "Password needs a digit"));
+        MethodParameter parameter = new MethodParameter(getClass().getDeclaredMethod("endpoint", Object.class), 0);
+
+        assertProblem(handler.handleValidationExceptions(new MethodArgumentNotValidException(parameter, result)), 400,
+                "{\"type\":\"about:blank\",\"title\":\"Bad Request\",\"status\":400,\"code\":\"VALIDATION_FAILED\",\"detail\":\"Request validation failed\","
+                        + "\"errors\":{\"password\":\"Password is too short\"}}");
+
+        result.addError(new FieldError("request", "email", "Email is \"invalid\"\n"));
+        ResponseEntity<byte[]> response = handler.handleValidationExceptions(new MethodArgumentNotValidException(parameter, result));
+        assertEquals(Map.of("password", "Password is too short", "email", "Email is \"invalid\"\n"),
+                objectMapper.convertValue(objectMapper.readTree(response.getBody()).get("errors"), Map.class));
+    }
+
+    @Test
+    void constraintViolationsUseTheValidationBody() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        ConstraintViolationException ex = new ConstraintViolationException(validator.validate(new Named()));
+
+        assertProblem(handler.handleConstraintViolationException(ex), 400,
+                "{\"type\":\"about:blank\",\"title\":\"Bad Request\",\"status\":400,\"code\":\"VALIDATION_FAILED\",\"detail\":\"Request validation failed\","
+                        + "\"errors\":{\"name\":\"Name cannot be blank\"}}");
+    }
+
+    @Test
+    void expectedFailuresCarryNoStackTrace() {
+        assertEquals(0, new UserNotFoundException("x").getStackTrace().length);
+        assertEquals(0, UserNotFoundException.USER_NOT_FOUND.getStackTrace().length);
+        assertEquals(0, InvalidCredentialsException.BAD_CREDENTIALS.getStackTrace().length);
+        assertEquals(0, DuplicateException.EMAIL_TAKEN.getStackTrace().length);
+        assertEquals(0, TooManyRequestsException.FORGOT_PASSWORD_BLOCKED.getStackTrace().length);
+        assertEquals(0, new StacklessBadCredentialsException("x").getStackTrace().length);
+        assertEquals(0, new StacklessUsernameNotFoundException("x").getStackTrace().length);
+        // Unexpected ones still do
+        assertTrue(new BadCredentialsException("x").getStackTrace().length > 0);
+    }
+
+    private static void assertProblem(ResponseEntity<byte[]> response, int status, String body) {
+        assertEquals(HttpStatus.valueOf(status), response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_PROBLEM_JSON, response.getHeaders().getContentType());
+        assertEquals(body, new String(response.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @SuppressWarnings("unused")
+    private void endpoint(Object request) {
+    }
+
+    static class Named {
+        @NotBlank(message = "Name cannot be blank")
+        String name;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.monyormsauth.auth.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RequestSizeLimitFilterTests {
+
+    private final RequestSizeLimitFilter filter = new RequestSizeLimitFilter(16, 64);
+
+    @Test
+    void declaredLengthOverTheLimitIsRejectedUnread() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        byte[] read = send(post("/api/auth/login", new byte[17]), response);
+
+        assertNull(read);
+        assertEquals(413, response.getStatus());
+        assertEquals("close", response.getHeader("Connection"));
+        assertEquals("{\"type\":\"about:blank\",\"title\":\"Payload Too Large\",\"status\":413,\"code\":\"PAYLOAD_TOO_LARGE\","
+                + "\"detail\":\"Request body is too large\"}", response.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void bodyAtTheLimitPassesThrough() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertArrayEquals(new byte[16], send(post("/api/auth/login", new byte[16]), response));
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    void bulkEndpointsHaveTheirOwnLimit() throws Exception {
+        assertArrayEquals(new byte[64], send(post("/api/auth/users/bulk/role", new byte[64]), new MockHttpServletResponse()));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertNull(send(post("/api/auth/users/bulk/delete", new byte[65]), response));
+        assertEquals(413, response.getStatus());
+    }
+
+    @Test
+    void chunkedBodyIsCutOffPastTheLimit() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertNull(send(chunked("/api/auth/register", new byte[1000]), response));
+        assertEquals(413, response.getStatus());
+    }
+
+    @Test
+    void chunkedBodyWithinTheLimitIsReplayed() throws Exception {
+        byte[] body = "{\"a\":1}".getBytes(StandardCharsets.UTF_8);
+
+        assertArrayEquals(body, send(chunked("/api/auth/register", body), new MockHttpServletResponse()));
+    }
+
+    private static MockHttpServletRequest post(String path, byte[] body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setServletPath(path);
+        request.setContentType("application/json");
+        request.setContent(body);
+        return request;
+    }
+
+    private static MockHttpServletRequest chunked(String path, byte[] body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path) {
+            @Override
+            public int getContentLength() {
+                return -1;
+            }
+
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        request.setServletPath(path);
+        request.setContentType("application/json");
+        request.addHeader("Transfer-Encoding", "chunked");
+        request.setContent(body);
+        return request;
+    }
+
+    // The body the chain got to read, or null when the chain was never called
+    private byte[] send(MockHttpServletRequest request, MockHttpServletResponse response) throws Exception {
+        AtomicReference<byte[]> read = new AtomicReference<>();
+        filter.doFilter(request, response, (req, res) -> read.set(req.getInputStream().readAllBytes()));
+        return read.get();
+    }
+}
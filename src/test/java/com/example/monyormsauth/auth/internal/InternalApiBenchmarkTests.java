@@ -0,0 +1,162 @@
+package com.example.monyormsauth.auth.internal;
+
+import com.example.monyormsauth.auth.model.entity.AppUser;
+import com.example.monyormsauth.auth.model.enumerator.ERole;
+import com.example.monyormsauth.auth.repository.UserRepository;
+import com.example.monyormsauth.auth.service.JwtService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the REST lookups in AuthController with the internal binary API on the same running
+ * application. Run with {@code ./gradlew benchmark}; numbers are printed, not asserted.
+ */
+@Tag("benchmark")
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"internalApi.enabled=true", "internalApi.port=0", "concurrency.enabled=false"})
+class InternalApiBenchmarkTests {
+
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 20_000;
+    private static final int BATCH_SIZE = 64;
+
+    @LocalServerPort
+    private int httpPort;
+
+    @Autowired
+    private InternalApiServer server;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    private AppUser user;
+    private String token;
+    private HttpClient http;
+    private InternalApiClient client;
+
+    @BeforeAll
+    void setUp() throws Exception {
+        String name = "bench-" + UUID.randomUUID().toString().substring(0, 8);
+        user = userRepository.save(AppUser.builder()
+                .username(name)
+                .email(name + "@example.com")
+                .password("{noop}unused")
+                .roles(Set.of(ERole.USER))
+                .build());
+        token = jwtService.generateToken(name);
+        http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        client = new InternalApiClient("127.0.0.1", server.getPort());
+    }
+
+    @AfterAll
+    void tearDown() throws Exception {
+        client.close();
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void restVersusBinary() throws Exception {
+        long id = user.getId();
+        HttpRequest exists = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + httpPort + "/api/auth/users/" + id + "/exists")).GET().build();
+        HttpRequest role = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + httpPort + "/api/auth/users/" + id + "/role")).GET().build();
+
+        // sanity: both paths agree
+        assertEquals("true", http.send(exists, HttpResponse.BodyHandlers.ofString()).body());
+        assertEquals(http.send(role, HttpResponse.BodyHandlers.ofString()).body(), client.userRole(id).join().orElseThrow());
+        assertTrue(client.userExists(id).join());
+        assertEquals(user.getUsername(), client.verifyToken(token).join().orElseThrow().subject());
+
+        run("REST sequential", () -> {
+            for (int i = 0; i < ITERATIONS; i++) {
+                http.send(i % 2 == 0 ? exists : role, HttpResponse.BodyHandlers.ofString()).body();
+            }
+        }, () -> {
+            for (int i = 0; i < WARMUP; i++) {
+                http.send(i % 2 == 0 ? exists : role, HttpResponse.BodyHandlers.ofString()).body();
+            }
+        });
+
+        run("binary sequential", () -> sequential(id, ITERATIONS), () -> sequential(id, WARMUP));
+        run("binary pipelined", () -> pipelined(id, ITERATIONS), () -> pipelined(id, WARMUP));
+        run("binary batched x" + BATCH_SIZE, () -> batched(id, ITERATIONS), () -> batched(id, WARMUP));
+        run("binary verify-token pipelined", () -> verifyPipelined(ITERATIONS), () -> verifyPipelined(WARMUP));
+    }
+
+    private void sequential(long id, int n) {
+        for (int i = 0; i < n; i++) {
+            if (i % 2 == 0) {
+                client.userExists(id).join();
+            } else {
+                client.userRole(id).join();
+            }
+        }
+    }
+
+    private void pipelined(long id, int n) {
+        List<CompletableFuture<?>> futures = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            futures.add(i % 2 == 0 ? client.userExists(id) : client.userRole(id));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private void batched(long id, int n) {
+        List<CompletableFuture<?>> futures = new ArrayList<>(n / BATCH_SIZE + 1);
+        for (int i = 0; i < n; i += BATCH_SIZE) {
+            InternalApiClient.Batch batch = client.batch();
+            for (int j = 0; j < BATCH_SIZE; j += 2) {
+                batch.userExists(id).userRole(id);
+            }
+            futures.add(batch.send());
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private void verifyPipelined(int n) {
+        List<CompletableFuture<Optional<InternalApiClient.TokenInfo>>> futures = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            futures.add(client.verifyToken(token));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private static void run(String label, ThrowingRunnable measured, ThrowingRunnable warmup) throws Exception {
+        warmup.run();
+        long start = System.nanoTime();
+        measured.run();
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-32s %,10.0f ops/s  %8.2f us/op%n",
+                label, ITERATIONS * 1e9 / elapsed, elapsed / 1e3 / ITERATIONS);
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.monyormsauth.auth.internal;
+
+import com.example.monyormsauth.auth.service.AuthService;
+import com.example.monyormsauth.auth.service.JwtService;
+import com.example.monyormsauth.auth.service.TokenRevocationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+
+import static com.example.monyormsauth.auth.internal.InternalApiProtocol.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InternalApiServerTests {
+
+    private final AuthService authService = mock(AuthService.class);
+    private InternalApiServer server;
+    private Socket socket;
+    private DataOutputStream out;
+    private DataInputStream in;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        when(authService.doesUserExist(7L)).thenReturn(true);
+        server = new InternalApiServer(authService, mock(JwtService.class), mock(TokenRevocationRegistry.class),
+                "127.0.0.1", 0, 4);
+        server.start();
+        socket = new Socket("127.0.0.1", server.getPort());
+        out = new DataOutputStream(socket.getOutputStream());
+        in = new DataInputStream(socket.getInputStream());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        socket.close();
+        server.stop();
+    }
+
+    @Test
+    void malformedRequestsAreAnsweredAndTheConnectionStaysOpen() throws IOException {
+        // Unknown op
+        frame(new byte[]{0x7F, 0, 0, 0, 1});
+        // USER_EXISTS with a truncated userId
+        frame(new byte[]{USER_EXISTS, 0, 0, 0, 2, 0, 0});
+        // Batch whose second item has an unknown op
+        frame(new byte[]{BATCH, 0, 0, 0, 3, 0, 2, USER_EXISTS, 0, 0, 0, 0, 0, 0, 0, 7, 0x7F});
+        // Oversized frame: header, then the rest is skipped
+        out.writeInt(MAX_FRAME_BYTES + 1);
+        out.write(new byte[]{USER_EXISTS, 0, 0, 0, 4});
+        out.write(new byte[MAX_FRAME_BYTES + 1 - FRAME_HEADER_BYTES]);
+        // A valid request pipelined behind all of them
+        frame(new byte[]{USER_EXISTS, 0, 0, 0, 5, 0, 0, 0, 0, 0, 0, 0, 7});
+        out.flush();
+
+        for (int requestId = 1; requestId <= 4; requestId++) {
+            assertEquals(5, in.readInt());
+            assertEquals(requestId, in.readInt());
+            assertEquals(BAD_REQUEST, in.readByte());
+        }
+        assertEquals(6, in.readInt());
+        assertEquals(5, in.readInt());
+        assertEquals(OK, in.readByte());
+        assertTrue(in.readBoolean());
+    }
+
+    private void frame(byte[] body) throws IOException {
+        out.writeInt(body.length);
+        out.write(body);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.monyormsauth.auth.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTests {
+
+    private static final long MS = 1_000_000;
+
+    @Test
+    void limitGrowsWhileLatencyStaysFlat() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 5, 100);
+
+        int previous = limiter.getLimit();
+        for (int i = 0; i < 10; i++) {
+            saturate(limiter, 5 * MS);
+            assertTrue(limiter.getLimit() >= previous, "limit shrank under flat latency");
+            previous = limiter.getLimit();
+        }
+
+        assertTrue(limiter.getLimit() > 20, "limit " + limiter.getLimit());
+    }
+
+    @Test
+    void limitStopsAtTheMaximum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 5, 100);
+
+        for (int i = 0; i < 200; i++) {
+            saturate(limiter, 5 * MS);
+        }
+
+        assertEquals(100, limiter.getLimit());
+    }
+
+    @Test
+    void limitShrinksWhenLatencyInflatesAndStopsAtTheMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(50, 5, 100);
+        for (int i = 0; i < 20; i++) {
+            saturate(limiter, 5 * MS);
+        }
+        int baseline = limiter.getLimit();
+
+        saturate(limiter, 50 * MS);
+        assertTrue(limiter.getLimit() < baseline, limiter.getLimit() + " not below " + baseline);
+
+        for (int i = 0; i < 5; i++) {
+            saturate(limiter, 50 * MS);
+            assertTrue(limiter.getLimit() >= 5);
+        }
+        assertEquals(5, limiter.getLimit());
+
+        // A latency level that lasts becomes the new baseline, and the limit grows back
+        for (int i = 0; i < 40; i++) {
+            saturate(limiter, 50 * MS);
+        }
+        assertEquals(100, limiter.getLimit());
+    }
+
+    @Test
+    void idleServiceDoesNotGrowTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 5, 100);
+
+        // One request at a time never uses half of the limit
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(limiter.tryAcquire(RequestPriority.NORMAL));
+            limiter.release(5 * MS);
+        }
+
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    void initialLimitIsClampedToTheBounds() {
+        assertEquals(5, new AdaptiveConcurrencyLimiter(1, 5, 100).getLimit());
+        assertEquals(100, new AdaptiveConcurrencyLimiter(1000, 5, 100).getLimit());
+    }
+
+    @Test
+    void lowPriorityIsShedBeforeHigherOnes() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 5, 100);
+
+        // Shares of 20: LOW 15, NORMAL 18, CRITICAL 20
+        assertEquals(15, acquireAll(limiter, RequestPriority.LOW));
+        assertEquals(3, acquireAll(limiter, RequestPriority.NORMAL));
+        assertEquals(2, acquireAll(limiter, RequestPriority.CRITICAL));
+        assertEquals(20, limiter.getInflight());
+
+        limiter.release(5 * MS);
+        assertFalse(limiter.tryAcquire(RequestPriority.LOW));
+        assertFalse(limiter.tryAcquire(RequestPriority.NORMAL));
+        assertTrue(limiter.tryAcquire(RequestPriority.CRITICAL));
+    }
+
+    // Fills the limit with concurrent requests and completes them all with the same latency
+    private static void saturate(AdaptiveConcurrencyLimiter limiter, long rttNanos) {
+        int acquired = acquireAll(limiter, RequestPriority.CRITICAL);
+        for (int i = 0; i < acquired; i++) {
+            limiter.release(rttNanos);
+        }
+    }
+
+    private static int acquireAll(AdaptiveConcurrencyLimiter limiter, RequestPriority priority) {
+        int acquired = 0;
+        while (limiter.tryAcquire(priority)) {
+            acquired++;
+        }
+        return acquired;
+    }
+}
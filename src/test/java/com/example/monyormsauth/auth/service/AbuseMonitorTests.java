@@ -0,0 +1,132 @@
+package com.example.monyormsauth.auth.service;
+
+import com.example.monyormsauth.auth.exception.TooManyRequestsException;
+import com.example.monyormsauth.auth.util.HeavyHitterTracker.HeavyHitter;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AbuseMonitorTests {
+
+    private static final long WINDOW_SECONDS = 600;
+    private static final long T = 1_700_000_000_000L;
+    private static final String IP = "203.0.113.7";
+
+    @Test
+    void identifierIsBlockedAtTheThreshold() {
+        AbuseMonitor monitor = monitor(50, true);
+        for (int i = 0; i < 4; i++) {
+            monitor.recordLoginFailure("Alice", IP, T);
+        }
+        assertDoesNotThrow(() -> monitor.checkLogin("alice", IP, T));
+
+        monitor.recordLoginFailure(" ALICE ", IP, T);
+
+        assertBlocked(TooManyRequestsException.LOGIN_BLOCKED, () -> monitor.checkLogin("alice", "198.51.100.1", T));
+        assertDoesNotThrow(() -> monitor.checkLogin("bob", "198.51.100.1", T));
+    }
+
+    @Test
+    void ipIsBlockedAtItsOwnThreshold() {
+        AbuseMonitor monitor = monitor(50, true);
+        for (int i = 0; i < 10; i++) {
+            monitor.recordLoginFailure("user-" + i, IP, T);
+        }
+
+        assertBlocked(TooManyRequestsException.LOGIN_BLOCKED, () -> monitor.checkLogin("someone-else", IP, T));
+    }
+
+    @Test
+    void blockLiftsAsTheWindowSlides() {
+        AbuseMonitor monitor = monitor(50, true);
+        for (int i = 0; i < 5; i++) {
+            monitor.recordLoginFailure("alice", IP, T);
+        }
+        assertBlocked(TooManyRequestsException.LOGIN_BLOCKED, () -> monitor.checkLogin("alice", IP, T + 1000));
+
+        // Still inside the window one bucket before the end, out of it once the failures' bucket expires
+        assertBlocked(TooManyRequestsException.LOGIN_BLOCKED,
+                () -> monitor.checkLogin("alice", IP, T + (WINDOW_SECONDS - 60) * 1000));
+        assertDoesNotThrow(() -> monitor.checkLogin("alice", IP, T + WINDOW_SECONDS * 1000));
+    }
+
+    @Test
+    void sprayingOtherKeysDoesNotLiftABlock() {
+        // Two candidate slots, so a handful of louder keys evicts the victim
+        AbuseMonitor monitor = monitor(2, true);
+        for (int i = 0; i < 10; i++) {
+            monitor.recordLoginFailure("victim", null, T);
+        }
+        for (int key = 0; key < 10; key++) {
+            for (int i = 0; i < 11; i++) {
+                monitor.recordLoginFailure("spray-" + key, null, T);
+            }
+        }
+        assertFalse(identifiers(monitor).contains("victim"));
+
+        assertBlocked(TooManyRequestsException.LOGIN_BLOCKED, () -> monitor.checkLogin("victim", null, T));
+        // Quiet keys are still let through
+        assertDoesNotThrow(() -> monitor.checkLogin("quiet", null, T));
+    }
+
+    @Test
+    void forgotPasswordIsBlockedAfterTheThreshold() {
+        AbuseMonitor monitor = monitor(50, true);
+        monitor.recordForgotPassword("a@example.com", T);
+        monitor.recordForgotPassword("A@example.com ", T);
+
+        assertBlocked(TooManyRequestsException.FORGOT_PASSWORD_BLOCKED,
+                () -> monitor.recordForgotPassword("a@example.com", T));
+        assertDoesNotThrow(() -> monitor.recordForgotPassword("b@example.com", T));
+    }
+
+    @Test
+    void excludedIdentifiersAreNotCountedUntilIncluded() {
+        AbuseMonitor monitor = monitor(50, true);
+        monitor.exclude("Warmup-1");
+        for (int i = 0; i < 20; i++) {
+            monitor.recordLoginFailure("warmup-1", IP, T);
+        }
+        assertDoesNotThrow(() -> monitor.checkLogin("warmup-1", IP, T));
+        assertTrue(monitor.report(10, T).getLoginFailuresByIdentifier().isEmpty());
+        assertTrue(monitor.report(10, T).getLoginFailuresByIp().isEmpty());
+
+        monitor.include("WARMUP-1");
+        for (int i = 0; i < 5; i++) {
+            monitor.recordLoginFailure("warmup-1", IP, T);
+        }
+        assertBlocked(TooManyRequestsException.LOGIN_BLOCKED, () -> monitor.checkLogin("warmup-1", IP, T));
+    }
+
+    @Test
+    void disabledBlockingOnlyCounts() {
+        AbuseMonitor monitor = monitor(50, false);
+        for (int i = 0; i < 20; i++) {
+            monitor.recordLoginFailure("alice", IP, T);
+            monitor.recordForgotPassword("a@example.com", T);
+        }
+
+        assertDoesNotThrow(() -> monitor.checkLogin("alice", IP, T));
+        assertEquals(20, monitor.report(1, T).getLoginFailuresByIdentifier().get(0).count());
+    }
+
+    // Thresholds: 5 failures per identifier, 10 per IP, 2 reset mails per email
+    private static AbuseMonitor monitor(int topK, boolean blocking) {
+        return new AbuseMonitor(WINDOW_SECONDS, 10, topK, 4, 4096, blocking, 5, 10, 2);
+    }
+
+    private static List<String> identifiers(AbuseMonitor monitor) {
+        return monitor.report(100, T).getLoginFailuresByIdentifier().stream().map(HeavyHitter::key).toList();
+    }
+
+    private static void assertBlocked(TooManyRequestsException expected, Runnable request) {
+        assertSame(expected, assertThrows(TooManyRequestsException.class, request::run));
+    }
+}
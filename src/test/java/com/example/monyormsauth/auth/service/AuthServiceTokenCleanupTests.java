@@ -0,0 +1,107 @@
+package com.example.monyormsauth.auth.service;
+
+import com.example.monyormsauth.auth.dto.ForgotPasswordRequest;
+import com.example.monyormsauth.auth.model.entity.AppUser;
+import com.example.monyormsauth.auth.model.entity.PasswordResetToken;
+import com.example.monyormsauth.auth.model.enumerator.ERole;
+import com.example.monyormsauth.auth.repository.PasswordResetTokenRepository;
+import com.example.monyormsauth.auth.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Deleting a user's tokens must delete only the tokens: a derived delete loads each row and cascaded the
+ * removal to the user, and ran after the replacement reset token had been inserted.
+ */
+@SpringBootTest(properties = {
+        // Every forgot-password issues a fresh token, so the delete-then-insert path runs each time
+        "passwordReset.coalesceWindowSeconds=0",
+        "passwordReset.reuseMinRemainingSeconds=7200"
+})
+@ActiveProfiles("test")
+class AuthServiceTokenCleanupTests {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordResetTokenRepository passwordResetTokenRepository;
+
+    @MockBean
+    private EmailService emailService;
+
+    private AppUser user;
+
+    @BeforeEach
+    void createUser() {
+        String name = "cleanup-" + UUID.randomUUID().toString().substring(0, 8);
+        user = userRepository.save(AppUser.builder()
+                .username(name)
+                .email(name + "@example.com")
+                .password("not-used")
+                .roles(Set.of(ERole.USER))
+                .build());
+        when(emailService.sendEmail(anyString(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @AfterEach
+    void deleteUser() {
+        if (userRepository.existsById(user.getId())) {
+            authService.deleteUser(user.getId());
+        }
+    }
+
+    @Test
+    void userSurvivesLogout() {
+        String token = refreshTokenService.createRefreshToken(user.getUsername()).getToken();
+
+        authService.logout(user.getUsername());
+
+        assertTrue(userRepository.existsById(user.getId()));
+        assertTrue(refreshTokenService.findByToken(token).isEmpty());
+    }
+
+    @Test
+    void secondForgotPasswordReplacesTheToken() {
+        ForgotPasswordRequest request = new ForgotPasswordRequest();
+        request.setEmail(user.getEmail());
+
+        authService.forgotPassword(request);
+        String first = resetTokens().get(0).getToken();
+        authService.forgotPassword(request);
+
+        List<PasswordResetToken> tokens = resetTokens();
+        assertEquals(1, tokens.size());
+        assertNotEquals(first, tokens.get(0).getToken());
+        assertTrue(userRepository.existsById(user.getId()));
+    }
+
+    private List<PasswordResetToken> resetTokens() {
+        return passwordResetTokenRepository.findAll().stream()
+                .filter(token -> token.getUser().getId().equals(user.getId()))
+                .toList();
+    }
+}
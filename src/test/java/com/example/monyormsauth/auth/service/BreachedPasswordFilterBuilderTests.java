@@ -0,0 +1,87 @@
+package com.example.monyormsauth.auth.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BreachedPasswordFilterBuilderTests {
+
+    private static final int ENTRIES = 100_000;
+    private static final double FPP = 0.01;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void builtFileIsMappedAndAnsweredWithinTheTargetRate() throws IOException {
+        Path input = dir.resolve("passwords.txt");
+        try (BufferedWriter writer = Files.newBufferedWriter(input, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < ENTRIES; i++) {
+                writer.write("breached-" + i);
+                writer.newLine();
+            }
+            writer.newLine(); // blank lines are skipped
+        }
+        Path output = dir.resolve("breached.bpf");
+        long bits = BreachedPasswordFilterBuilder.optimalBits(ENTRIES, FPP);
+        int hashes = BreachedPasswordFilterBuilder.optimalHashes(ENTRIES, bits);
+
+        assertEquals(ENTRIES, BreachedPasswordFilterBuilder.build(input, output, true, bits, hashes));
+
+        try (BreachedPasswordFilter filter = BreachedPasswordFilter.open(output)) {
+            assertEquals(bits, filter.bitCount());
+            assertEquals(hashes, filter.hashCount());
+            assertEquals(ENTRIES, filter.entryCount());
+            for (int i = 0; i < ENTRIES; i++) {
+                assertTrue(filter.mightContain("breached-" + i), "false negative for breached-" + i);
+            }
+            int falsePositives = 0;
+            for (int i = 0; i < ENTRIES; i++) {
+                if (filter.mightContain("fresh-" + i)) {
+                    falsePositives++;
+                }
+            }
+            // 1% target; about 1000 expected, the bound leaves room for hash quality, not for chance
+            assertTrue(falsePositives < ENTRIES * FPP * 1.3, "false positive rate " + (double) falsePositives / ENTRIES);
+        }
+    }
+
+    @Test
+    void readsTheSha1DumpFormat() throws Exception {
+        MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+        HexFormat hex = HexFormat.of().withUpperCase();
+        Path input = dir.resolve("pwned.txt");
+        Files.writeString(input, hex.formatHex(sha1.digest("password1".getBytes(StandardCharsets.UTF_8))) + ":2427\n"
+                + hex.formatHex(sha1.digest("letmein".getBytes(StandardCharsets.UTF_8))) + "\n");
+        Path output = dir.resolve("pwned.bpf");
+
+        BreachedPasswordFilterBuilder.build(input, output, false, BreachedPasswordFilterBuilder.optimalBits(2, 0.001),
+                BreachedPasswordFilterBuilder.optimalHashes(2, BreachedPasswordFilterBuilder.optimalBits(2, 0.001)));
+
+        try (BreachedPasswordFilter filter = BreachedPasswordFilter.open(output)) {
+            assertTrue(filter.mightContain("password1"));
+            assertTrue(filter.mightContain("letmein"));
+            assertFalse(filter.mightContain("Correct#Horse9"));
+        }
+    }
+
+    @Test
+    void fileWithoutHeaderIsRejected() throws IOException {
+        Path file = dir.resolve("empty.bpf");
+        Files.write(file, new byte[64]);
+
+        assertThrows(IOException.class, () -> BreachedPasswordFilter.open(file));
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.monyormsauth.auth.service;
+
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class Hs256TokenEncoderTests {
+
+    private static final String SECRET = "bOOk8cY4gTkN9WmV7rHdJzE2zXsG4dPpZrX8tNnKjPk=";
+    private static final long NOW = 1_700_000_000_123L;
+
+    private final byte[] keyBytes = Decoders.BASE64.decode(SECRET);
+    private final Key key = Keys.hmacShaKeyFor(keyBytes);
+    private final Hs256TokenEncoder encoder = new Hs256TokenEncoder(keyBytes);
+
+    @Test
+    void accessTokenMatchesJjwt() {
+        List<String> roles = List.of("ROLE_USER", "ROLE_ADMIN");
+        assertEquals(
+                jjwt(roles, "alice", null, 3_600_000L),
+                encoder.encode("alice", roles, null, NOW, 3_600_000L));
+    }
+
+    @Test
+    void refreshTokenMatchesJjwt() {
+        assertEquals(
+                jjwt(null, "alice", null, 604_800_000L),
+                encoder.encode("alice", null, null, NOW, 604_800_000L));
+    }
+
+    @Test
+    void emptyRolesAndJtiMatchJjwt() {
+        assertEquals(
+                jjwt(List.of(), "bob", "6f1c1a3e-5a43-4c1f-9b0e-2b7c4c9d7f10", 1_000L),
+                encoder.encode("bob", List.of(), "6f1c1a3e-5a43-4c1f-9b0e-2b7c4c9d7f10", NOW, 1_000L));
+    }
+
+    @Test
+    void escapingAndNonAsciiMatchJjwt() {
+        String subject = "q\"uo\\te\n\t\u0001 Şəkər € 😀";
+        List<String> roles = List.of("ROLE_\u0019", "ROLE_/x");
+        assertEquals(
+                jjwt(roles, subject, null, 60_000L),
+                encoder.encode(subject, roles, null, NOW, 60_000L));
+    }
+
+    @Test
+    void reusedBuffersDoNotLeakBetweenTokens() {
+        String longSubject = "x".repeat(2_000);
+        encoder.encode(longSubject, List.of("ROLE_USER"), null, NOW, 1_000L);
+        assertEquals(
+                jjwt(null, "a", null, 1_000L),
+                encoder.encode("a", null, null, NOW, 1_000L));
+    }
+
+    @Test
+    void compactTokenMatchesJjwt() {
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("v", 2);
+        String expected = Jwts.builder()
+                .setClaims(claims)
+                .setSubject("42")
+                .claim("r", 3)
+                .setIssuedAt(new Date(NOW))
+                .setExpiration(new Date(NOW + 3_600_000L))
+                .claim("ms", NOW % 1000)
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+        assertEquals(expected, encoder.encodeCompact(42L, 3, NOW, 3_600_000L));
+    }
+
+    @Test
+    void millisecondIssueTimeMatchesJjwt() {
+        List<String> roles = List.of("ROLE_USER");
+        String expected = Jwts.builder()
+                .setClaims(new HashMap<>(Map.of("roles", roles)))
+                .setSubject("alice")
+                .setIssuedAt(new Date(NOW))
+                .setExpiration(new Date(NOW + 3_600_000L))
+                .claim("ms", NOW % 1000)
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+        assertEquals(expected, encoder.encode("alice", roles, null, NOW, 3_600_000L, true));
+    }
+
+    // Same builder call order JwtService used before the encoder existed
+    private String jjwt(List<String> roles, String subject, String jti, long expirationMs) {
+        Map<String, Object> claims = new HashMap<>();
+        if (roles != null) {
+            claims.put("roles", roles);
+        }
+        JwtBuilder builder = Jwts.builder()
+                .setClaims(claims)
+                .setSubject(subject)
+                .setIssuedAt(new Date(NOW))
+                .setExpiration(new Date(NOW + expirationMs));
+        if (jti != null) {
+            builder.setId(jti);
+        }
+        return builder.signWith(key, SignatureAlgorithm.HS256).compact();
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.monyormsauth.auth.service;
+
+import com.example.monyormsauth.auth.model.entity.AppUser;
+import com.example.monyormsauth.auth.repository.UserJdbcRepository;
+import com.example.monyormsauth.auth.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdentifierBloomFilterTests {
+
+    private static final int ENTRIES = 1_000_000;
+
+    @Test
+    void noFalseNegativesAndFalsePositiveRateNearTarget() {
+        IdentifierBloomFilter filter = new IdentifierBloomFilter(ENTRIES, 0.01);
+        for (int i = 0; i < ENTRIES; i++) {
+            filter.add('u', "user" + i);
+        }
+
+        for (int i = 0; i < ENTRIES; i++) {
+            assertTrue(filter.mightContain('u', "user" + i), "false negative for user" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < ENTRIES; i++) {
+            if (filter.mightContain('u', "other" + i)) {
+                falsePositives++;
+            }
+        }
+        // 1% target; about 10k expected, the bound leaves room for hash quality, not for chance
+        assertTrue(falsePositives < ENTRIES * 0.012, "false positive rate " + (double) falsePositives / ENTRIES);
+    }
+
+    @Test
+    void namespacesDoNotCollide() {
+        IdentifierBloomFilter filter = new IdentifierBloomFilter(1_000, 0.001);
+        filter.add('u', "alice@example.com");
+
+        assertTrue(filter.mightContain('u', "alice@example.com"));
+        assertFalse(filter.mightContain('e', "alice@example.com"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void userRegisteredDuringARebuildIsInTheNewFilter() throws InterruptedException {
+        UserRepository userRepository = mock(UserRepository.class);
+        UserJdbcRepository userJdbcRepository = mock(UserJdbcRepository.class);
+        IdentifierIndex index = new IdentifierIndex(userRepository, userJdbcRepository, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), true, 1_000, 0.01, 0.1, 0, 0, 60_000);
+        doAnswer(invocation -> {
+            BiConsumer<String, String> sink = invocation.getArgument(0);
+            sink.accept("alice", "alice@example.com");
+            // Committed after the scan passed its row, so only add() can put it in the new filter
+            index.add(AppUser.builder().username("bob").email("bob@example.com").build());
+            return null;
+        }).when(userJdbcRepository).streamIdentifiers(any());
+
+        index.start();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!index.isBuilt() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(index.isBuilt());
+
+            assertTrue(index.mightContainUsername("alice"));
+            assertTrue(index.mightContainUsername("bob"));
+            assertTrue(index.mightContainEmail("bob@example.com"));
+            assertFalse(index.mightContainUsername("carol"));
+        } finally {
+            index.stop();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void catchUpAddsUsersRegisteredOnOtherPods() {
+        UserJdbcRepository userJdbcRepository = mock(UserJdbcRepository.class);
+        IdentifierIndex index = index(userJdbcRepository, mock(UserRepository.class), 60_000);
+        index.rebuild("test");
+        assertFalse(index.mightContainUsername("carol"));
+
+        doAnswer(invocation -> {
+            BiConsumer<String, String> sink = invocation.getArgument(1);
+            sink.accept("alice", "alice@example.com");
+            sink.accept("carol", "carol@example.com");
+            return null;
+        }).when(userJdbcRepository).streamIdentifiersCreatedSince(any(), any());
+        index.catchUp();
+
+        assertTrue(index.mightContainUsername("carol"));
+        assertTrue(index.mightContainEmail("carol@example.com"));
+        assertFalse(index.mightContainUsername("dave"));
+    }
+
+    @Test
+    void absentFromAStaleFilterIsAskedOfTheDatabase() throws InterruptedException {
+        UserJdbcRepository userJdbcRepository = mock(UserJdbcRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.existsByUsername("carol")).thenReturn(true);
+        IdentifierIndex index = index(userJdbcRepository, userRepository, 1);
+        index.rebuild("test");
+        doThrow(new IllegalStateException("database down")).when(userJdbcRepository).streamIdentifiersCreatedSince(any(), any());
+
+        index.catchUp();
+        Thread.sleep(5);
+
+        assertTrue(index.isUsernameTaken("carol"));
+        verify(userRepository).existsByUsername("carol");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static IdentifierIndex index(UserJdbcRepository userJdbcRepository, UserRepository userRepository, long maxAgeMs) {
+        doAnswer(invocation -> {
+            BiConsumer<String, String> sink = invocation.getArgument(0);
+            sink.accept("alice", "alice@example.com");
+            return null;
+        }).when(userJdbcRepository).streamIdentifiers(any());
+        return new IdentifierIndex(userRepository, userJdbcRepository, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), true, 1_000, 0.01, 0.1, 0, 0, maxAgeMs);
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.monyormsauth.auth.service;
+
+import com.example.monyormsauth.auth.model.entity.AppUser;
+import com.example.monyormsauth.auth.model.entity.RefreshToken;
+import com.example.monyormsauth.auth.repository.RefreshTokenRepository;
+import com.example.monyormsauth.auth.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InMemoryRefreshTokenStoreTests {
+
+    private final RefreshTokenRepository repository = mock(RefreshTokenRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    // Tokens passed to saveAll, in call order
+    private final List<String> saved = new ArrayList<>();
+    private InMemoryRefreshTokenStore store;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(userRepository.getReferenceById(anyLong()))
+                .thenAnswer(invocation -> AppUser.builder().id(invocation.getArgument(0)).build());
+        doAnswer(invocation -> {
+            ((Iterable<RefreshToken>) invocation.getArgument(0)).forEach(token -> saved.add(token.getToken()));
+            return List.of();
+        }).when(repository).saveAll(any());
+
+        // Not started: the tests call flush() themselves instead of the flusher thread
+        store = new InMemoryRefreshTokenStore(repository, userRepository, transactionTemplate, 4, 200, false);
+    }
+
+    @Test
+    void tokenCreatedAndDeletedBetweenFlushesNeverReachesTheDatabase() {
+        RefreshToken token = store.save(token("t1", 1L));
+        store.delete(token);
+
+        assertTrue(store.flush());
+        verify(repository, never()).saveAll(any());
+        verify(repository, never()).deleteAllByTokenIn(anyCollection());
+        assertTrue(store.findByToken("t1").isEmpty());
+    }
+
+    @Test
+    void savesAreBatchedIntoOneFlush() {
+        store.save(token("t1", 1L));
+        store.save(token("t2", 2L));
+
+        assertTrue(store.flush());
+        assertEquals(2, saved.size());
+        assertTrue(saved.containsAll(List.of("t1", "t2")));
+        assertTrue(store.flush());
+        assertEquals(2, saved.size());
+    }
+
+    @Test
+    void loginAfterLogoutSurvivesTheUserWideDelete() {
+        store.save(token("old", 1L));
+        store.flush();
+
+        store.deleteByUserId(1L);
+        store.save(token("new", 1L));
+        assertTrue(store.flush());
+
+        InOrder order = inOrder(repository);
+        order.verify(repository).deleteAllByUserIdIn(List.of(1L));
+        order.verify(repository).saveAll(any());
+        assertEquals(List.of("old", "new"), saved);
+        assertTrue(store.findByToken("old").isEmpty());
+        assertTrue(store.findByToken("new").isPresent());
+    }
+
+    @Test
+    void failedFlushIsRetriedInsteadOfDropped() {
+        store.save(token("t1", 1L));
+        RefreshToken revoked = store.save(token("t2", 2L));
+        store.flush();
+        saved.clear();
+
+        store.delete(revoked);
+        store.save(token("t3", 3L));
+        when(repository.deleteAllByTokenIn(anyCollection()))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"))
+                .thenReturn(1);
+
+        assertFalse(store.flush());
+        assertTrue(saved.isEmpty());
+
+        assertTrue(store.flush());
+        verify(repository, times(2)).deleteAllByTokenIn(List.of("t2"));
+        assertEquals(List.of("t3"), saved);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tokenDeletedDuringAFailedFlushIsNotPutBack() {
+        store.save(token("t1", 1L));
+        doAnswer(invocation -> {
+            // Logout lands while the flush is failing
+            store.deleteByUserId(1L);
+            throw new DataAccessResourceFailureException("connection refused");
+        }).when(repository).saveAll(any());
+
+        assertFalse(store.flush());
+
+        doAnswer(invocation -> {
+            ((Iterable<RefreshToken>) invocation.getArgument(0)).forEach(token -> saved.add(token.getToken()));
+            return List.of();
+        }).when(repository).saveAll(any());
+        assertTrue(store.flush());
+        verify(repository).deleteAllByUserIdIn(List.of(1L));
+        assertTrue(saved.isEmpty());
+    }
+
+    private static RefreshToken token(String value, Long userId) {
+        return RefreshToken.builder()
+                .token(value)
+                .user(AppUser.builder().id(userId).build())
+                .expiryDate(Instant.now().plus(7, ChronoUnit.DAYS))
+                .build();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.monyormsauth.auth.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LegacyTokenCutoverTests {
+
+    @Test
+    void unprefixedLookupsStopAtTheStartOfTheCutoverDay() {
+        LegacyTokenCutover cutover = new LegacyTokenCutover("2026-11-01");
+
+        assertTrue(cutover.unprefixedLookups(Instant.parse("2026-10-31T23:59:59.999Z")));
+        assertFalse(cutover.unprefixedLookups(Instant.parse("2026-11-01T00:00:00Z")));
+        assertFalse(cutover.unprefixedLookups(Instant.parse("2027-01-01T00:00:00Z")));
+    }
+
+    @Test
+    void withoutACutoverUnprefixedLookupsNeverStop() {
+        assertTrue(new LegacyTokenCutover("").unprefixedLookups(Instant.parse("2100-01-01T00:00:00Z")));
+        assertTrue(new LegacyTokenCutover(" ").unprefixedLookups());
+    }
+}
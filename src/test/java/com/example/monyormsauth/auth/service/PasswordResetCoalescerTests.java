@@ -0,0 +1,114 @@
+package com.example.monyormsauth.auth.service;
+
+import com.example.monyormsauth.auth.event.UserRevocationEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PasswordResetCoalescerTests {
+
+    @Test
+    void repeatsInsideWindowAreSuppressed() {
+        PasswordResetCoalescer coalescer = new PasswordResetCoalescer(new SimpleMeterRegistry(), 300, 1800, 100);
+
+        assertEquals(PasswordResetCoalescer.Action.ISSUE, claim(coalescer, 1L).action());
+        // Still pending: a concurrent repeat must not issue a second token either
+        assertEquals(PasswordResetCoalescer.Action.SUPPRESS, claim(coalescer, 1L).action());
+        coalescer.issued(1L, "t1");
+        assertEquals(PasswordResetCoalescer.Action.SUPPRESS, claim(coalescer, 1L).action());
+        assertEquals(PasswordResetCoalescer.Action.ISSUE, claim(coalescer, 2L).action());
+    }
+
+    @Test
+    void afterWindowTheValidTokenIsResent() {
+        PasswordResetCoalescer coalescer = new PasswordResetCoalescer(new SimpleMeterRegistry(), 0, 1800, 100);
+
+        PasswordResetCoalescer.Claim first = claim(coalescer, 1L);
+        assertEquals(PasswordResetCoalescer.Action.ISSUE, first.action());
+        assertNull(first.token());
+        coalescer.issued(1L, "t1");
+
+        PasswordResetCoalescer.Claim second = claim(coalescer, 1L);
+        assertEquals(PasswordResetCoalescer.Action.RESEND, second.action());
+        assertEquals("t1", second.token());
+        assertEquals(first.tokenExpiresAt(), second.tokenExpiresAt());
+    }
+
+    @Test
+    void tokenTooCloseToExpiryIsReplaced() {
+        long ttl = PasswordResetTokenService.TOKEN_TTL_SECONDS;
+        PasswordResetCoalescer coalescer = new PasswordResetCoalescer(new SimpleMeterRegistry(), 0, ttl + 1, 100);
+
+        claim(coalescer, 1L);
+        coalescer.issued(1L, "t1");
+        assertEquals(PasswordResetCoalescer.Action.ISSUE, claim(coalescer, 1L).action());
+    }
+
+    @Test
+    void resetAndDeletionForgetTheAccount() {
+        PasswordResetCoalescer coalescer = new PasswordResetCoalescer(new SimpleMeterRegistry(), 300, 1800, 100);
+
+        claim(coalescer, 1L);
+        claim(coalescer, 2L);
+        coalescer.forget(1L);
+        coalescer.onRevocation(new UserRevocationEvent(
+                List.of(2L), List.of("u2"), UserRevocationEvent.Reason.DELETED, Instant.now()));
+
+        assertEquals(0, coalescer.size());
+        assertEquals(PasswordResetCoalescer.Action.ISSUE, claim(coalescer, 1L).action());
+    }
+
+    @Test
+    void tokenThatNoLongerWorksIsNotResent() {
+        PasswordResetCoalescer coalescer = new PasswordResetCoalescer(new SimpleMeterRegistry(), 0, 1800, 100);
+
+        claim(coalescer, 1L);
+        coalescer.issued(1L, "t1");
+        // Used or purged since it was mailed
+        PasswordResetCoalescer.Claim claim = coalescer.claim(1L, token -> false);
+
+        assertEquals(PasswordResetCoalescer.Action.ISSUE, claim.action());
+        assertNull(claim.token());
+        coalescer.issued(1L, "t2");
+        assertEquals("t2", claim(coalescer, 1L).token());
+    }
+
+    @Test
+    void aboveCapUntrackedAccountsAreRefused() {
+        PasswordResetCoalescer coalescer = new PasswordResetCoalescer(new SimpleMeterRegistry(), 300, 1800, 2);
+
+        claim(coalescer, 1L);
+        claim(coalescer, 2L);
+        assertEquals(PasswordResetCoalescer.Action.REFUSE, claim(coalescer, 3L).action());
+        assertEquals(PasswordResetCoalescer.Action.REFUSE, claim(coalescer, 3L).action());
+        // Accounts already tracked are still coalesced as usual
+        assertEquals(PasswordResetCoalescer.Action.SUPPRESS, claim(coalescer, 1L).action());
+        assertEquals(2, coalescer.size());
+    }
+
+    @Test
+    void fullMapIsSweptAtMostOncePerInterval() {
+        // No window and no reuse: every entry is dead as soon as it is issued
+        long ttl = PasswordResetTokenService.TOKEN_TTL_SECONDS;
+        PasswordResetCoalescer coalescer = new PasswordResetCoalescer(new SimpleMeterRegistry(), 0, ttl + 1, 2);
+
+        claim(coalescer, 1L);
+        claim(coalescer, 2L);
+        assertEquals(PasswordResetCoalescer.Action.ISSUE, claim(coalescer, 3L).action());
+        assertEquals(1, coalescer.size());
+
+        claim(coalescer, 4L);
+        // Full of dead entries again, but the last sweep was just now
+        assertEquals(PasswordResetCoalescer.Action.REFUSE, claim(coalescer, 5L).action());
+        assertEquals(2, coalescer.size());
+    }
+
+    private static PasswordResetCoalescer.Claim claim(PasswordResetCoalescer coalescer, Long userId) {
+        return coalescer.claim(userId, token -> true);
+    }
+}
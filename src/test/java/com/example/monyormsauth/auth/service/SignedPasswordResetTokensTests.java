@@ -0,0 +1,110 @@
+package com.example.monyormsauth.auth.service;
+
+import com.example.monyormsauth.auth.exception.UserNotFoundException;
+import com.example.monyormsauth.auth.model.entity.AppUser;
+import com.example.monyormsauth.auth.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SignedPasswordResetTokensTests {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final SignedPasswordResetTokens tokens = new SignedPasswordResetTokens(userRepository, SECRET);
+    private AppUser user;
+
+    @BeforeEach
+    void createUser() {
+        user = AppUser.builder().id(7L).username("alice").password("$2a$10$hash-one").build();
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    void issuedTokenResolvesToItsUser() {
+        String token = tokens.issue(user);
+
+        assertSame(user, tokens.resolveUser(token));
+        assertTrue(tokens.isUsable(token));
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        String token = tokens.issue(user, Instant.now().minusSeconds(1));
+
+        UserNotFoundException e = assertThrows(UserNotFoundException.class, () -> tokens.resolveUser(token));
+        assertEquals("Password reset token expired", e.getMessage());
+        assertFalse(tokens.isUsable(token));
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        AppUser other = AppUser.builder().id(8L).username("bob").password("$2a$10$hash-two").build();
+        when(userRepository.findById(8L)).thenReturn(Optional.of(other));
+        String token = tokens.issue(user);
+        int dot = token.indexOf('.');
+
+        // Same signature, payload pointing at another user or a later expiry
+        String otherUser = encode(ByteBuffer.allocate(16).putLong(8L).putLong(Instant.now().plusSeconds(60).getEpochSecond()).array());
+        String later = encode(ByteBuffer.allocate(16).putLong(7L).putLong(Instant.now().plusSeconds(86_400).getEpochSecond()).array());
+        assertInvalid(otherUser + token.substring(dot));
+        assertInvalid(later + token.substring(dot));
+
+        // Flipped signature (the first character: the last one carries padding bits)
+        char first = token.charAt(dot + 1);
+        assertInvalid(token.substring(0, dot + 1) + (first == 'A' ? 'B' : 'A') + token.substring(dot + 2));
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        assertInvalid(null);
+        assertInvalid("");
+        assertInvalid("no-dot");
+        assertInvalid(".signature-only");
+        assertInvalid("!!!.???");
+        assertInvalid(encode(new byte[8]) + "." + encode(new byte[32]));
+    }
+
+    @Test
+    void passwordChangeInvalidatesTheToken() {
+        String token = tokens.issue(user);
+
+        user.setPassword("$2a$10$hash-new");
+        tokens.invalidate(user);
+
+        assertInvalid(token);
+        assertFalse(tokens.isUsable(token));
+        // A token issued for the new password works again
+        assertSame(user, tokens.resolveUser(tokens.issue(user)));
+    }
+
+    @Test
+    void tokenOfADeletedUserIsRejected() {
+        String token = tokens.issue(user);
+        when(userRepository.findById(7L)).thenReturn(Optional.empty());
+
+        assertInvalid(token);
+    }
+
+    private void assertInvalid(String token) {
+        UserNotFoundException e = assertThrows(UserNotFoundException.class, () -> tokens.resolveUser(token));
+        assertEquals("Invalid or expired password reset token", e.getMessage());
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.monyormsauth.auth.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The statements one maintenance run issues, against a mocked session: no PostgreSQL needed.
+ */
+class TokenPartitionMaintenanceTests {
+
+    private static final int TODAY = (int) LocalDate.of(2026, 10, 19).toEpochDay();
+
+    private final JdbcTemplate session = mock(JdbcTemplate.class);
+
+    @Test
+    void partitionIsNamedAfterItsUtcDay() {
+        assertEquals("refresh_token_p20261019", TokenPartitionMaintenance.partitionName("refresh_token", TODAY));
+        assertEquals("password_reset_token_p20270101",
+                TokenPartitionMaintenance.partitionName("password_reset_token", (int) LocalDate.of(2027, 1, 1).toEpochDay()));
+        assertEquals("refresh_token_p19700101", TokenPartitionMaintenance.partitionName("refresh_token", 0));
+    }
+
+    @Test
+    void createsTodayAndTheDaysAhead() {
+        existing("refresh_token");
+        existing("password_reset_token");
+
+        new TokenPartitionMaintenance(session, 2, 1).maintain(session, TODAY);
+
+        assertEquals(List.of(
+                create("refresh_token", TODAY), create("refresh_token", TODAY + 1), create("refresh_token", TODAY + 2),
+                create("password_reset_token", TODAY), create("password_reset_token", TODAY + 1),
+                create("password_reset_token", TODAY + 2)), executed());
+    }
+
+    @Test
+    void dropsOnlyPartitionsOlderThanTheRetainedDays() {
+        existing("refresh_token",
+                partition("refresh_token_p20261015", false),
+                partition("refresh_token_p20261016", false),
+                partition("refresh_token_p20261017", false),
+                partition("refresh_token_p20261018", false),
+                partition("refresh_token_p20261019", false),
+                partition("refresh_token_default", false));
+        existing("password_reset_token");
+
+        new TokenPartitionMaintenance(session, 0, 2).maintain(session, TODAY);
+
+        // retainDays 2: day 17 is the oldest kept, 15 and 16 go, the default partition is not ours
+        assertEquals(List.of(
+                create("refresh_token", TODAY),
+                "ALTER TABLE refresh_token DETACH PARTITION refresh_token_p20261015 CONCURRENTLY",
+                "DROP TABLE IF EXISTS refresh_token_p20261015",
+                "ALTER TABLE refresh_token DETACH PARTITION refresh_token_p20261016 CONCURRENTLY",
+                "DROP TABLE IF EXISTS refresh_token_p20261016",
+                create("password_reset_token", TODAY)), executed());
+    }
+
+    @Test
+    void interruptedDetachIsFinalized() {
+        existing("refresh_token");
+        existing("password_reset_token", partition("password_reset_token_p20261001", true));
+
+        new TokenPartitionMaintenance(session, 0, 1).maintain(session, TODAY);
+
+        assertEquals(List.of(
+                create("refresh_token", TODAY),
+                create("password_reset_token", TODAY),
+                "ALTER TABLE password_reset_token DETACH PARTITION password_reset_token_p20261001 FINALIZE",
+                "DROP TABLE IF EXISTS password_reset_token_p20261001"), executed());
+    }
+
+    @Test
+    void failureOnOneTableDoesNotStopTheOther() {
+        doThrow(new DataAccessResourceFailureException("lock timeout")).when(session).execute(create("refresh_token", TODAY));
+        existing("password_reset_token");
+
+        new TokenPartitionMaintenance(session, 0, 1).maintain(session, TODAY);
+
+        assertEquals(List.of(create("refresh_token", TODAY), create("password_reset_token", TODAY)), executed());
+    }
+
+    private static String create(String table, int day) {
+        return "CREATE TABLE IF NOT EXISTS " + TokenPartitionMaintenance.partitionName(table, day)
+                + " PARTITION OF " + table + " FOR VALUES FROM (" + day + ") TO (" + (day + 1) + ")";
+    }
+
+    private static String[] partition(String name, boolean detachPending) {
+        return new String[]{name, String.valueOf(detachPending)};
+    }
+
+    // Answers the pg_inherits query for table through the real row mapper
+    @SuppressWarnings("unchecked")
+    private void existing(String table, String[]... partitions) {
+        when(session.query(anyString(), any(RowMapper.class), eq(table))).thenAnswer(invocation -> {
+            RowMapper<Object> mapper = invocation.getArgument(1);
+            List<Object> rows = new ArrayList<>();
+            for (String[] partition : partitions) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString(1)).thenReturn(partition[0]);
+                when(rs.getBoolean(2)).thenReturn(Boolean.parseBoolean(partition[1]));
+                rows.add(mapper.mapRow(rs, rows.size()));
+            }
+            return rows;
+        });
+    }
+
+    private List<String> executed() {
+        ArgumentCaptor<String> statements = ArgumentCaptor.forClass(String.class);
+        verify(session, atLeastOnce()).execute(statements.capture());
+        return statements.getAllValues();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.monyormsauth.auth.service;
+
+import com.example.monyormsauth.auth.event.UserRevocationEvent;
+import com.example.monyormsauth.auth.repository.UserJdbcRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationRegistryTests {
+
+    private static final long ISSUED = 1_700_000_000_123L;
+
+    private final UserJdbcRepository userJdbcRepository = mock(UserJdbcRepository.class);
+
+    @Test
+    void revocationWrittenByAnotherPodIsSeenAfterTheCheckInterval() {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(userJdbcRepository, 60_000, 100);
+        when(userJdbcRepository.findTokensValidAfter(7L)).thenReturn(OptionalLong.of(0));
+        assertFalse(registry.isRevoked(compact(7L, ISSUED)));
+
+        // Cached: the column changed, but this pod has not looked again yet
+        when(userJdbcRepository.findTokensValidAfter(7L)).thenReturn(OptionalLong.of(ISSUED + 1));
+        assertFalse(registry.isRevoked(compact(7L, ISSUED)));
+        verify(userJdbcRepository, times(1)).findTokensValidAfter(7L);
+
+        TokenRevocationRegistry restarted = new TokenRevocationRegistry(userJdbcRepository, 60_000, 100);
+        assertTrue(restarted.isRevoked(compact(7L, ISSUED)));
+        assertFalse(restarted.isRevoked(compact(7L, ISSUED + 1)));
+    }
+
+    @Test
+    void localRevocationAppliesWithoutWaitingForTheInterval() {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(userJdbcRepository, 60_000, 100);
+        when(userJdbcRepository.findTokensValidAfter(7L)).thenReturn(OptionalLong.of(0));
+        long issued = System.currentTimeMillis() - 1;
+        assertFalse(registry.isRevoked(compact(7L, issued)));
+
+        registry.onRevocation(new UserRevocationEvent(List.of(7L), List.of("alice"),
+                UserRevocationEvent.Reason.ROLE_CHANGED, Instant.now()));
+
+        assertTrue(registry.isRevoked(compact(7L, issued)));
+        assertTrue(registry.isRevoked(legacy("alice", issued)));
+        assertFalse(registry.isRevoked(compact(7L, System.currentTimeMillis() + 1)));
+    }
+
+    @Test
+    void tokensOfMissingUsersAreRevoked() {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(userJdbcRepository, 60_000, 100);
+        when(userJdbcRepository.findTokensValidAfter(7L)).thenReturn(OptionalLong.empty());
+
+        assertTrue(registry.isRevoked(compact(7L, System.currentTimeMillis())));
+    }
+
+    @Test
+    void reusedUsernameIsReadAgainFromTheRow() {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(userJdbcRepository, 0, 100);
+        registry.onRevocation(new UserRevocationEvent(List.of(7L), List.of("alice"),
+                UserRevocationEvent.Reason.DELETED, Instant.now()));
+        assertTrue(registry.isRevoked(legacy("alice", ISSUED)));
+
+        // A new "alice" registered after the deletion; tokens_valid_after starts at her creation
+        when(userJdbcRepository.findTokensValidAfterByUsername("alice")).thenReturn(OptionalLong.of(ISSUED + 1000));
+
+        assertTrue(registry.isRevoked(legacy("alice", ISSUED)));
+        assertFalse(registry.isRevoked(legacy("alice", ISSUED + 1000)));
+    }
+
+    private static AccessToken compact(long userId, long issuedAt) {
+        return new AccessToken(2, Long.toString(userId), userId, List.of(), issuedAt, issuedAt / 1000 + 3600);
+    }
+
+    private static AccessToken legacy(String username, long issuedAt) {
+        return new AccessToken(1, username, null, List.of(), issuedAt, issuedAt / 1000 + 3600);
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.monyormsauth.auth.service;
+
+import com.example.monyormsauth.auth.dto.UserFilter;
+import com.example.monyormsauth.auth.dto.UserPage;
+import com.example.monyormsauth.auth.dto.UserSummary;
+import com.example.monyormsauth.auth.model.entity.AppUser;
+import com.example.monyormsauth.auth.model.enumerator.ERole;
+import com.example.monyormsauth.auth.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Keyset pagination and the streaming export against the test database. Users are created under a
+ * unique prefix, so rows left by other tests never match the filters.
+ */
+@SpringBootTest(properties = "users.maxPageSize=3")
+@ActiveProfiles("test")
+class UserAdminServiceListingTests {
+
+    @Autowired
+    private UserAdminService userAdminService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String prefix;
+    private final List<AppUser> users = new ArrayList<>();
+
+    @BeforeEach
+    void createUsers() {
+        prefix = "list-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        // Even indexes are admins, odd ones users; the last one is both and must still appear once
+        for (int i = 0; i < 7; i++) {
+            users.add(userRepository.save(AppUser.builder()
+                    .username(prefix + i)
+                    .email(prefix + i + "@example.com")
+                    .password("not-used")
+                    .roles(i == 6 ? Set.of(ERole.ADMIN, ERole.USER) : Set.of(i % 2 == 0 ? ERole.ADMIN : ERole.USER))
+                    .build()));
+        }
+    }
+
+    @AfterEach
+    void deleteUsers() {
+        users.forEach(user -> userRepository.findById(user.getId()).ifPresent(userRepository::delete));
+    }
+
+    @Test
+    void cursorWalksEveryFilteredUserOnce() {
+        UserFilter filter = UserFilter.builder().usernamePrefix(prefix).role(ERole.ADMIN).build();
+
+        List<List<Long>> pages = walk(filter, 3);
+
+        assertEquals(List.of(List.of(id(0), id(2), id(4)), List.of(id(6))), pages);
+    }
+
+    @Test
+    void fullLastPageEndsWithoutACursor() {
+        UserFilter filter = UserFilter.builder().usernamePrefix(prefix).role(ERole.USER).build();
+
+        // 4 users in pages of 2: the second page is full, yet there is nothing after it
+        List<List<Long>> pages = walk(filter, 2);
+
+        assertEquals(List.of(List.of(id(1), id(3)), List.of(id(5), id(6))), pages);
+    }
+
+    @Test
+    void cursorPastTheLastMatchGivesAnEmptyPage() {
+        UserFilter filter = UserFilter.builder().usernamePrefix(prefix).build();
+
+        UserPage page = userAdminService.listUsers(filter, id(6), 3);
+
+        assertEquals(List.of(), page.getItems());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void limitIsClampedToOneAndTheMaximumPageSize() {
+        UserFilter filter = UserFilter.builder().usernamePrefix(prefix).build();
+
+        assertEquals(1, userAdminService.listUsers(filter, null, 0).getItems().size());
+        assertEquals(1, userAdminService.listUsers(filter, null, -5).getItems().size());
+        UserPage capped = userAdminService.listUsers(filter, null, 1000);
+        assertEquals(3, capped.getItems().size());
+        assertNotNull(capped.getNextCursor());
+        assertEquals(List.of(List.of(id(0), id(1), id(2)), List.of(id(3), id(4), id(5)), List.of(id(6))),
+                walk(filter, 1000));
+    }
+
+    @Test
+    void exportWritesEveryMatchingUserExactlyOnce() throws Exception {
+        assertEquals(ids(0, 1, 2, 3, 4, 5, 6), exported(UserFilter.builder().usernamePrefix(prefix).build()));
+        assertEquals(ids(1, 3, 5, 6), exported(UserFilter.builder().usernamePrefix(prefix).role(ERole.USER).build()));
+        assertEquals(List.of(), exported(UserFilter.builder().usernamePrefix(prefix + "none").build()));
+    }
+
+    private List<List<Long>> walk(UserFilter filter, int limit) {
+        List<List<Long>> pages = new ArrayList<>();
+        Long cursor = null;
+        do {
+            UserPage page = userAdminService.listUsers(filter, cursor, limit);
+            pages.add(page.getItems().stream().map(UserSummary::getId).toList());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return pages;
+    }
+
+    private List<Long> exported(UserFilter filter) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        userAdminService.exportUsers(filter, out);
+        List<Long> ids = new ArrayList<>();
+        objectMapper.readerFor(UserSummary.class).<UserSummary>readValues(out.toByteArray())
+                .forEachRemaining(user -> ids.add(user.getId()));
+        ids.sort(null);
+        return ids;
+    }
+
+    private Long id(int index) {
+        return users.get(index).getId();
+    }
+
+    private List<Long> ids(int... indexes) {
+        List<Long> ids = new ArrayList<>();
+        for (int index : indexes) {
+            ids.add(id(index));
+        }
+        return ids;
+    }
+}
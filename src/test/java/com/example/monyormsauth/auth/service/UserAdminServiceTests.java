@@ -0,0 +1,167 @@
+package com.example.monyormsauth.auth.service;
+
+import com.example.monyormsauth.auth.dto.BulkDeleteRequest;
+import com.example.monyormsauth.auth.dto.BulkResult;
+import com.example.monyormsauth.auth.dto.BulkRoleRequest;
+import com.example.monyormsauth.auth.dto.UserFilter;
+import com.example.monyormsauth.auth.event.UserRevocationEvent;
+import com.example.monyormsauth.auth.filter.JwtAuthFilter;
+import com.example.monyormsauth.auth.model.entity.AppUser;
+import com.example.monyormsauth.auth.model.enumerator.ERole;
+import com.example.monyormsauth.auth.repository.UserJdbcRepository;
+import com.example.monyormsauth.auth.repository.UserRepository;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bulk role change and delete end to end: chunking, row locks and statements against the test
+ * database, one revocation event per chunk, and the effect of those events in {@link JwtAuthFilter}.
+ */
+@SpringBootTest(properties = "users.bulk.chunkSize=2")
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class UserAdminServiceTests {
+
+    @Autowired
+    private UserAdminService userAdminService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserJdbcRepository userJdbcRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private JwtAuthFilter jwtAuthFilter;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private String prefix;
+    private final List<AppUser> users = new ArrayList<>();
+
+    @BeforeEach
+    void createUsers() {
+        prefix = "bulk-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        for (int i = 0; i < 3; i++) {
+            users.add(userRepository.save(AppUser.builder()
+                    .username(prefix + i)
+                    .email(prefix + i + "@example.com")
+                    .password("not-used")
+                    .roles(Set.of(ERole.USER))
+                    .build()));
+        }
+    }
+
+    @AfterEach
+    void deleteUsers() {
+        users.forEach(user -> userRepository.findById(user.getId()).ifPresent(userRepository::delete));
+    }
+
+    @Test
+    void bulkRoleChangeRevokesTokensIssuedBeforeIt() throws Exception {
+        List<String> before = users.stream().map(jwtService::generateToken).toList();
+        Thread.sleep(2); // the revocation must land in a later millisecond than the tokens above
+
+        BulkRoleRequest request = new BulkRoleRequest();
+        // Duplicates are merged; an unknown id is locked by nobody and counted by nobody
+        request.setIds(List.of(ids().get(0), ids().get(1), ids().get(2), ids().get(0), Long.MAX_VALUE));
+        request.setRole(ERole.ADMIN);
+        BulkResult result = userAdminService.assignRole(request);
+
+        assertEquals(3, result.getAffectedUsers());
+        assertEquals(2, result.getChunks()); // 4 distinct ids, 2 per chunk
+        assertEquals(2, revocations(UserRevocationEvent.Reason.ROLE_CHANGED));
+        for (AppUser user : users) {
+            assertEquals(Set.of(ERole.ADMIN), userRepository.findById(user.getId()).orElseThrow().getRoles());
+        }
+
+        before.forEach(token -> assertFalse(authenticates(token)));
+        // Issued right after the change, very likely within the same second: accepted
+        users.forEach(user -> assertTrue(authenticates(jwtService.generateToken(userRepository.findById(user.getId()).orElseThrow()))));
+    }
+
+    @Test
+    void bulkRoleChangeIsSeenWithoutTheEvent() throws Exception {
+        List<String> before = users.stream().map(jwtService::generateToken).toList();
+        Thread.sleep(2);
+
+        BulkRoleRequest request = new BulkRoleRequest();
+        request.setIds(ids());
+        request.setRole(ERole.ADMIN);
+        userAdminService.assignRole(request);
+
+        // Another pod, or this one after a restart: only the database knows about the change
+        TokenRevocationRegistry elsewhere = new TokenRevocationRegistry(userJdbcRepository, 60_000, 100);
+        before.forEach(token -> assertTrue(elsewhere.isRevoked(jwtService.parseAccessToken(token))));
+        users.forEach(user -> assertFalse(elsewhere.isRevoked(jwtService.parseAccessToken(
+                jwtService.generateToken(userRepository.findById(user.getId()).orElseThrow())))));
+    }
+
+    @Test
+    void bulkDeleteByFilterRevokesTokensOfDeletedUsers() throws Exception {
+        List<String> before = users.stream().map(jwtService::generateToken).toList();
+        Thread.sleep(2);
+
+        BulkDeleteRequest request = new BulkDeleteRequest();
+        request.setFilter(UserFilter.builder().usernamePrefix(prefix).build());
+        BulkResult result = userAdminService.deleteUsers(request);
+
+        assertEquals(3, result.getAffectedUsers());
+        assertEquals(2, result.getChunks());
+        assertEquals(2, revocations(UserRevocationEvent.Reason.DELETED));
+        users.forEach(user -> assertTrue(userRepository.findById(user.getId()).isEmpty()));
+
+        before.forEach(token -> assertFalse(authenticates(token)));
+    }
+
+    private List<Long> ids() {
+        return users.stream().map(AppUser::getId).toList();
+    }
+
+    private long revocations(UserRevocationEvent.Reason reason) {
+        return events.stream(UserRevocationEvent.class)
+                .filter(event -> event.reason() == reason)
+                .filter(event -> event.userIds().stream().anyMatch(ids()::contains))
+                .count();
+    }
+
+    private boolean authenticates(String token) {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/auth/users");
+        request.setServletPath("/api/auth/users");
+        request.addHeader("Authorization", "Bearer " + token);
+        try {
+            jwtAuthFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication() != null;
+        } catch (ServletException | IOException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.monyormsauth.auth.soak;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Takes the point-in-time measurements of a soak run and writes them as CSV.
+ */
+final class SoakSampler {
+
+    static final String CSV_HEADER = "elapsed_s,heap_after_gc_bytes,threads,hikari_active,hikari_idle,hikari_total,"
+            + "hikari_waiting,refresh_tokens,reset_tokens,requests,errors,shed";
+
+    record Sample(long elapsedSeconds, long heapAfterGcBytes, long threads,
+                  long hikariActive, long hikariIdle, long hikariTotal, long hikariWaiting,
+                  long refreshTokens, long resetTokens,
+                  long requests, long errors, long shed) {
+
+        String toCsv() {
+            return elapsedSeconds + "," + heapAfterGcBytes + "," + threads + ","
+                    + hikariActive + "," + hikariIdle + "," + hikariTotal + "," + hikariWaiting + ","
+                    + refreshTokens + "," + resetTokens + ","
+                    + requests + "," + errors + "," + shed;
+        }
+    }
+
+    private final HikariPoolMXBean pool;
+    private final JdbcTemplate jdbcTemplate;
+
+    SoakSampler(DataSource dataSource, JdbcTemplate jdbcTemplate) throws SQLException {
+        this.pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    Sample sample(long elapsedSeconds, long requests, long errors, long shed) {
+        return new Sample(elapsedSeconds, heapAfterGc(), ManagementFactory.getThreadMXBean().getThreadCount(),
+                pool.getActiveConnections(), pool.getIdleConnections(), pool.getTotalConnections(),
+                pool.getThreadsAwaitingConnection(),
+                count("refresh_token"), count("password_reset_token"),
+                requests, errors, shed);
+    }
+
+    static void writeCsv(Path file, List<Sample> samples) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+            for (Sample sample : samples) {
+                writer.write(sample.toCsv());
+                writer.write('\n');
+            }
+        }
+    }
+
+    // Collection usage is what each heap pool held right after its last collection, so the sum after a
+    // full GC is the live set rather than whatever garbage the load generator produced since
+    private static long heapAfterGc() {
+        System.gc();
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage usage = pool.getType() == MemoryType.HEAP ? pool.getCollectionUsage() : null;
+            if (usage != null) {
+                used += usage.getUsed();
+            }
+        }
+        return used;
+    }
+
+    private long count(String table) {
+        Long rows = jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Long.class);
+        return rows == null ? 0 : rows;
+    }
+}
@@ -0,0 +1,296 @@
+package com.example.monyormsauth.auth.soak;
+
+import com.example.monyormsauth.auth.model.entity.AppUser;
+import com.example.monyormsauth.auth.model.enumerator.ERole;
+import com.example.monyormsauth.auth.repository.UserRepository;
+import com.example.monyormsauth.auth.service.EmailService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Drives a login / refresh / logout / reset mix against the application on embedded H2 for
+ * {@code soak.duration} and fails if heap after GC, thread count, Hikari usage or the token tables
+ * keep growing. Run with {@code ./gradlew soak}; every sample is written to
+ * {@code build/reports/soak/soak-<timestamp>.csv}.
+ *
+ * <p>System properties (passed through from {@code -Psoak.*}): {@code duration} (ISO-8601, default PT2H),
+ * {@code sampleInterval} (PT1M), {@code clients} (8), {@code users} (200), {@code warmupFraction} (0.2),
+ * {@code heapTolerance} (0.15), {@code rowTolerance} (0.1), {@code maxErrorRate} (0.001), {@code reportDir}.
+ */
+@Tag("soak")
+@ActiveProfiles("soak")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class SoakTests {
+
+    private static final Duration DURATION = Duration.parse(System.getProperty("soak.duration", "PT2H"));
+    private static final Duration SAMPLE_INTERVAL = Duration.parse(System.getProperty("soak.sampleInterval", "PT1M"));
+    private static final int CLIENTS = Integer.getInteger("soak.clients", 8);
+    private static final int USERS = Integer.getInteger("soak.users", 200);
+    private static final double WARMUP_FRACTION = Double.parseDouble(System.getProperty("soak.warmupFraction", "0.2"));
+    private static final double HEAP_TOLERANCE = Double.parseDouble(System.getProperty("soak.heapTolerance", "0.15"));
+    private static final double ROW_TOLERANCE = Double.parseDouble(System.getProperty("soak.rowTolerance", "0.1"));
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("soak.maxErrorRate", "0.001"));
+    private static final Path REPORT_DIR = Path.of(System.getProperty("soak.reportDir", "build/reports/soak"));
+
+    private static final String PASSWORD = "Soak#Pass1";
+    private static final Pattern RESET_TOKEN = Pattern.compile("token=([^\"&]+)");
+    private static final Pattern REFRESH_TOKEN = Pattern.compile("\"refreshToken\":\"([^\"]+)\"");
+    private static final int LOGGED_ERRORS = 20;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private EmailService emailService;
+
+    // email -> reset token from the last mail
+    private final Map<String, String> mailbox = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final AtomicInteger loggedErrors = new AtomicInteger();
+
+    private HttpClient http;
+
+    @Test
+    void memoryAndTablesStayFlat() throws Exception {
+        doAnswer(invocation -> {
+            Matcher matcher = RESET_TOKEN.matcher(invocation.getArgument(2, String.class));
+            if (matcher.find()) {
+                mailbox.put(invocation.getArgument(0), matcher.group(1));
+            }
+            return CompletableFuture.completedFuture(null);
+        }).when(emailService).sendEmail(anyString(), anyString(), anyString());
+
+        List<VirtualUser> users = seedUsers();
+        http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        SoakSampler sampler = new SoakSampler(dataSource, jdbcTemplate);
+        List<SoakSampler.Sample> samples = Collections.synchronizedList(new ArrayList<>());
+
+        long start = System.nanoTime();
+        long deadline = start + DURATION.toNanos();
+        ScheduledExecutorService sampling = Executors.newSingleThreadScheduledExecutor();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            sampling.scheduleAtFixedRate(() -> samples.add(sample(sampler, start)),
+                    0, SAMPLE_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+
+            List<Future<?>> running = new ArrayList<>();
+            for (int client = 0; client < CLIENTS; client++) {
+                List<VirtualUser> own = new ArrayList<>();
+                for (int i = client; i < users.size(); i += CLIENTS) {
+                    own.add(users.get(i));
+                }
+                long seed = client;
+                running.add(clients.submit(() -> drive(own, new Random(seed), deadline)));
+            }
+            for (Future<?> future : running) {
+                future.get();
+            }
+        } finally {
+            clients.shutdownNow();
+            sampling.shutdownNow();
+            sampling.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        samples.add(sample(sampler, start));
+
+        Path report = REPORT_DIR.resolve("soak-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".csv");
+        SoakSampler.writeCsv(report, samples);
+        System.out.printf("soak: %d requests, %d errors, %d shed, %d samples -> %s%n",
+                requests.sum(), errors.sum(), shed.sum(), samples.size(), report.toAbsolutePath());
+
+        List<String> failures = new ArrayList<>();
+        check(failures, samples, "heap_after_gc_bytes", SoakSampler.Sample::heapAfterGcBytes, HEAP_TOLERANCE, 16L << 20);
+        check(failures, samples, "threads", SoakSampler.Sample::threads, 0, 8);
+        check(failures, samples, "hikari_active", SoakSampler.Sample::hikariActive, 0, 2);
+        check(failures, samples, "hikari_waiting", SoakSampler.Sample::hikariWaiting, 0, 2);
+        check(failures, samples, "refresh_tokens", SoakSampler.Sample::refreshTokens, ROW_TOLERANCE, USERS / 10);
+        check(failures, samples, "reset_tokens", SoakSampler.Sample::resetTokens, ROW_TOLERANCE, USERS / 10);
+        if (errors.sum() > MAX_ERROR_RATE * requests.sum()) {
+            failures.add(errors.sum() + " of " + requests.sum() + " requests failed");
+        }
+        assertTrue(failures.isEmpty(), String.join("\n", failures) + "\nreport: " + report.toAbsolutePath());
+    }
+
+    private List<VirtualUser> seedUsers() {
+        String hash = passwordEncoder.encode(PASSWORD);
+        List<AppUser> accounts = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            accounts.add(AppUser.builder()
+                    .username("soak-" + i)
+                    .email("soak-" + i + "@example.com")
+                    .password(hash)
+                    .roles(Set.of(ERole.USER))
+                    .build());
+        }
+        List<VirtualUser> users = new ArrayList<>();
+        for (AppUser account : userRepository.saveAll(accounts)) {
+            users.add(new VirtualUser(account.getUsername(), account.getEmail()));
+        }
+        return users;
+    }
+
+    private SoakSampler.Sample sample(SoakSampler sampler, long start) {
+        long elapsed = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start);
+        return sampler.sample(elapsed, requests.sum(), errors.sum(), shed.sum());
+    }
+
+    // Each client owns its users, so a user's session state is only touched by one thread
+    private void drive(List<VirtualUser> own, Random random, long deadline) {
+        while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+            VirtualUser user = own.get(random.nextInt(own.size()));
+            int dice = random.nextInt(100);
+            if (dice < 40) {
+                login(user);
+            } else if (dice < 75) {
+                refresh(user);
+            } else if (dice < 90) {
+                logout(user);
+            } else {
+                // One in five reset mails is never used
+                reset(user, random.nextInt(5) == 0);
+            }
+        }
+    }
+
+    private void login(VirtualUser user) {
+        String body = send("/api/auth/login",
+                "{\"identifier\":\"" + user.username + "\",\"password\":\"" + PASSWORD + "\"}", 200);
+        Matcher matcher = body == null ? null : REFRESH_TOKEN.matcher(body);
+        if (matcher != null && matcher.find()) {
+            user.refreshToken = matcher.group(1);
+        }
+    }
+
+    private void refresh(VirtualUser user) {
+        if (user.refreshToken == null) {
+            login(user);
+            return;
+        }
+        post("/api/auth/refresh-token", "{\"refreshToken\":\"" + user.refreshToken + "\"}", 200);
+    }
+
+    private void logout(VirtualUser user) {
+        if (post("/api/auth/logout?username=" + user.username, "", 204)) {
+            user.refreshToken = null;
+        }
+    }
+
+    private void reset(VirtualUser user, boolean abandon) {
+        mailbox.remove(user.email);
+        if (!post("/api/auth/forgot-password", "{\"email\":\"" + user.email + "\"}", 204) || abandon) {
+            return;
+        }
+        // No mail when the request was coalesced with an earlier one
+        Optional.ofNullable(mailbox.remove(user.email)).ifPresent(token -> post("/api/auth/reset-password",
+                "{\"token\":\"" + token + "\",\"newPassword\":\"" + PASSWORD + "\"}", 204));
+    }
+
+    private boolean post(String path, String json, int expectedStatus) {
+        return send(path, json, expectedStatus) != null;
+    }
+
+    // Response body when the status matches, otherwise null
+    private String send(String path, String json, int expectedStatus) {
+        requests.increment();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            int status = response.statusCode();
+            if (status == expectedStatus) {
+                return response.body();
+            }
+            if (status == 503) {
+                // Shed by the concurrency limiter; expected under load, reported separately
+                shed.increment();
+            } else {
+                error(path + " -> " + status);
+            }
+        } catch (IOException e) {
+            error(path + " -> " + e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private void error(String message) {
+        errors.increment();
+        if (loggedErrors.incrementAndGet() <= LOGGED_ERRORS) {
+            System.out.println("soak error: " + message);
+        }
+    }
+
+    private static void check(List<String> failures, List<SoakSampler.Sample> samples, String metric,
+                              ToLongFunction<SoakSampler.Sample> column, double relativeTolerance, long absoluteSlack) {
+        long[] values = samples.stream().mapToLong(column).toArray();
+        SoakTrend.check(metric, values, WARMUP_FRACTION, relativeTolerance, absoluteSlack).ifPresent(failures::add);
+    }
+
+    private static final class VirtualUser {
+        private final String username;
+        private final String email;
+        private String refreshToken;
+
+        private VirtualUser(String username, String email) {
+            this.username = username;
+            this.email = email;
+        }
+    }
+}
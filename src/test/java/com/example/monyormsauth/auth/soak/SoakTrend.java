@@ -0,0 +1,40 @@
+package com.example.monyormsauth.auth.soak;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Decides whether a sampled series kept growing: after dropping the warm-up share, the mean of the
+ * last quarter may exceed the mean of the first quarter by at most
+ * {@code max(absoluteSlack, head * relativeTolerance)}.
+ */
+final class SoakTrend {
+
+    private SoakTrend() {
+    }
+
+    /** Returns a failure message, or empty if the series stayed within the tolerance. */
+    static Optional<String> check(String metric, long[] values, double warmupFraction,
+                                  double relativeTolerance, long absoluteSlack) {
+        long[] steady = Arrays.copyOfRange(values, (int) (values.length * warmupFraction), values.length);
+        if (steady.length < 4) {
+            return Optional.of(metric + ": only " + steady.length + " samples after warm-up, need at least 4");
+        }
+        int quarter = steady.length / 4;
+        double head = mean(steady, 0, quarter);
+        double tail = mean(steady, steady.length - quarter, steady.length);
+        double allowed = Math.max(absoluteSlack, head * relativeTolerance);
+        if (tail - head > allowed) {
+            return Optional.of(String.format("%s grew from %.0f to %.0f (allowed +%.0f)", metric, head, tail, allowed));
+        }
+        return Optional.empty();
+    }
+
+    private static double mean(long[] values, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        return sum / (to - from);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.monyormsauth.auth.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountMinSketchTests {
+
+    @Test
+    void neverUndercountsAndStaysCloseOnAverage() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        SplittableRandom random = new SplittableRandom(42);
+        Map<Long, Integer> exact = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            // 5000 keys, skewed towards the low ones
+            long hash = random.nextLong(5_000) * random.nextLong(5_000) / 5_000 * 0x9E3779B97F4A7C15L;
+            sketch.add(hash, 1);
+            exact.merge(hash, 1, Integer::sum);
+        }
+
+        long overcount = 0;
+        for (Map.Entry<Long, Integer> entry : exact.entrySet()) {
+            int estimate = sketch.estimate(entry.getKey());
+            assertTrue(estimate >= entry.getValue(), "undercount for " + entry.getKey());
+            overcount += estimate - entry.getValue();
+        }
+        // Plain count-min bounds the error by e/width * N per key; conservative update stays well below
+        assertTrue((double) overcount / exact.size() < Math.E / 1024 * 100_000,
+                "mean overcount " + (double) overcount / exact.size());
+    }
+
+    @Test
+    void addReturnsTheNewEstimateAndClearResets() {
+        CountMinSketch sketch = new CountMinSketch(4, 100); // rounded up to 128
+        assertEquals(1, sketch.add(7L, 1));
+        assertEquals(6, sketch.add(7L, 5));
+        assertEquals(6, sketch.estimate(7L));
+
+        sketch.clear();
+        assertEquals(0, sketch.estimate(7L));
+    }
+
+    @Test
+    void saturatesInsteadOfOverflowing() {
+        CountMinSketch sketch = new CountMinSketch(2, 16);
+        sketch.add(1L, Integer.MAX_VALUE - 1);
+        assertEquals(Integer.MAX_VALUE, sketch.add(1L, 5));
+        assertEquals(Integer.MAX_VALUE, sketch.estimate(1L));
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.monyormsauth.auth.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeavyHitterTrackerTests {
+
+    private static final long WINDOW = 600_000;
+
+    @Test
+    void findsTheHeavyHittersAmong200kEvents() {
+        // Same shape as AbuseMonitor's defaults
+        HeavyHitterTracker tracker = new HeavyHitterTracker(WINDOW, 10, 50, 4, 4096);
+        SplittableRandom random = new SplittableRandom(7);
+        Map<String, Integer> exact = new HashMap<>();
+        long start = 1_700_000_000_000L;
+        int events = 200_000;
+        for (int i = 0; i < events; i++) {
+            // 10 attackers share 20% of the traffic, the rest is spread over 50k background keys
+            String key = random.nextInt(5) == 0 ? "attacker-" + random.nextInt(10) : "user-" + random.nextInt(50_000);
+            long now = start + (long) i * (WINDOW / 2) / events; // all inside one window
+            tracker.record(key, now);
+            exact.merge(key, 1, Integer::sum);
+        }
+        long now = start + WINDOW / 2;
+
+        List<HeavyHitterTracker.HeavyHitter> top = tracker.top(10, now);
+        assertEquals(10, top.size());
+        assertEquals(exact.keySet().stream().filter(k -> k.startsWith("attacker-")).collect(Collectors.toSet()),
+                top.stream().map(HeavyHitterTracker.HeavyHitter::key).collect(Collectors.toSet()));
+        for (HeavyHitterTracker.HeavyHitter hitter : top) {
+            int actual = exact.get(hitter.key());
+            assertTrue(hitter.count() >= actual, "undercount for " + hitter.key());
+            assertTrue(hitter.count() < actual * 1.05, hitter.key() + " estimated " + hitter.count() + " for " + actual);
+            assertTrue(tracker.isCandidate(hitter.key(), now));
+        }
+        assertFalse(tracker.isCandidate("user-1", now));
+    }
+
+    @Test
+    void countsSlideOutWithTheWindow() {
+        HeavyHitterTracker tracker = new HeavyHitterTracker(WINDOW, 10, 5, 4, 256);
+        long start = 1_700_000_000_000L;
+        for (int i = 0; i < 30; i++) {
+            tracker.record("ip-1", start);
+        }
+        tracker.record("ip-1", start + WINDOW / 2);
+
+        assertEquals(31, tracker.estimate("ip-1", start + WINDOW / 2));
+        // The first bucket has left the window, the later event is still in it
+        assertEquals(1, tracker.estimate("ip-1", start + WINDOW));
+        assertTrue(tracker.isCandidate("ip-1", start + WINDOW));
+        assertEquals(0, tracker.estimate("ip-1", start + 2 * WINDOW));
+        assertTrue(tracker.top(10, start + 2 * WINDOW).isEmpty());
+    }
+
+    @Test
+    void overcountBoundFollowsTheTrafficInTheWindow() {
+        HeavyHitterTracker tracker = new HeavyHitterTracker(WINDOW, 10, 5, 4, 1024);
+        long start = 1_700_000_000_000L;
+        assertEquals(0, tracker.overcountBound(start));
+        for (int i = 0; i < 10_000; i++) {
+            tracker.record("key-" + i, start);
+        }
+
+        // e/width of the 10k events
+        assertEquals(27, tracker.overcountBound(start));
+        assertEquals(0, tracker.overcountBound(start + WINDOW));
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.monyormsauth.auth.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTests {
+
+    private final AtomicInteger computations = new AtomicInteger();
+
+    @Test
+    void concurrentCallsShareOneComputation() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>(0);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> first = executor.submit(() -> flight.execute("k", () -> {
+                started.countDown();
+                await(release);
+                return computations.incrementAndGet();
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<Integer> second = executor.submit(() -> flight.execute("k", computations::incrementAndGet));
+            // Give the second caller time to join the in-flight call before it completes
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals(1, first.get(5, TimeUnit.SECONDS));
+            assertEquals(1, second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, computations.get());
+            assertEquals(0, flight.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failureIsNotCached() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>(60_000);
+
+        assertThrows(IllegalStateException.class, () -> flight.execute("k", () -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals(0, flight.size());
+        assertEquals(1, flight.execute("k", computations::incrementAndGet));
+    }
+
+    @Test
+    void resultIsReusedWithinTheWindowOnly() throws InterruptedException {
+        SingleFlight<String, Integer> flight = new SingleFlight<>(100);
+
+        assertEquals(1, flight.execute("k", computations::incrementAndGet));
+        assertEquals(1, flight.execute("k", computations::incrementAndGet));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (flight.size() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, flight.execute("k", computations::incrementAndGet));
+    }
+
+    @Test
+    void evictedResultIsRecomputed() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>(60_000);
+        flight.execute("a", computations::incrementAndGet);
+        flight.execute("b", computations::incrementAndGet);
+
+        flight.evict("a");
+        assertEquals(3, flight.execute("a", computations::incrementAndGet));
+        assertEquals(2, flight.execute("b", computations::incrementAndGet));
+
+        flight.evictIf(value -> value == 2);
+        assertEquals(4, flight.execute("b", computations::incrementAndGet));
+        assertEquals(3, flight.execute("a", computations::incrementAndGet));
+    }
+
+    @Test
+    void evictIfDropsCallsStillInFlight() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>(60_000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> inFlight = executor.submit(() -> flight.execute("k", () -> {
+                started.countDown();
+                await(release);
+                return computations.incrementAndGet();
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // Its result is not known yet, so it cannot be shown not to match
+            flight.evictIf(value -> false);
+            release.countDown();
+
+            assertEquals(1, inFlight.get(5, TimeUnit.SECONDS));
+            assertEquals(2, flight.execute("k", computations::incrementAndGet));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.monyormsauth.auth.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TokenPartitionsTests {
+
+    @Test
+    void tokenCarriesItsExpiryDay() {
+        Instant expiry = Instant.parse("2026-10-19T23:59:59.999Z");
+        int day = TokenPartitions.day(expiry);
+
+        assertEquals(LocalDate.of(2026, 10, 19).toEpochDay(), day);
+        assertEquals(day, TokenPartitions.dayOf(TokenPartitions.newToken(expiry)));
+        assertEquals(day + 1, TokenPartitions.day(expiry.plusMillis(1)));
+    }
+
+    @Test
+    void dayMatchesUtcDateBeforeTheEpoch() {
+        Instant expiry = LocalDate.of(1969, 12, 31).atTime(12, 0).toInstant(ZoneOffset.UTC);
+        assertEquals(-1, TokenPartitions.day(expiry));
+    }
+
+    @Test
+    void unprefixedTokensHaveNoDay() {
+        assertEquals(-1, TokenPartitions.dayOf("0b0f3c9e-5d4a-4f0e-9a8b-2c1d3e4f5a6b"));
+        assertEquals(-1, TokenPartitions.dayOf(".abc"));
+        assertEquals(-1, TokenPartitions.dayOf("1234567.abc"));
+        assertEquals(-1, TokenPartitions.dayOf("12a45.abc"));
+        assertEquals(-1, TokenPartitions.dayOf(null));
+    }
+}
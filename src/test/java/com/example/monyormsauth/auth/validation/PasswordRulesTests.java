@@ -0,0 +1,92 @@
+package com.example.monyormsauth.auth.validation;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PasswordRulesTests {
+
+    // The @Pattern the DTOs used before @PasswordPolicy
+    private static final Pattern LEGACY = Pattern.compile(
+            "^(?=.*[a-z])(?=.*[A-Z])(?=.*\\d)(?=.*[!@#$%^&*()_+])[A-Za-z\\d!@#$%^&*()_+]{8,}$");
+    private static final String ALPHABET = "aZ9!_+bY8@)(cX7# é-\n\t.€";
+
+    private final PasswordRules defaults = new PasswordRules(8, PasswordPolicy.MAX_LENGTH,
+            true, true, true, true, "!@#$%^&*()_+", false);
+
+    @Test
+    void defaultRulesAgreeWithLegacyPattern() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            String password = randomPassword(random, random.nextInt(16));
+            assertEquals(LEGACY.matcher(password).matches(), defaults.check(password) == null, password);
+        }
+    }
+
+    @Test
+    void reportsFirstBrokenRule() {
+        assertEquals(PasswordRules.Violation.TOO_SHORT, defaults.check("aB1!"));
+        assertEquals(PasswordRules.Violation.TOO_LONG, defaults.check("aB1!".repeat(PasswordPolicy.MAX_LENGTH)));
+        assertEquals(PasswordRules.Violation.INVALID_CHARACTER, defaults.check("aB1!aB1! "));
+        assertEquals(PasswordRules.Violation.NO_UPPERCASE, defaults.check("abc123!!"));
+        assertEquals(PasswordRules.Violation.NO_SPECIAL, defaults.check("abcDEF123"));
+        assertNull(defaults.check("abcDEF12!"));
+
+        PasswordRules relaxed = new PasswordRules(12, 64, false, false, true, false, "", true);
+        assertNull(relaxed.check("correct horse 1"));
+        assertEquals(PasswordRules.Violation.NO_DIGIT, relaxed.check("correct horse battery"));
+    }
+
+    /** Run with {@code ./gradlew benchmark}; numbers are printed, not asserted. */
+    @Test
+    @Tag("benchmark")
+    void compareWithLegacyPattern() {
+        Random random = new Random(7);
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            inputs.add(randomPassword(random, 8 + random.nextInt(12)));
+        }
+        inputs.add("a".repeat(100_000));
+        inputs.add("aB1".repeat(30_000) + " ");
+
+        for (int round = 0; round < 3; round++) {
+            long regexNanos = time(inputs, password -> LEGACY.matcher(password).matches());
+            long rulesNanos = time(inputs, password -> defaults.check(password) == null);
+            System.out.printf("round %d: regex %,d us, PasswordRules %,d us%n",
+                    round, regexNanos / 1_000, rulesNanos / 1_000);
+        }
+    }
+
+    private static long time(List<String> inputs, Predicate<String> check) {
+        int valid = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < 50; i++) {
+            for (String password : inputs) {
+                if (check.test(password)) {
+                    valid++;
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (valid < 0) {
+            throw new AssertionError();
+        }
+        return elapsed;
+    }
+
+    private static String randomPassword(Random random, int length) {
+        StringBuilder password = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            password.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return password.toString();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.monyormsauth.auth.warmup;
+
+import com.example.monyormsauth.auth.service.JwtService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = {"warmup.enabled=true", "warmup.tokenIterations=50", "warmup.passwordMatches=2",
+        "warmup.repositoryCalls=5"})
+@ActiveProfiles("test")
+@ExtendWith(OutputCaptureExtension.class)
+class WarmupRunnerTests {
+
+    // Startup order as seen from inside the context: readiness states and the first warm-up call
+    private static final List<String> timeline = new CopyOnWriteArrayList<>();
+
+    // Stubbed once the context has started, see Probes
+    @SpyBean
+    private JwtService jwtService;
+
+    @Autowired
+    private ApplicationAvailability availability;
+
+    @TestConfiguration
+    static class Probes {
+
+        @Bean
+        ApplicationListener<AvailabilityChangeEvent<?>> readinessRecorder() {
+            return event -> {
+                if (event.getState() instanceof ReadinessState state) {
+                    timeline.add(state.name());
+                }
+            };
+        }
+
+        @Bean
+        ApplicationListener<ApplicationStartedEvent> spyRecorder() {
+            // Runners start after ApplicationStartedEvent; the spy is in place by then
+            return event -> {
+                JwtService jwtService = event.getApplicationContext().getBean(JwtService.class);
+                doAnswer(invocation -> {
+                    if (!timeline.contains("warmup")) {
+                        ApplicationAvailability availability = event.getApplicationContext().getBean(ApplicationAvailability.class);
+                        timeline.add("warmup");
+                        timeline.add("during warm-up: " + availability.getReadinessState());
+                    }
+                    return invocation.callRealMethod();
+                }).when(jwtService).parseAccessToken(anyString());
+            };
+        }
+    }
+
+    @Test
+    void readinessTurnsUpOnlyAfterTheWarmUpAndItReportsThroughput(CapturedOutput output) {
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, availability.getReadinessState());
+        assertEquals(List.of("warmup", "during warm-up: " + ReadinessState.REFUSING_TRAFFIC, ReadinessState.ACCEPTING_TRAFFIC.name()),
+                timeline);
+
+        String log = output.getAll();
+        for (String stage : List.of("jwt sign/verify", "password match", "user repository")) {
+            assertTrue(log.matches("(?s).*Warm-up " + stage + ": \\d+ iterations in \\d+ ms \\(\\d+ ops/s\\).*"), stage);
+        }
+        assertTrue(log.contains("Warm-up jwt sign/verify: 50 iterations"));
+        assertTrue(log.contains("Warm-up finished in"));
+    }
+}
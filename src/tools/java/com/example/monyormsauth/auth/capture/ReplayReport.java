@@ -0,0 +1,165 @@
+package com.example.monyormsauth.auth.capture;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-endpoint latency of one replay next to the latency the same requests had when captured.
+ * Written as CSV so the run of another build can be compared against it with {@code --compare}.
+ */
+final class ReplayReport {
+
+    static final String CSV_HEADER =
+            "endpoint,count,captured_p50_us,captured_p99_us,p50_us,p90_us,p99_us,max_us,status_mismatches,errors,shed";
+
+    record Row(String endpoint, int count, long capturedP50, long capturedP99,
+               long p50, long p90, long p99, long max, int statusMismatches, int errors, int shed) {
+    }
+
+    private final Map<CapturedEndpoint, Samples> captured = new EnumMap<>(CapturedEndpoint.class);
+    private final Map<CapturedEndpoint, Samples> replayed = new EnumMap<>(CapturedEndpoint.class);
+    private final Map<CapturedEndpoint, int[]> counters = new EnumMap<>(CapturedEndpoint.class);
+    private final Samples all = new Samples();
+    private final Samples allCaptured = new Samples();
+    private final int[] allCounters = new int[3];
+
+    private static final int MISMATCH = 0;
+    private static final int ERROR = 1;
+    private static final int SHED = 2;
+
+    /** @param status replayed status, or -1 if the request failed without a response */
+    void add(TrafficRecord record, long replayMicros, int status) {
+        CapturedEndpoint endpoint = record.endpoint();
+        captured.computeIfAbsent(endpoint, key -> new Samples()).add(record.durationMicros());
+        allCaptured.add(record.durationMicros());
+        int[] counts = counters.computeIfAbsent(endpoint, key -> new int[3]);
+        if (status < 0) {
+            count(counts, ERROR);
+            return;
+        }
+        replayed.computeIfAbsent(endpoint, key -> new Samples()).add(replayMicros);
+        all.add(replayMicros);
+        if (status == 503) {
+            count(counts, SHED);
+        }
+        if (status != record.status()) {
+            count(counts, MISMATCH);
+        }
+    }
+
+    List<Row> rows() {
+        List<Row> rows = new ArrayList<>();
+        for (Map.Entry<CapturedEndpoint, Samples> entry : captured.entrySet()) {
+            rows.add(row(entry.getKey().name(), entry.getValue(),
+                    replayed.getOrDefault(entry.getKey(), new Samples()), counters.get(entry.getKey())));
+        }
+        rows.add(row("ALL", allCaptured, all, allCounters));
+        return rows;
+    }
+
+    void print(PrintStream out, Map<String, Row> baseline) {
+        out.printf("%-16s %9s %12s %12s %9s %9s %9s %10s %9s %7s %6s%n",
+                "endpoint", "count", "capt p50 us", "capt p99 us", "p50 us", "p90 us", "p99 us", "max us",
+                "mismatch", "errors", "shed");
+        for (Row row : rows()) {
+            out.printf("%-16s %9d %12d %12d %9d %9d %9d %10d %9d %7d %6d%n",
+                    row.endpoint(), row.count(), row.capturedP50(), row.capturedP99(),
+                    row.p50(), row.p90(), row.p99(), row.max(), row.statusMismatches(), row.errors(), row.shed());
+        }
+        if (baseline == null) {
+            return;
+        }
+
+        out.println();
+        out.printf("%-16s %16s %16s %16s%n", "vs baseline", "p50", "p90", "p99");
+        for (Row row : rows()) {
+            Row base = baseline.get(row.endpoint());
+            if (base == null) {
+                out.printf("%-16s %16s%n", row.endpoint(), "not in baseline");
+                continue;
+            }
+            out.printf("%-16s %16s %16s %16s%n", row.endpoint(),
+                    delta(base.p50(), row.p50()), delta(base.p90(), row.p90()), delta(base.p99(), row.p99()));
+        }
+    }
+
+    void writeCsv(Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(CSV_HEADER);
+        for (Row row : rows()) {
+            lines.add(String.join(",", row.endpoint(), String.valueOf(row.count()),
+                    String.valueOf(row.capturedP50()), String.valueOf(row.capturedP99()),
+                    String.valueOf(row.p50()), String.valueOf(row.p90()), String.valueOf(row.p99()),
+                    String.valueOf(row.max()), String.valueOf(row.statusMismatches()),
+                    String.valueOf(row.errors()), String.valueOf(row.shed())));
+        }
+        Files.write(file, lines);
+    }
+
+    static Map<String, Row> readCsv(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file);
+        if (lines.isEmpty() || !lines.get(0).equals(CSV_HEADER)) {
+            throw new IOException(file + " is not a replay report");
+        }
+        Map<String, Row> rows = new HashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            String[] f = line.split(",");
+            rows.put(f[0], new Row(f[0], Integer.parseInt(f[1]), Long.parseLong(f[2]), Long.parseLong(f[3]),
+                    Long.parseLong(f[4]), Long.parseLong(f[5]), Long.parseLong(f[6]), Long.parseLong(f[7]),
+                    Integer.parseInt(f[8]), Integer.parseInt(f[9]), Integer.parseInt(f[10])));
+        }
+        return rows;
+    }
+
+    private void count(int[] counts, int counter) {
+        counts[counter]++;
+        allCounters[counter]++;
+    }
+
+    private static Row row(String name, Samples captured, Samples replayed, int[] counts) {
+        captured.sort();
+        replayed.sort();
+        return new Row(name, captured.size, captured.percentile(0.50), captured.percentile(0.99),
+                replayed.percentile(0.50), replayed.percentile(0.90), replayed.percentile(0.99),
+                replayed.percentile(1.0), counts[MISMATCH], counts[ERROR], counts[SHED]);
+    }
+
+    private static String delta(long before, long after) {
+        if (before == 0) {
+            return after + " us";
+        }
+        return String.format("%+.1f%% (%d us)", (after - before) * 100.0 / before, after);
+    }
+
+    private static final class Samples {
+        private long[] values = new long[64];
+        private int size;
+
+        void add(long micros) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = micros;
+        }
+
+        void sort() {
+            Arrays.sort(values, 0, size);
+        }
+
+        long percentile(double p) {
+            if (size == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * size) - 1;
+            return values[Math.max(0, Math.min(size - 1, index))];
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.monyormsauth.auth.capture;
+
+import com.example.monyormsauth.auth.util.TokenPartitions;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.UUID;
+
+/**
+ * Puts the database of the build under test into the state a replay expects: one account per captured
+ * subject ({@code replay-<n>}), a refresh token for every subject replayed as a successful refresh and a
+ * reset token for every successful reset. Runs before each replay and undoes what the previous replay
+ * changed, so two builds are measured against the same data.
+ *
+ * <p>It deletes and rewrites rows, so it refuses any database that is not explicitly marked for replays with
+ * {@code COMMENT ON DATABASE <name> IS 'monyorms-replay'}. The account password and the token values are
+ * random per run; nothing a seeding leaves behind works after the next one.
+ */
+final class ReplaySeeder {
+
+    static final String REPLAY_DATABASE_MARKER = "monyorms-replay";
+    static final String WRONG_PASSWORD = "Wrong#Pass1";
+
+    private static final String SEEDED = "SELECT id FROM app_user WHERE username LIKE 'replay-%'";
+    private static final int BATCH = 1000;
+
+    // Fixed per run: the expiry day is part of the token value (TokenPartitions)
+    private static final Instant REFRESH_EXPIRY = Instant.now().plus(Duration.ofDays(7));
+    private static final Instant RESET_EXPIRY = Instant.now().plus(Duration.ofHours(1));
+
+    private final String password;
+    private final String runKey;
+
+    ReplaySeeder(SecureRandom random) {
+        // Satisfies the default password policy: lower, upper, digit and special character
+        this.password = "Replay#1" + Long.toString(random.nextLong() & Long.MAX_VALUE, 36);
+        this.runKey = Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong());
+    }
+
+    String password() {
+        return password;
+    }
+
+    static String username(int index) {
+        return "replay-" + index;
+    }
+
+    static String email(int index) {
+        return "replay-" + index + "@replay.test";
+    }
+
+    /** Username for a registration that succeeded in the capture; removed again by the next seeding. */
+    static String newUsername(int sequence) {
+        return "replay-new-" + sequence;
+    }
+
+    String refreshToken(int index) {
+        return TokenPartitions.prefixed(TokenPartitions.day(REFRESH_EXPIRY), token("refresh", index));
+    }
+
+    String resetToken(int index) {
+        return TokenPartitions.prefixed(TokenPartitions.day(RESET_EXPIRY), token("reset", index));
+    }
+
+    // Reproducible within the run (seeding and replay must agree), unguessable across runs
+    private String token(String kind, int index) {
+        return UUID.nameUUIDFromBytes((runKey + "-" + kind + "-" + index).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /** Returns the user id of every seeded account, indexed like {@link #username(int)}. */
+    long[] seed(String jdbcUrl, String user, String dbPassword, int users,
+                BitSet refreshOwners, BitSet resetOwners) throws SQLException {
+        String hash = new BCryptPasswordEncoder(10).encode(password);
+        Instant now = Instant.now();
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, user, dbPassword)) {
+            requireReplayDatabase(connection);
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("DELETE FROM refresh_token WHERE user_id IN (" + SEEDED + ")");
+                statement.executeUpdate("DELETE FROM password_reset_token WHERE user_id IN (" + SEEDED + ")");
+                statement.executeUpdate("DELETE FROM user_roles WHERE user_id IN (" + SEEDED + ")");
+                statement.executeUpdate("DELETE FROM app_user WHERE username LIKE 'replay-new-%'");
+            }
+
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO app_user (username, email, password, created_at, version) VALUES (?, ?, ?, ?, 0) "
+                            + "ON CONFLICT (username) DO UPDATE SET email = EXCLUDED.email, password = EXCLUDED.password")) {
+                for (int i = 0; i < users; i++) {
+                    insert.setString(1, username(i));
+                    insert.setString(2, email(i));
+                    insert.setString(3, hash);
+                    insert.setTimestamp(4, Timestamp.from(now));
+                    addBatch(insert, i);
+                }
+                insert.executeBatch();
+            }
+
+            long[] ids = new long[users];
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT id, username FROM app_user WHERE username LIKE 'replay-%'")) {
+                while (rs.next()) {
+                    int index = indexOf(rs.getString(2));
+                    if (index >= 0 && index < users) {
+                        ids[index] = rs.getLong(1);
+                    }
+                }
+            }
+
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO user_roles (user_id, role) VALUES (?, 'USER')")) {
+                for (int i = 0; i < users; i++) {
+                    insert.setLong(1, ids[i]);
+                    addBatch(insert, i);
+                }
+                insert.executeBatch();
+            }
+
+            insertTokens(connection, "refresh_token", refreshOwners, ids, true, REFRESH_EXPIRY);
+            insertTokens(connection, "password_reset_token", resetOwners, ids, false, RESET_EXPIRY);
+            connection.commit();
+            return ids;
+        }
+    }
+
+    private static void requireReplayDatabase(Connection connection) throws SQLException {
+        String comment;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT shobj_description(oid, 'pg_database') FROM pg_database "
+                     + "WHERE datname = current_database()")) {
+            comment = rs.next() ? rs.getString(1) : null;
+        }
+        if (!REPLAY_DATABASE_MARKER.equals(comment)) {
+            throw new IllegalStateException("Refusing to seed " + connection.getCatalog() + ": the replay deletes and "
+                    + "rewrites replay-* accounts. Mark a dedicated database with COMMENT ON DATABASE <name> IS '"
+                    + REPLAY_DATABASE_MARKER + "'");
+        }
+    }
+
+    private void insertTokens(Connection connection, String table, BitSet owners, long[] ids,
+                                     boolean refresh, Instant expiry) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + table + " (token, user_id, expiry_date, expiry_day) VALUES (?, ?, ?, ?)")) {
+            int count = 0;
+            for (int i = owners.nextSetBit(0); i >= 0; i = owners.nextSetBit(i + 1)) {
+                insert.setString(1, refresh ? refreshToken(i) : resetToken(i));
+                insert.setLong(2, ids[i]);
+                insert.setTimestamp(3, Timestamp.from(expiry));
+                insert.setInt(4, TokenPartitions.day(expiry));
+                addBatch(insert, count++);
+            }
+            insert.executeBatch();
+        }
+    }
+
+    // -1 for anything that is not a seeded replay-<n> account
+    private static int indexOf(String username) {
+        String suffix = username.substring("replay-".length());
+        if (suffix.isEmpty() || suffix.length() > 9 || !suffix.chars().allMatch(Character::isDigit)) {
+            return -1;
+        }
+        return Integer.parseInt(suffix);
+    }
+
+    private static void addBatch(PreparedStatement statement, int count) throws SQLException {
+        statement.addBatch();
+        if ((count + 1) % BATCH == 0) {
+            statement.executeBatch();
+        }
+    }
+}
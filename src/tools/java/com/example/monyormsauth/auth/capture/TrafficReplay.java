@@ -0,0 +1,335 @@
+package com.example.monyormsauth.auth.capture;
+
+import com.example.monyormsauth.auth.model.enumerator.ERole;
+import com.example.monyormsauth.auth.service.Hs256TokenEncoder;
+import com.example.monyormsauth.auth.service.RoleMask;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Offline tool: replays a capture written by {@link TrafficCaptureFilter} against a running build and
+ * reports per-endpoint latency next to the captured latency, optionally against the report of another build.
+ *
+ * <p>Every captured subject becomes a seeded {@code replay-<n>} account (see {@link ReplaySeeder}), and each
+ * request is rebuilt so that it takes the same path as the original: a login that succeeded gets the right
+ * password, a refresh that failed gets an unknown token, a 400 gets an empty body. Bearer tokens are minted
+ * with the original age and role, so the build under test must use the same {@code jwt.secret}.
+ *
+ * <p>Only point it at a dedicated database marked with {@code COMMENT ON DATABASE <name> IS 'monyorms-replay'};
+ * {@link ReplaySeeder} refuses anything else. Secrets are read from the environment, never from the command
+ * line where other users and shell history can see them: {@code REPLAY_DB_PASSWORD} and
+ * {@code REPLAY_JWT_SECRET} (base64, the target's {@code jwt.secret}).
+ *
+ * <pre>
+ * REPLAY_DB_PASSWORD=... REPLAY_JWT_SECRET=... ./gradlew replayTraffic --args="traffic.mrtc
+ *     --jdbc jdbc:postgresql://localhost:5432/auth_replay --db-user auth --out candidate.csv --compare baseline.csv"
+ * </pre>
+ *
+ * Seed once with {@code --seed-only} before starting the build under test and restart it between replays:
+ * the identifier index only sees accounts that existed at startup.
+ */
+public final class TrafficReplay {
+
+    private static final String USAGE = """
+            Usage: TrafficReplay <capture.mrtc> --jdbc <url> [--db-user u]
+                   [--target http://localhost:9090] [--speed 1.0 (0 = as fast as possible)] [--concurrency 64]
+                   [--claim-profile legacy|compact] [--jwt-expiration-ms 3600000]
+                   [--out report.csv] [--compare baseline.csv] [--seed-only]
+            Environment: REPLAY_DB_PASSWORD, REPLAY_JWT_SECRET (base64; needed when the capture has bearer tokens)""";
+
+    private static final String INVALID_BEARER = "Bearer replay.invalid.token";
+
+    private final List<TrafficRecord> records;
+    // Replay time of each record in microseconds, segments laid end to end
+    private final long[] offsets;
+    private final int[] subjects;
+    private final int[] callers;
+    private final int users;
+    private final BitSet refreshOwners = new BitSet();
+    private final BitSet resetOwners = new BitSet();
+    private boolean needsBearer;
+
+    private final ReplaySeeder seeder = new ReplaySeeder(new SecureRandom());
+    private long[] userIds;
+    private Hs256TokenEncoder encoder;
+    private boolean compactClaims;
+    private long jwtExpirationMs = 3_600_000;
+
+    private TrafficReplay(List<TrafficTraceFile.Segment> segments) {
+        int total = segments.stream().mapToInt(segment -> segment.records().size()).sum();
+        this.records = new ArrayList<>(total);
+        this.offsets = new long[total];
+        this.subjects = new int[total];
+        this.callers = new int[total];
+
+        // Hashes are only comparable within a segment, so the same hash in two segments is two accounts
+        Map<Long, Integer> accounts = new HashMap<>();
+        long segmentOffset = 0;
+        int segmentIndex = 0;
+        for (TrafficTraceFile.Segment segment : segments) {
+            List<TrafficRecord> sorted = new ArrayList<>(segment.records());
+            sorted.sort(Comparator.comparingLong(TrafficRecord::startMicros));
+            long segmentEnd = 0;
+            for (TrafficRecord record : sorted) {
+                int i = records.size();
+                records.add(record);
+                offsets[i] = segmentOffset + record.startMicros();
+                segmentEnd = Math.max(segmentEnd, record.startMicros() + record.durationMicros());
+
+                long key = (long) segmentIndex << 32;
+                subjects[i] = record.has(TrafficRecord.HAS_SUBJECT)
+                        ? accounts.computeIfAbsent(key | (record.subject() & 0xFFFFFFFFL), k -> accounts.size())
+                        : -1;
+                callers[i] = record.has(TrafficRecord.BEARER_VALID)
+                        ? accounts.computeIfAbsent(key | (record.caller() & 0xFFFFFFFFL), k -> accounts.size())
+                        : -1;
+                needsBearer |= record.has(TrafficRecord.BEARER_VALID);
+
+                if (subjects[i] >= 0 && record.succeeded()) {
+                    if (record.endpoint() == CapturedEndpoint.REFRESH_TOKEN) {
+                        refreshOwners.set(subjects[i]);
+                    } else if (record.endpoint() == CapturedEndpoint.RESET_PASSWORD) {
+                        resetOwners.set(subjects[i]);
+                    }
+                }
+            }
+            segmentOffset += segmentEnd;
+            segmentIndex++;
+        }
+        this.users = accounts.size();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1 || args[0].startsWith("--")) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        Path trace = Path.of(args[0]);
+        String target = "http://localhost:9090";
+        String jdbc = null;
+        String dbUser = null;
+        double speed = 1.0;
+        int concurrency = 64;
+        String claimProfile = "legacy";
+        long jwtExpirationMs = 3_600_000;
+        Path out = null;
+        Path compare = null;
+        boolean seedOnly = false;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--target" -> target = args[++i];
+                case "--jdbc" -> jdbc = args[++i];
+                case "--db-user" -> dbUser = args[++i];
+                case "--speed" -> speed = Double.parseDouble(args[++i]);
+                case "--concurrency" -> concurrency = Integer.parseInt(args[++i]);
+                case "--claim-profile" -> claimProfile = args[++i];
+                case "--jwt-expiration-ms" -> jwtExpirationMs = Long.parseLong(args[++i]);
+                case "--out" -> out = Path.of(args[++i]);
+                case "--compare" -> compare = Path.of(args[++i]);
+                case "--seed-only" -> seedOnly = true;
+                case "--db-password", "--jwt-secret" -> throw new IllegalArgumentException(args[i]
+                        + " is no longer accepted, set REPLAY_DB_PASSWORD / REPLAY_JWT_SECRET instead");
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (jdbc == null) {
+            throw new IllegalArgumentException("--jdbc is required: the replay seeds the database of the build under test");
+        }
+        if (speed < 0 || concurrency < 1) {
+            throw new IllegalArgumentException("--speed must be >= 0 and --concurrency >= 1");
+        }
+        // Read before the replay, so a bad baseline doesn't cost a whole run
+        Map<String, ReplayReport.Row> baseline = compare == null ? null : ReplayReport.readCsv(compare);
+
+        TrafficReplay replay = new TrafficReplay(TrafficTraceFile.read(trace));
+        System.out.printf("%d requests, %d accounts (%d refresh tokens, %d reset tokens) from %s%n",
+                replay.records.size(), replay.users, replay.refreshOwners.cardinality(),
+                replay.resetOwners.cardinality(), trace);
+
+        if (replay.needsBearer) {
+            String jwtSecret = System.getenv("REPLAY_JWT_SECRET");
+            if (jwtSecret == null || jwtSecret.isBlank()) {
+                throw new IllegalArgumentException("The capture has authenticated requests; set REPLAY_JWT_SECRET to the target's jwt.secret");
+            }
+            replay.encoder = new Hs256TokenEncoder(Base64.getDecoder().decode(jwtSecret));
+            replay.compactClaims = switch (claimProfile) {
+                case "legacy" -> false;
+                case "compact" -> true;
+                default -> throw new IllegalArgumentException("Unknown claim profile " + claimProfile);
+            };
+            replay.jwtExpirationMs = jwtExpirationMs;
+        }
+
+        replay.userIds = replay.seeder.seed(jdbc, dbUser, System.getenv("REPLAY_DB_PASSWORD"), replay.users,
+                replay.refreshOwners, replay.resetOwners);
+        if (seedOnly) {
+            System.out.println("Seeded " + replay.users + " accounts");
+            return;
+        }
+
+        ReplayReport report = replay.run(URI.create(target), speed, concurrency);
+        report.print(System.out, baseline);
+        if (out != null) {
+            report.writeCsv(out);
+            System.out.println("Report written to " + out);
+        }
+    }
+
+    private ReplayReport run(URI target, double speed, int concurrency) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        int[] statuses = new int[records.size()];
+        long[] micros = new long[records.size()];
+        long[] lateness = new long[records.size()];
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        for (int i = 0; i < records.size(); i++) {
+            long due = start;
+            if (speed > 0) {
+                due += (long) (offsets[i] * 1000 / speed);
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            int index = i;
+            long scheduled = due;
+            workers.execute(() -> {
+                lateness[index] = System.nanoTime() - scheduled;
+                HttpRequest request = request(target, index);
+                long begin = System.nanoTime();
+                try {
+                    statuses[index] = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                } catch (IOException e) {
+                    statuses[index] = -1;
+                } catch (InterruptedException e) {
+                    statuses[index] = -1;
+                    Thread.currentThread().interrupt();
+                }
+                micros[index] = (System.nanoTime() - begin) / 1000;
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.HOURS);
+
+        ReplayReport report = new ReplayReport();
+        long maxLateness = 0;
+        int late = 0;
+        for (int i = 0; i < records.size(); i++) {
+            report.add(records.get(i), micros[i], statuses[i]);
+            maxLateness = Math.max(maxLateness, lateness[i]);
+            if (lateness[i] > TimeUnit.MILLISECONDS.toNanos(10)) {
+                late++;
+            }
+        }
+        if (speed > 0) {
+            // Requests that left late were queued behind busy workers: the replay, not the target, set their pace
+            System.out.printf("Replay took %.1f s; %d requests started over 10 ms late (max %.1f ms)%n",
+                    (System.nanoTime() - start) / 1e9, late, maxLateness / 1e6);
+        } else {
+            System.out.printf("Replay took %.1f s%n", (System.nanoTime() - start) / 1e9);
+        }
+        return report;
+    }
+
+    // Rebuilds record i so that it takes the same path through the target as the captured request did
+    private HttpRequest request(URI target, int i) {
+        TrafficRecord record = records.get(i);
+        int s = subjects[i];
+        boolean ok = record.succeeded();
+        boolean badRequest = record.status() == 400 || s < 0;
+        CapturedEndpoint endpoint = record.endpoint();
+
+        String path = endpoint.template();
+        String body = null;
+        switch (endpoint) {
+            case REGISTER -> body = badRequest ? "{}" : ok
+                    ? credentials(ReplaySeeder.newUsername(i), ReplaySeeder.newUsername(i) + "@replay.test")
+                    : credentials(ReplaySeeder.username(s), ReplaySeeder.email(s));
+            case LOGIN -> body = badRequest ? "{}" : "{\"identifier\":\""
+                    + (record.has(TrafficRecord.SUBJECT_EMAIL) ? ReplaySeeder.email(s) : ReplaySeeder.username(s))
+                    + "\",\"password\":\"" + (ok ? seeder.password() : ReplaySeeder.WRONG_PASSWORD) + "\"}";
+            case REFRESH_TOKEN -> body = badRequest ? "{}"
+                    : "{\"refreshToken\":\"" + (ok ? seeder.refreshToken(s) : "replay-unknown-" + s) + "\"}";
+            case LOGOUT -> {
+                if (s >= 0) {
+                    path += "?username=" + (ok ? ReplaySeeder.username(s) : "replay-unknown-" + s);
+                }
+            }
+            case FORGOT_PASSWORD -> body = badRequest ? "{}" : "{\"email\":\"" + ReplaySeeder.email(s) + "\"}";
+            // The password stays the seeded one, so later logins of the account still succeed
+            case RESET_PASSWORD -> body = badRequest ? "{}" : "{\"token\":\""
+                    + (ok ? seeder.resetToken(s) : "replay-unknown-" + s)
+                    + "\",\"newPassword\":\"" + seeder.password() + "\"}";
+            case AVAILABILITY -> {
+                if (s >= 0) {
+                    path += record.has(TrafficRecord.SUBJECT_EMAIL)
+                            ? "?email=" + ReplaySeeder.email(s)
+                            : "?username=" + ReplaySeeder.username(s);
+                }
+            }
+            default -> {
+                // A 404 was an id that did not exist, and stays one
+                path = endpoint.path(s < 0 || record.status() == 404 ? Long.MAX_VALUE - i : userIds[s]);
+                if (endpoint == CapturedEndpoint.UPDATE_ROLE) {
+                    int role = record.detail() - 1;
+                    body = role >= 0 && role < ERole.values().length
+                            ? "{\"role\":\"" + ERole.values()[role].name() + "\"}"
+                            : "{}";
+                }
+            }
+        }
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(target.resolve(path)).timeout(Duration.ofSeconds(30));
+        if (record.has(TrafficRecord.BEARER_VALID)) {
+            builder.header("Authorization", "Bearer " + accessToken(callers[i], record));
+        } else if (record.has(TrafficRecord.BEARER)) {
+            builder.header("Authorization", INVALID_BEARER);
+        }
+        if (body == null) {
+            builder.method(endpoint.method(), HttpRequest.BodyPublishers.noBody());
+        } else {
+            builder.header("Content-Type", "application/json")
+                    .method(endpoint.method(), HttpRequest.BodyPublishers.ofString(body));
+        }
+        return builder.build();
+    }
+
+    private String credentials(String username, String email) {
+        return "{\"username\":\"" + username + "\",\"email\":\"" + email
+                + "\",\"password\":\"" + seeder.password() + "\"}";
+    }
+
+    private String accessToken(int caller, TrafficRecord record) {
+        ERole role = record.has(TrafficRecord.CALLER_ADMIN) ? ERole.ADMIN : ERole.USER;
+        long issuedAt = System.currentTimeMillis() - record.tokenAgeSeconds() * 1000L;
+        if (compactClaims) {
+            return encoder.encodeCompact(userIds[caller], RoleMask.of(EnumSet.of(role)), issuedAt, jwtExpirationMs);
+        }
+        return encoder.encode(ReplaySeeder.username(caller), List.of("ROLE_" + role.name()), null,
+                issuedAt, jwtExpirationMs);
+    }
+}
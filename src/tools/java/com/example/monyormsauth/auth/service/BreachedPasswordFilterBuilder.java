@@ -0,0 +1,162 @@
+package com.example.monyormsauth.auth.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Offline tool (tools source set, not part of the application jar) that builds the file read by
+ * {@link BreachedPasswordFilter}.
+ *
+ * <pre>
+ * ./gradlew buildBreachedPasswordFilter --args="pwned-passwords-sha1.txt breached.bpf [--fpp 0.001] [--plain]"
+ * </pre>
+ *
+ * The input is either the HIBP SHA-1 dump ({@code HEX40[:count]} per line) or, with {@code --plain},
+ * one clear-text password per line. The bit array is written through a read-write mapping, so building
+ * a filter for hundreds of millions of hashes does not need a large heap. At the end the tool measures
+ * the lookup cost and false-positive rate of the result with random probes.
+ */
+public final class BreachedPasswordFilterBuilder {
+
+    private static final int PROBES = 1_000_000;
+
+    private BreachedPasswordFilterBuilder() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BreachedPasswordFilterBuilder <input> <output> [--fpp 0.001] [--plain]");
+            System.exit(2);
+        }
+        Path input = Path.of(args[0]);
+        Path output = Path.of(args[1]);
+        double fpp = 0.001;
+        boolean plain = false;
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "--fpp" -> fpp = Double.parseDouble(args[++i]);
+                case "--plain" -> plain = true;
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        long started = System.nanoTime();
+        long expected = countEntries(input);
+        long bits = optimalBits(expected, fpp);
+        int hashes = optimalHashes(expected, bits);
+        System.out.printf("Building filter for %,d entries: %,d bits (%.1f MiB), k=%d, target fpp=%s%n",
+                expected, bits, bits / 8.0 / (1 << 20), hashes, fpp);
+
+        long inserted = build(input, output, plain, bits, hashes);
+        System.out.printf("Inserted %,d entries into %s in %.1f s%n",
+                inserted, output, (System.nanoTime() - started) / 1e9);
+
+        try (BreachedPasswordFilter filter = BreachedPasswordFilter.open(output)) {
+            measure(filter);
+        }
+    }
+
+    static long optimalBits(long entries, double fpp) {
+        double bits = -Math.max(1, entries) * Math.log(fpp) / (Math.log(2) * Math.log(2));
+        return ((long) Math.ceil(bits / 64)) * 64;
+    }
+
+    static int optimalHashes(long entries, long bits) {
+        return Math.max(1, (int) Math.round((double) bits / Math.max(1, entries) * Math.log(2)));
+    }
+
+    private static long countEntries(Path input) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            return reader.lines().filter(line -> !line.isBlank()).count();
+        }
+    }
+
+    static long build(Path input, Path output, boolean plain, long bits, int hashes) throws IOException {
+        long dataBytes = bits / 8;
+        Files.deleteIfExists(output);
+        try (FileChannel channel = FileChannel.open(output,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+
+            MappedByteBuffer[] segments = BreachedPasswordFilter.map(channel, FileChannel.MapMode.READ_WRITE,
+                    BreachedPasswordFilter.HEADER_BYTES, dataBytes);
+            MessageDigest sha1 = BreachedPasswordFilter.newSha1();
+            HexFormat hex = HexFormat.of();
+
+            long inserted = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                byte[] digest;
+                if (plain) {
+                    digest = sha1.digest(line.getBytes(StandardCharsets.UTF_8));
+                } else {
+                    int colon = line.indexOf(':');
+                    digest = hex.parseHex(colon < 0 ? line.trim() : line.substring(0, colon));
+                }
+                long h1 = BreachedPasswordFilter.hash1(digest);
+                long h2 = BreachedPasswordFilter.hash2(digest);
+                for (int i = 0; i < hashes; i++) {
+                    long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+                    long offset = (bit >>> 6) << 3;
+                    MappedByteBuffer segment = segments[(int) (offset >>> BreachedPasswordFilter.SEGMENT_SHIFT)];
+                    int position = (int) (offset & (BreachedPasswordFilter.SEGMENT_BYTES - 1));
+                    segment.putLong(position, segment.getLong(position) | (1L << (bit & 63)));
+                }
+                inserted++;
+            }
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+
+            // Header is written last, so a half-built file is never accepted by the reader
+            ByteBuffer header = ByteBuffer.allocate(BreachedPasswordFilter.HEADER_BYTES)
+                    .putInt(BreachedPasswordFilter.MAGIC)
+                    .putInt(BreachedPasswordFilter.VERSION)
+                    .putInt(hashes)
+                    .putInt(0)
+                    .putLong(bits)
+                    .putLong(inserted)
+                    .flip();
+            channel.write(header, 0);
+            channel.force(true);
+            return inserted;
+        }
+    }
+
+    private static void measure(BreachedPasswordFilter filter) {
+        byte[][] probes = new byte[PROBES][20];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (byte[] probe : probes) {
+            random.nextBytes(probe);
+        }
+
+        // First round warms up the JIT, the second one is reported
+        for (int round = 0; round < 2; round++) {
+            long positives = 0;
+            long started = System.nanoTime();
+            for (byte[] probe : probes) {
+                if (filter.mightContainSha1(probe)) {
+                    positives++;
+                }
+            }
+            long elapsed = System.nanoTime() - started;
+            if (round == 1) {
+                System.out.printf("Lookup cost: %.3f µs per probe, observed false-positive rate %.5f%n",
+                        elapsed / 1e3 / PROBES, (double) positives / PROBES);
+            }
+        }
+    }
+}